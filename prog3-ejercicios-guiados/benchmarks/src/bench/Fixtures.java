@@ -0,0 +1,74 @@
+package bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import domain.Athlete;
+import domain.CountryRegistry;
+
+/**
+ * Datos utilizados por las pruebas de rendimiento: atletas generados de forma
+ * determinista y páginas web guardadas en /fixtures.
+ */
+public class Fixtures {
+
+	// sílabas con las que se generan los nombres de los atletas
+	private static final String[] SYLLABLES = { "an", "ma", "ri", "jo", "el", "sa", "to", "ka", "lu", "ne", "mi",
+			"da", "ro", "vi", "le", "na", "go", "ti", "be", "ca" };
+
+	/**
+	 * Genera una lista de atletas con nombres, países y fechas de nacimiento
+	 * aleatorios. La misma semilla genera siempre los mismos atletas.
+	 *
+	 * @param count número de atletas
+	 * @param seed  semilla de la generación
+	 * @return lista de atletas
+	 */
+	public static List<Athlete> athletes(int count, long seed) {
+		Random random = new Random(seed);
+		List<String> countries = CountryRegistry.getInstance().getNames();
+		List<Athlete> athletes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String name = word(random) + " " + word(random);
+			Athlete.Genre genre = random.nextBoolean() ? Athlete.Genre.MALE : Athlete.Genre.FEMALE;
+			String country = countries.get(random.nextInt(countries.size()));
+			LocalDate birthdate = LocalDate.of(1960 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28));
+			athletes.add(new Athlete(i + 1, name, genre, country, birthdate));
+		}
+		return athletes;
+	}
+
+	// genera una palabra con mayúscula inicial de entre dos y cuatro sílabas
+	private static String word(Random random) {
+		StringBuilder word = new StringBuilder();
+		int syllables = 2 + random.nextInt(3);
+		for (int i = 0; i < syllables; i++) {
+			word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+		return word.toString();
+	}
+
+	/**
+	 * Lee una página web guardada en /fixtures.
+	 *
+	 * @param name nombre de la página sin la extensión .html
+	 * @return contenido de la página
+	 */
+	public static byte[] page(String name) {
+		String path = "/fixtures/" + name + ".html";
+		try (InputStream input = Fixtures.class.getResourceAsStream(path)) {
+			if (input == null) {
+				throw new IllegalArgumentException("Página no encontrada: " + path);
+			}
+			return input.readAllBytes();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
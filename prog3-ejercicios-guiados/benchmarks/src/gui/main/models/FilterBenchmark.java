@@ -0,0 +1,64 @@
+package gui.main.models;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.Fixtures;
+import domain.Athlete;
+import domain.CountryRegistry;
+
+/**
+ * Tiempo de aplicar un filtro con setFilter al modelo de la lista de atletas
+ * con distintos tamaños de datos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g", "-Djava.awt.headless=true" })
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+
+	@Param({ "10000", "100000", "1000000" })
+	int athletes;
+
+	private FilterListModel<Athlete> model;
+	private int countryId;
+
+	@Setup
+	public void setup() {
+		List<Athlete> data = Fixtures.athletes(athletes, 42);
+		model = new FilterListModel<>(data);
+		countryId = CountryRegistry.getInstance().getId("España");
+	}
+
+	@Benchmark
+	public int filterAll() {
+		model.setFilter(a -> true);
+		return model.getSize();
+	}
+
+	@Benchmark
+	public int filterByCountry() {
+		model.setFilter(a -> a.getCountryId() == countryId);
+		return model.getSize();
+	}
+
+	@Benchmark
+	public int filterByName() {
+		model.setFilter(a -> a.getName().contains("ana"));
+		return model.getSize();
+	}
+}
@@ -0,0 +1,116 @@
+package gui.main.renderers;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JList;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.Fixtures;
+import domain.Athlete;
+import domain.Medal.Metal;
+import gui.main.models.FilterListModel;
+
+/**
+ * Tiempo de obtener y pintar una celda con los renderers de la lista de
+ * atletas y de la columna de metal de la tabla de medallas, sin pantalla.
+ * Cada llamada pinta la siguiente celda para recorrer distintos atletas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RendererBenchmark {
+
+	private static final int CELL_WIDTH = 200;
+	private static final int CELL_HEIGHT = 20;
+
+	private JList<Athlete> athleteList;
+	private FilterListModel<Athlete> athleteModel;
+	private AthleteListCellRenderer athleteRenderer = new AthleteListCellRenderer();
+
+	private JTable medalsTable;
+	private MetalTableCellRenderer metalRenderer = new MetalTableCellRenderer();
+	private Metal[] metals = Metal.values();
+
+	private BufferedImage image = new BufferedImage(CELL_WIDTH, CELL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+	private Graphics2D graphics;
+	private int row;
+	private boolean highlighting; // indica si el modelo tiene el filtro por texto de las pruebas con resaltado
+
+	@Setup
+	public void setup() {
+		List<Athlete> athletes = Fixtures.athletes(1000, 42);
+		athleteModel = new FilterListModel<>(athletes, Athlete::getName);
+		athleteList = new JList<>(athleteModel);
+		medalsTable = new JTable(new DefaultTableModel(new Object[][] { { Metal.GOLD }, { Metal.SILVER }, { Metal.BRONZE } },
+				new Object[] { "Metal" }));
+		graphics = image.createGraphics();
+	}
+
+	@TearDown
+	public void tearDown() {
+		graphics.dispose();
+	}
+
+	// quita el filtro antes de cada iteración de las pruebas sin resaltado
+	@Setup(Level.Iteration)
+	public void resetFilter() {
+		athleteModel.setFilter(a -> true);
+		highlighting = false;
+	}
+
+	@Benchmark
+	public Component athleteCell() {
+		return paint(athleteRenderer.getListCellRendererComponent(athleteList, nextAthlete(), row, false, false));
+	}
+
+	@Benchmark
+	public Component athleteCellHighlighted() {
+		// el filtro por texto proporciona la posición de las coincidencias a resaltar
+		if (!highlighting) {
+			athleteModel.setTextFilter("a");
+			highlighting = true;
+		}
+		return paint(athleteRenderer.getListCellRendererComponent(athleteList, nextAthlete(), row, false, false));
+	}
+
+	@Benchmark
+	public Component metalCell() {
+		int metalRow = row++ % metals.length;
+		return paint(metalRenderer.getTableCellRendererComponent(medalsTable, metals[metalRow], false, false,
+				metalRow, 0));
+	}
+
+	// obtiene el siguiente atleta de la lista volviendo al principio al llegar al final
+	private Athlete nextAthlete() {
+		row = (row + 1) % athleteModel.getSize();
+		return athleteModel.getElementAt(row);
+	}
+
+	// pinta el componente de la celda igual que lo hace Swing
+	private Component paint(Component component) {
+		component.setBounds(0, 0, CELL_WIDTH, CELL_HEIGHT);
+		component.paint(graphics);
+		return component;
+	}
+}
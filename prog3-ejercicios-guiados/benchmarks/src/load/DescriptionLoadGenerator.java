@@ -0,0 +1,138 @@
+package load;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.DescriptionCache;
+import net.DescriptionCacheMXBean;
+import net.LatencyHistogram;
+import net.WebScraper;
+import net.WebScraperException;
+
+/**
+ * Generador de carga para la cache de descripciones. Inicia el servidor local
+ * FixtureSite, configura WebScraper para que descargue de él y lanza N hilos
+ * que solicitan descripciones de disciplinas aleatorias con
+ * getDescriptionAsync, esperando cada uno la respuesta antes de la siguiente
+ * solicitud. Al terminar muestra el rendimiento, la latencia de las
+ * solicitudes y el número de descargas duplicadas que ha recibido el servidor.
+ *
+ * Los parámetros se indican como clave=valor, por ejemplo:
+ *
+ * <pre>
+ * gradle :benchmarks:loadTest -PloadTest="callers=64 requests=100 latency=20 errors=0.05"
+ * </pre>
+ *
+ * La cache guarda sus ficheros en el directorio de trabajo, que se vacía al
+ * empezar.
+ */
+public class DescriptionLoadGenerator {
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = parseOptions(args);
+		int callers = Integer.parseInt(options.getOrDefault("callers", "32"));
+		int requests = Integer.parseInt(options.getOrDefault("requests", "100"));
+		int disciplines = Integer.parseInt(options.getOrDefault("disciplines", "40"));
+		int latency = Integer.parseInt(options.getOrDefault("latency", "50"));
+		int jitter = Integer.parseInt(options.getOrDefault("jitter", "50"));
+		double errorRate = Double.parseDouble(options.getOrDefault("errors", "0"));
+		int maxConcurrent = Integer.parseInt(options.getOrDefault("max-concurrent", "0"));
+		int maxWait = Integer.parseInt(options.getOrDefault("max-wait", "5000"));
+
+		// el servidor se inicia antes de utilizar WebScraper, que lee la URL base una única vez
+		FixtureSite site = new FixtureSite(latency, jitter, errorRate, maxConcurrent);
+		System.setProperty(WebScraper.BASE_URL_PROPERTY, site.start());
+
+		DescriptionCache cache = DescriptionCache.getInstance();
+		cache.clearCache();
+
+		URL[] urls = new URL[disciplines];
+		for (int i = 0; i < disciplines; i++) {
+			try {
+				urls[i] = WebScraper.getURL("Discipline " + i);
+			} catch (WebScraperException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		System.out.format("Carga: %d hilos x %d solicitudes sobre %d disciplinas (latencia %d+%d ms, errores %.0f %%, máximo %s simultáneas)%n",
+				callers, requests, disciplines, latency, jitter, errorRate * 100,
+				maxConcurrent > 0 ? Integer.toString(maxConcurrent) : "sin límite");
+
+		LatencyHistogram latencies = new LatencyHistogram();
+		LongAdder successes = new LongAdder();
+		LongAdder failures = new LongAdder();
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		CountDownLatch done = new CountDownLatch(callers);
+
+		long start = System.nanoTime();
+		for (int c = 0; c < callers; c++) {
+			executor.execute(() -> {
+				try {
+					for (int r = 0; r < requests; r++) {
+						URL url = urls[ThreadLocalRandom.current().nextInt(urls.length)];
+						CountDownLatch response = new CountDownLatch(1);
+						long requestStart = System.nanoTime();
+						// los callbacks se ejecutan en el hilo de la cache que obtiene la descripción
+						cache.getDescriptionAsync(url, description -> {
+							latencies.record(System.nanoTime() - requestStart);
+							successes.increment();
+							response.countDown();
+						}, error -> {
+							latencies.record(System.nanoTime() - requestStart);
+							failures.increment();
+							response.countDown();
+						}, maxWait, Runnable::run);
+						response.await();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		done.await();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.SECONDS);
+		site.stop();
+
+		long total = successes.sum() + failures.sum();
+		DescriptionCacheMXBean metrics = cache.getMetrics();
+		System.out.format("Solicitudes: %d en %.2f s (%.0f solicitudes/s), correctas %d, con error %d%n", total, seconds,
+				total / seconds, successes.sum(), failures.sum());
+		System.out.format("Latencia (ms): media %.2f, p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, máxima %.2f%n",
+				latencies.getMeanMillis(), latencies.getPercentileMillis(50), latencies.getPercentileMillis(90),
+				latencies.getPercentileMillis(99), latencies.getPercentileMillis(99.9), latencies.getMaxMillis());
+		System.out.format("Cache: aciertos %d, fallos %d (%.1f %% aciertos), descargas %d, descargas fallidas %d%n",
+				metrics.getHits(), metrics.getMisses(), metrics.getHitRatio() * 100, metrics.getDownloads(),
+				metrics.getDownloadErrors());
+		System.out.format("Servidor: peticiones %d, disciplinas %d, errores %d, rechazadas %d, descargas duplicadas %d%n",
+				site.getRequests(), site.getDistinctPages(), site.getErrors(), site.getThrottled(),
+				site.getDuplicates());
+
+		// los hilos de la cache son daemon, pero el cliente HTTP puede mantener hilos activos
+		System.exit(0);
+	}
+
+	// lee los parámetros clave=valor
+	private static Map<String, String> parseOptions(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (separator < 0) {
+				throw new IllegalArgumentException("Parámetro incorrecto, se esperaba clave=valor: " + arg);
+			}
+			options.put(arg.substring(0, separator).strip(), arg.substring(separator + 1).strip());
+		}
+		return options;
+	}
+}
@@ -0,0 +1,184 @@
+package load;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import bench.Fixtures;
+
+/**
+ * Servidor HTTP local que sustituye a la página web de los Juegos Olímpicos en
+ * las pruebas de carga. Devuelve para cualquier disciplina una de las páginas
+ * guardadas en /fixtures, con una latencia, una proporción de errores y un
+ * número máximo de peticiones simultáneas configurables.
+ *
+ * El servidor cuenta las peticiones de cada disciplina para detectar descargas
+ * duplicadas: las que llegan mientras se está sirviendo la misma disciplina o
+ * después de haberla servido correctamente.
+ */
+public class FixtureSite {
+
+	/**
+	 * Ruta de las páginas de las disciplinas en el servidor.
+	 */
+	public static final String SPORTS_PATH = "/sports";
+
+	// páginas guardadas que se sirven para las disciplinas
+	private static final String[] PAGES = { "judo", "athletics" };
+
+	// estado de las peticiones de una disciplina
+	private static class PageStats {
+		AtomicInteger inFlight = new AtomicInteger(); // peticiones en curso
+		volatile boolean served; // indica si ya se ha servido correctamente
+	}
+
+	private int latencyMillis; // latencia mínima de cada respuesta
+	private int jitterMillis; // latencia adicional aleatoria máxima
+	private double errorRate; // proporción de peticiones que devuelven un error 500
+	private Semaphore concurrency; // peticiones simultáneas permitidas, el resto reciben un 429
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private byte[][] pages;
+
+	private Map<String, PageStats> stats = new ConcurrentHashMap<>();
+	private LongAdder requests = new LongAdder();
+	private LongAdder errors = new LongAdder();
+	private LongAdder throttled = new LongAdder();
+	private LongAdder duplicates = new LongAdder();
+
+	/**
+	 * Constructor que recibe la configuración del servidor.
+	 *
+	 * @param latencyMillis latencia mínima de cada respuesta en milisegundos
+	 * @param jitterMillis  latencia adicional aleatoria máxima en milisegundos
+	 * @param errorRate     proporción de peticiones que devuelven un error 500
+	 * @param maxConcurrent número máximo de peticiones simultáneas, las demás
+	 *                      reciben un 429 (0 para no limitar)
+	 */
+	public FixtureSite(int latencyMillis, int jitterMillis, double errorRate, int maxConcurrent) {
+		this.latencyMillis = latencyMillis;
+		this.jitterMillis = jitterMillis;
+		this.errorRate = errorRate;
+		this.concurrency = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+
+		pages = new byte[PAGES.length][];
+		for (int i = 0; i < PAGES.length; i++) {
+			pages[i] = Fixtures.page(PAGES[i]);
+		}
+	}
+
+	/**
+	 * Inicia el servidor en un puerto libre de la máquina local.
+	 *
+	 * @return URL base de las páginas de las disciplinas
+	 * @throws IOException si no se puede iniciar el servidor
+	 */
+	public String start() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext(SPORTS_PATH, this::handle);
+		// cada petición se atiende en su propio hilo virtual para que la latencia
+		// simulada no limite el número de peticiones simultáneas
+		executor = Executors.newVirtualThreadPerTaskExecutor();
+		server.setExecutor(executor);
+		server.start();
+		return "http://localhost:" + server.getAddress().getPort() + SPORTS_PATH;
+	}
+
+	/**
+	 * Detiene el servidor.
+	 */
+	public void stop() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+		}
+	}
+
+	// atiende la petición de la página de una disciplina
+	private void handle(HttpExchange exchange) throws IOException {
+		requests.increment();
+		String slug = exchange.getRequestURI().getPath().substring(SPORTS_PATH.length());
+
+		// se limita el número de peticiones simultáneas
+		if (concurrency != null && !concurrency.tryAcquire()) {
+			throttled.increment();
+			respond(exchange, 429, new byte[0]);
+			return;
+		}
+
+		PageStats pageStats = stats.computeIfAbsent(slug, k -> new PageStats());
+		if (pageStats.inFlight.getAndIncrement() > 0 || pageStats.served) {
+			duplicates.increment();
+		}
+		try {
+			Thread.sleep(latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextInt(jitterMillis + 1) : 0));
+
+			if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+				errors.increment();
+				respond(exchange, 500, new byte[0]);
+			} else {
+				respond(exchange, 200, pages[Math.floorMod(slug.hashCode(), pages.length)]);
+				pageStats.served = true;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pageStats.inFlight.decrementAndGet();
+			if (concurrency != null) {
+				concurrency.release();
+			}
+		}
+	}
+
+	// envía la respuesta y cierra la petición
+	private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+		try (OutputStream output = exchange.getResponseBody()) {
+			output.write(body);
+		}
+	}
+
+	public long getRequests() {
+		return requests.sum();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	public long getThrottled() {
+		return throttled.sum();
+	}
+
+	/**
+	 * Obtiene el número de peticiones de disciplinas que se estaban sirviendo en
+	 * ese momento o que ya se habían servido correctamente.
+	 *
+	 * @return número de descargas duplicadas
+	 */
+	public long getDuplicates() {
+		return duplicates.sum();
+	}
+
+	/**
+	 * Obtiene el número de disciplinas distintas solicitadas.
+	 *
+	 * @return número de disciplinas
+	 */
+	public int getDistinctPages() {
+		return stats.size();
+	}
+}
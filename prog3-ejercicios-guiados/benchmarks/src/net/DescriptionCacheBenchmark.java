@@ -0,0 +1,62 @@
+package net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.Fixtures;
+
+/**
+ * Tiempo de serialización y deserialización de las descripciones guardadas por
+ * la cache, en memoria para no medir el disco. Las descripciones se obtienen de
+ * las páginas guardadas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DescriptionCacheBenchmark {
+
+	@Param({ "judo", "athletics" })
+	String page;
+
+	private List<String> description;
+	private byte[] serialized;
+	private ByteArrayOutputStream output = new ByteArrayOutputStream(64 * 1024);
+
+	@Setup
+	public void setup() throws IOException {
+		description = WebScraper.parseDescription(new ByteArrayInputStream(Fixtures.page(page)), "");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DescriptionCache.writeDescription(description, bytes);
+		serialized = bytes.toByteArray();
+	}
+
+	@Benchmark
+	public int serialize() throws IOException {
+		output.reset();
+		DescriptionCache.writeDescription(description, output);
+		return output.size();
+	}
+
+	@Benchmark
+	public List<String> deserialize() throws IOException, ClassNotFoundException {
+		return DescriptionCache.readDescription(new ByteArrayInputStream(serialized));
+	}
+}
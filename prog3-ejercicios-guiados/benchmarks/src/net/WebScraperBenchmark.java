@@ -0,0 +1,48 @@
+package net;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.Fixtures;
+
+/**
+ * Tiempo de extracción de los párrafos de la descripción a partir del HTML de
+ * páginas guardadas, sin acceder a la red.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WebScraperBenchmark {
+
+	@Param({ "judo", "athletics" })
+	String page;
+
+	private byte[] html;
+
+	@Setup
+	public void setup() {
+		html = Fixtures.page(page);
+	}
+
+	@Benchmark
+	public List<String> parseDescription() throws IOException {
+		return WebScraper.parseDescription(new ByteArrayInputStream(html), "https://olympics.com/en/paris-2024/sports/" + page);
+	}
+}
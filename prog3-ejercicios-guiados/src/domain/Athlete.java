@@ -17,6 +17,7 @@ public class Athlete {
 	private String name; // nombre del atleta
 	private Genre genre; // genéro del atleta
 	private String country; // nombre del país del atleta
+	private int countryId; // identificador del país en el registro de países
 	private LocalDate birthdate; // fecha de nacimiento del atleta
 	private float height; // altura en cm del atleta
 	private float weight; // peso en kg del atleta
@@ -35,6 +36,7 @@ public class Athlete {
 		this.name = name;
 		this.genre = genre;
 		this.country = country;
+		this.countryId = CountryRegistry.getInstance().getId(country);
 		this.birthdate = birthdate;
 		this.height = 0.0f;
 		this.weight = 0.0f;
@@ -72,6 +74,15 @@ public class Athlete {
 		return country;
 	}
 	
+	/**
+	 * Obtiene el identificador del país del atleta en el registro de países,
+	 * que permite acceder directamente a los datos del país
+	 * @return identificador del país o CountryRegistry.UNKNOWN si el país no está registrado
+	 */
+	public int getCountryId() {
+		return countryId;
+	}
+	
 	/**
 	 * Obtiene la altura del atleta
 	 * return altura del atleta
@@ -0,0 +1,136 @@
+package domain;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro de todos los países con su código ISO 3166-1 alfa-2 y su nombre,
+ * cargado una única vez desde el recurso /data/countries.txt.
+ *
+ * Cada país tiene un identificador entero consecutivo (0, 1, 2...) que se
+ * puede utilizar como posición en arrays, de manera que obtener el código, el
+ * nombre o cualquier dato asociado a un país (por ejemplo su bandera) es un
+ * acceso directo a un array en lugar de una búsqueda en un mapa.
+ *
+ * Clase implementada con el patrón Singleton.
+ */
+public class CountryRegistry {
+
+	/**
+	 * Identificador devuelto para los países que no están en el registro.
+	 */
+	public static final int UNKNOWN = -1;
+
+	// recurso con una línea por país: código;nombre[;otros nombres...]
+	private static final String COUNTRIES_RESOURCE = "/data/countries.txt";
+
+	// instancia única del registro, se carga al cargar la clase
+	private static final CountryRegistry instance = new CountryRegistry();
+
+	private String[] isoCodes; // código ISO de cada país por identificador
+	private String[] names; // nombre de cada país por identificador
+	// identificador de cada país a partir de su código ISO, nombre u otros nombres
+	private Map<String, Integer> ids = new HashMap<>();
+
+	// constructor privado, se lee el recurso con los países
+	private CountryRegistry() {
+		List<String> codeList = new ArrayList<>();
+		List<String> nameList = new ArrayList<>();
+
+		InputStream input = CountryRegistry.class.getResourceAsStream(COUNTRIES_RESOURCE);
+		if (input == null) {
+			throw new IllegalStateException("No se ha encontrado el recurso " + COUNTRIES_RESOURCE);
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// se ignoran las líneas vacías y los comentarios
+				if (line.isBlank() || line.startsWith("#")) {
+					continue;
+				}
+
+				String[] fields = line.split(";");
+				int id = codeList.size();
+				codeList.add(fields[0]);
+				nameList.add(fields[1]);
+				for (String field : fields) {
+					ids.put(field, id);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se ha podido leer el recurso " + COUNTRIES_RESOURCE, e);
+		}
+
+		isoCodes = codeList.toArray(String[]::new);
+		names = nameList.toArray(String[]::new);
+	}
+
+	/**
+	 * Obtiene la instancia única del registro de países.
+	 *
+	 * @return registro de países
+	 */
+	public static CountryRegistry getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Obtiene el número de países del registro. Los identificadores van de 0 a
+	 * size() - 1.
+	 *
+	 * @return número de países
+	 */
+	public int size() {
+		return isoCodes.length;
+	}
+
+	/**
+	 * Obtiene el identificador de un país a partir de su nombre, de uno de sus
+	 * otros nombres o de su código ISO.
+	 *
+	 * @param country nombre o código del país
+	 * @return identificador del país o UNKNOWN si no está en el registro
+	 */
+	public int getId(String country) {
+		Integer id = country == null ? null : ids.get(country);
+		return id == null ? UNKNOWN : id;
+	}
+
+	/**
+	 * Obtiene el código ISO 3166-1 alfa-2 de un país.
+	 *
+	 * @param id identificador del país
+	 * @return código ISO del país
+	 */
+	public String getIsoCode(int id) {
+		return isoCodes[id];
+	}
+
+	/**
+	 * Obtiene el nombre de un país.
+	 *
+	 * @param id identificador del país
+	 * @return nombre del país
+	 */
+	public String getName(int id) {
+		return names[id];
+	}
+
+	/**
+	 * Obtiene la lista inmutable de nombres de todos los países ordenada por
+	 * identificador.
+	 *
+	 * @return nombres de los países
+	 */
+	public List<String> getNames() {
+		return List.of(names);
+	}
+}
@@ -0,0 +1,155 @@
+package domain;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import domain.Athlete.Genre;
+import domain.Medal.Metal;
+
+/**
+ * Generador de conjuntos de datos sintéticos de atletas y medallas para probar
+ * la aplicación con millones de registros.
+ *
+ * Los datos se parecen a los reales: los atletas se reparten entre los países
+ * del registro y las medallas entre las disciplinas de los Juegos con una
+ * distribución de Zipf, de manera que unos pocos países y disciplinas
+ * concentran la mayoría de los registros, como ocurre en la realidad. La
+ * mayoría de los atletas no tienen medallas y unos pocos tienen varias.
+ *
+ * La generación es determinista: la misma semilla y el mismo número de atletas
+ * producen siempre los mismos datos.
+ */
+public class DatasetGenerator {
+
+	// disciplinas de los Juegos Olímpicos de París 2024
+	private static final String[] DISCIPLINES = { "Athletics", "Swimming", "Football", "Hockey", "Rowing",
+			"Cycling road", "Cycling track", "Judo", "Wrestling", "Gymnastics artistic", "Basketball", "Volleyball",
+			"Handball", "Fencing", "Boxing", "Canoe sprint", "Sailing", "Shooting", "Water polo", "Tennis",
+			"Weightlifting", "Rugby sevens", "Equestrian", "Taekwondo", "Archery", "Badminton", "Table tennis",
+			"Diving", "Artistic swimming", "Beach volleyball", "Triathlon", "Modern pentathlon", "Golf", "Mountain bike",
+			"Cycling BMX racing", "Cycling BMX freestyle", "Canoe slalom", "Marathon swimming", "Trampoline",
+			"Rhythmic gymnastics", "Skateboarding", "Sport climbing", "Surfing", "Breaking", "3x3 basketball" };
+
+	// sílabas con las que se generan los nombres y apellidos
+	private static final String[] SYLLABLES = { "an", "ma", "ri", "jo", "el", "sa", "to", "ka", "lu", "ne", "mi",
+			"da", "ro", "vi", "le", "na", "go", "ti", "be", "ca", "mar", "son", "ber", "tin", "ez", "ov", "chi", "li" };
+
+	// exponentes de las distribuciones de Zipf, cuanto mayor es el exponente
+	// más se concentran los registros en los primeros valores
+	private static final double COUNTRY_SKEW = 1.1;
+	private static final double DISCIPLINE_SKEW = 0.8;
+
+	// probabilidad de que un atleta tenga al menos una medalla y de que, teniendo
+	// medallas, tenga una más
+	private static final double MEDALIST_PROBABILITY = 0.3;
+	private static final double EXTRA_MEDAL_PROBABILITY = 0.25;
+
+	// código del primer atleta generado
+	private static final int FIRST_CODE = 1_000_000;
+
+	// fechas de la competición
+	private static final LocalDate FIRST_DAY = LocalDate.of(2024, 7, 27);
+	private static final int COMPETITION_DAYS = 16;
+
+	private long seed; // semilla de la generación
+
+	/**
+	 * Constructor que recibe la semilla de la generación.
+	 *
+	 * @param seed semilla, la misma semilla genera siempre los mismos datos
+	 */
+	public DatasetGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Genera un conjunto de datos con el número de atletas indicado y sus medallas.
+	 *
+	 * @param athleteCount número de atletas
+	 * @return versión inicial de los datos generados
+	 */
+	public DatasetSnapshot generate(int athleteCount) {
+		if (athleteCount < 0) {
+			throw new IllegalArgumentException("El número de atletas no puede ser negativo: " + athleteCount);
+		}
+		Random random = new Random(seed);
+
+		// el orden de los países se baraja con la semilla para que los más
+		// frecuentes no sean siempre los primeros en orden alfabético
+		List<String> countries = new ArrayList<>(CountryRegistry.getInstance().getNames());
+		Collections.shuffle(countries, random);
+		List<String> disciplines = new ArrayList<>(Arrays.asList(DISCIPLINES));
+		Collections.shuffle(disciplines, random);
+
+		double[] countryDistribution = zipf(countries.size(), COUNTRY_SKEW);
+		double[] disciplineDistribution = zipf(disciplines.size(), DISCIPLINE_SKEW);
+
+		List<Athlete> athletes = new ArrayList<>(athleteCount);
+		Map<Integer, List<Medal>> medals = new HashMap<>();
+		for (int i = 0; i < athleteCount; i++) {
+			Genre genre = random.nextBoolean() ? Genre.MALE : Genre.FEMALE;
+			String name = word(random) + ", " + word(random);
+			String country = countries.get(sample(countryDistribution, random));
+			LocalDate birthdate = LocalDate.of(1970, 1, 1).plusDays(random.nextInt(365 * 38));
+
+			Athlete athlete = new Athlete(FIRST_CODE + i, name, genre, country, birthdate);
+			// altura y peso con una distribución normal según el género
+			boolean male = genre == Genre.MALE;
+			athlete.setHeight(Math.round((male ? 180 : 168) + random.nextGaussian() * 9));
+			athlete.setWeight(Math.round((male ? 78 : 62) + random.nextGaussian() * 11));
+			athletes.add(athlete);
+
+			if (random.nextDouble() < MEDALIST_PROBABILITY) {
+				List<Medal> athleteMedals = new ArrayList<>(1);
+				do {
+					Metal metal = Metal.values()[random.nextInt(Metal.values().length)];
+					LocalDate date = FIRST_DAY.plusDays(random.nextInt(COMPETITION_DAYS));
+					String discipline = disciplines.get(sample(disciplineDistribution, random));
+					athleteMedals.add(new Medal(metal, date, athlete, discipline));
+				} while (random.nextDouble() < EXTRA_MEDAL_PROBABILITY);
+				medals.put(athlete.getCode(), athleteMedals);
+			}
+		}
+
+		return DatasetSnapshot.of(athletes, medals);
+	}
+
+	// calcula la distribución acumulada de Zipf para n valores: la probabilidad
+	// del valor k (empezando en 1) es proporcional a 1 / k^exponente
+	private static double[] zipf(int n, double exponent) {
+		double[] cumulative = new double[n];
+		double sum = 0;
+		for (int k = 0; k < n; k++) {
+			sum += 1 / Math.pow(k + 1, exponent);
+			cumulative[k] = sum;
+		}
+		for (int k = 0; k < n; k++) {
+			cumulative[k] /= sum;
+		}
+		return cumulative;
+	}
+
+	// obtiene un valor aleatorio de una distribución acumulada con una búsqueda binaria
+	private static int sample(double[] cumulative, Random random) {
+		int index = Arrays.binarySearch(cumulative, random.nextDouble());
+		// si el valor no está en el array se obtiene la posición en la que se insertaría
+		return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+	}
+
+	// genera una palabra con mayúscula inicial de entre dos y cuatro sílabas
+	private static String word(Random random) {
+		StringBuilder word = new StringBuilder();
+		int syllables = 2 + random.nextInt(3);
+		for (int i = 0; i < syllables; i++) {
+			word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+		return word.toString();
+	}
+}
@@ -0,0 +1,204 @@
+package domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Versión inmutable del conjunto de datos de la aplicación: la lista de atletas
+ * y las medallas de cada atleta.
+ *
+ * Una instancia nunca se modifica después de ser creada. Los métodos with...
+ * devuelven una nueva versión que comparte con la anterior todas las partes que
+ * no han cambiado (compartición estructural): las medallas se reparten en
+ * grupos según el código del atleta y al modificar las medallas de un atleta
+ * solamente se copia su grupo, el resto de grupos y la lista de atletas se
+ * reutilizan sin copiarse.
+ *
+ * Como las versiones son inmutables, cualquier hilo puede leerlas sin
+ * sincronización y siempre obtiene una vista consistente de los datos. Las
+ * medallas de una versión tampoco deben modificarse, para cambiar una medalla
+ * se crea una copia con el constructor de copia de Medal y se publica una
+ * nueva versión con withReplacedMedal.
+ */
+public final class DatasetSnapshot {
+
+	// número de grupos en los que se reparten las medallas de los atletas
+	private static final int BUCKETS = 64;
+
+	private final long version; // número de versión de los datos
+	private final List<Athlete> athletes; // lista inmutable de atletas
+	// grupos de medallas, cada grupo es un mapa inmutable que relaciona
+	// el código de un atleta con su lista inmutable de medallas
+	private final List<Map<Integer, List<Medal>>> medalBuckets;
+
+	// constructor privado, las versiones se crean con of o con los métodos with...
+	private DatasetSnapshot(long version, List<Athlete> athletes, List<Map<Integer, List<Medal>>> medalBuckets) {
+		this.version = version;
+		this.athletes = athletes;
+		this.medalBuckets = medalBuckets;
+	}
+
+	/**
+	 * Crea la primera versión de los datos a partir de una lista de atletas y
+	 * un mapa con las medallas de cada atleta. Los datos recibidos se copian,
+	 * por lo que pueden modificarse después sin afectar a la versión creada.
+	 *
+	 * @param athletes         lista de atletas
+	 * @param medalsPerAthlete mapa que relaciona el código de cada atleta con sus medallas
+	 * @return versión inicial de los datos
+	 */
+	public static DatasetSnapshot of(List<Athlete> athletes, Map<Integer, List<Medal>> medalsPerAthlete) {
+		List<Map<Integer, List<Medal>>> buckets = new ArrayList<>(BUCKETS);
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.add(new HashMap<>());
+		}
+
+		// repartimos las medallas de cada atleta en su grupo
+		for (Map.Entry<Integer, List<Medal>> entry : medalsPerAthlete.entrySet()) {
+			buckets.get(bucketOf(entry.getKey())).put(entry.getKey(), List.copyOf(entry.getValue()));
+		}
+
+		// una vez construidos los grupos se convierten en inmutables
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, Collections.unmodifiableMap(buckets.get(i)));
+		}
+
+		return new DatasetSnapshot(0, List.copyOf(athletes), Collections.unmodifiableList(buckets));
+	}
+
+	// obtiene el grupo de medallas que corresponde al código de un atleta
+	private static int bucketOf(int athleteCode) {
+		return Math.floorMod(athleteCode, BUCKETS);
+	}
+
+	/**
+	 * Obtiene el número de versión de los datos. Cada modificación publica una
+	 * versión con un número mayor que la anterior.
+	 *
+	 * @return número de versión
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Obtiene la lista inmutable de atletas de esta versión. Las versiones que
+	 * solo modifican medallas comparten la misma lista que la versión anterior.
+	 *
+	 * @return lista de atletas
+	 */
+	public List<Athlete> getAthletes() {
+		return athletes;
+	}
+
+	/**
+	 * Obtiene la lista inmutable de medallas de un atleta. Si el atleta no tiene
+	 * medallas se devuelve una lista vacía.
+	 *
+	 * @param athleteCode código del atleta
+	 * @return lista de medallas del atleta
+	 */
+	public List<Medal> getMedals(int athleteCode) {
+		return medalBuckets.get(bucketOf(athleteCode)).getOrDefault(athleteCode, Collections.emptyList());
+	}
+
+	/**
+	 * Obtiene un stream con todas las medallas de esta versión.
+	 *
+	 * @return stream de medallas
+	 */
+	public Stream<Medal> getAllMedals() {
+		return medalBuckets.stream().flatMap(bucket -> bucket.values().stream()).flatMap(List::stream);
+	}
+
+	/**
+	 * Obtiene una nueva versión en la que se ha añadido el atleta indicado.
+	 *
+	 * @param athlete atleta a añadir
+	 * @return nueva versión de los datos
+	 */
+	public DatasetSnapshot withAthlete(Athlete athlete) {
+		List<Athlete> newAthletes = new ArrayList<>(athletes.size() + 1);
+		newAthletes.addAll(athletes);
+		newAthletes.add(athlete);
+		return new DatasetSnapshot(version + 1, Collections.unmodifiableList(newAthletes), medalBuckets);
+	}
+
+	/**
+	 * Obtiene una nueva versión en la que se han eliminado los atletas indicados
+	 * junto con sus medallas.
+	 *
+	 * @param removedAthletes atletas a eliminar
+	 * @return nueva versión de los datos
+	 */
+	public DatasetSnapshot withoutAthletes(Collection<Athlete> removedAthletes) {
+		Set<Integer> removedCodes = removedAthletes.stream().map(Athlete::getCode).collect(Collectors.toSet());
+		List<Athlete> newAthletes = athletes.stream().filter(a -> !removedCodes.contains(a.getCode())).toList();
+
+		// solamente se copian los grupos que contienen medallas de los atletas eliminados
+		List<Map<Integer, List<Medal>>> newBuckets = new ArrayList<>(medalBuckets);
+		for (Integer code : removedCodes) {
+			int bucket = bucketOf(code);
+			if (newBuckets.get(bucket).containsKey(code)) {
+				Map<Integer, List<Medal>> newBucket = new HashMap<>(newBuckets.get(bucket));
+				newBucket.remove(code);
+				newBuckets.set(bucket, Collections.unmodifiableMap(newBucket));
+			}
+		}
+
+		return new DatasetSnapshot(version + 1, newAthletes, Collections.unmodifiableList(newBuckets));
+	}
+
+	/**
+	 * Obtiene una nueva versión en la que se ha añadido la medalla indicada a
+	 * las medallas de su atleta.
+	 *
+	 * @param medal medalla a añadir
+	 * @return nueva versión de los datos
+	 */
+	public DatasetSnapshot withMedal(Medal medal) {
+		List<Medal> medals = new ArrayList<>(getMedals(medal.getAthlete().getCode()));
+		medals.add(medal);
+		return withMedals(medal.getAthlete().getCode(), medals);
+	}
+
+	/**
+	 * Obtiene una nueva versión en la que una medalla se ha sustituido por otra.
+	 * La medalla a sustituir se busca por referencia entre las medallas de su
+	 * atleta. Si no se encuentra se devuelve esta misma versión.
+	 *
+	 * @param oldMedal medalla a sustituir
+	 * @param newMedal nueva medalla
+	 * @return nueva versión de los datos
+	 */
+	public DatasetSnapshot withReplacedMedal(Medal oldMedal, Medal newMedal) {
+		List<Medal> medals = new ArrayList<>(getMedals(oldMedal.getAthlete().getCode()));
+		for (int i = 0; i < medals.size(); i++) {
+			if (medals.get(i) == oldMedal) {
+				medals.set(i, newMedal);
+				return withMedals(oldMedal.getAthlete().getCode(), medals);
+			}
+		}
+		return this;
+	}
+
+	// crea una nueva versión en la que se sustituyen las medallas de un atleta
+	// copiando únicamente el grupo de medallas al que pertenece el atleta
+	private DatasetSnapshot withMedals(int athleteCode, List<Medal> medals) {
+		int bucket = bucketOf(athleteCode);
+		Map<Integer, List<Medal>> newBucket = new HashMap<>(medalBuckets.get(bucket));
+		newBucket.put(athleteCode, Collections.unmodifiableList(medals));
+
+		List<Map<Integer, List<Medal>>> newBuckets = new ArrayList<>(medalBuckets);
+		newBuckets.set(bucket, Collections.unmodifiableMap(newBucket));
+
+		return new DatasetSnapshot(version + 1, athletes, Collections.unmodifiableList(newBuckets));
+	}
+}
@@ -0,0 +1,51 @@
+package domain;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Almacén que mantiene la versión actual de los datos de la aplicación.
+ *
+ * Los lectores (exportación, análisis, renderers) obtienen la versión actual
+ * con getSnapshot y pueden trabajar con ella el tiempo que necesiten sin
+ * bloquear a nadie, ya que las versiones son inmutables. Los escritores publican
+ * una nueva versión de forma atómica con update.
+ */
+public class DatasetStore {
+
+	// referencia a la versión actual, se utiliza un AtomicReference para
+	// que la publicación de una nueva versión sea atómica y visible
+	// inmediatamente para el resto de hilos
+	private AtomicReference<DatasetSnapshot> current;
+
+	/**
+	 * Constructor que recibe la versión inicial de los datos.
+	 *
+	 * @param initial versión inicial de los datos
+	 */
+	public DatasetStore(DatasetSnapshot initial) {
+		this.current = new AtomicReference<>(initial);
+	}
+
+	/**
+	 * Obtiene la versión actual de los datos.
+	 *
+	 * @return versión actual
+	 */
+	public DatasetSnapshot getSnapshot() {
+		return current.get();
+	}
+
+	/**
+	 * Publica una nueva versión de los datos calculada a partir de la actual.
+	 * Si otro hilo publica una versión mientras se calcula la nueva, el cálculo
+	 * se repite sobre la versión publicada, por lo que la función recibida no
+	 * debe tener efectos secundarios.
+	 *
+	 * @param change función que obtiene la nueva versión a partir de la actual
+	 * @return versión publicada
+	 */
+	public DatasetSnapshot update(UnaryOperator<DatasetSnapshot> change) {
+		return current.updateAndGet(change);
+	}
+}
@@ -32,6 +32,16 @@ public class Medal {
 		this.discipline = discipline;
 	}
 
+	/**
+	 * Constructor de copia que crea una nueva medalla con los mismos datos que la
+	 * medalla recibida. Se utiliza para modificar medallas sin alterar la
+	 * instancia original, que puede estar siendo leída desde otros hilos.
+	 * @param medal medalla cuyos datos se copian
+	 */
+	public Medal(Medal medal) {
+		this(medal.metal, medal.date, medal.athlete, medal.discipline);
+	}
+
 	/**
 	 * Obtiene el tipo de medalla
 	 * @return tipo de medalla
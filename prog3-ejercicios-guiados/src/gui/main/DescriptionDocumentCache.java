@@ -0,0 +1,168 @@
+package gui.main;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.html.HTMLDocument;
+import javax.swing.text.html.HTMLEditorKit;
+
+/**
+ * Cache de los documentos HTML ya construidos que se muestran en el panel de
+ * información contextual de las disciplinas.
+ *
+ * Construir el texto HTML de una descripción y que el JEditorPane lo vuelva a
+ * interpretar cada vez que se selecciona una disciplina es costoso. La cache
+ * guarda el documento ya interpretado de cada disciplina junto con la versión
+ * de la descripción a partir de la que se construyó, de manera que al volver a
+ * seleccionar la disciplina basta con asignar el documento al JEditorPane. Si
+ * la descripción cambia (tiene otra versión) el documento guardado se descarta.
+ *
+ * Los documentos se pueden construir desde cualquier hilo, ya que no están
+ * asociados a ningún componente hasta que se muestran. Se guardan como máximo
+ * MAX_DOCUMENTS documentos, descartando los utilizados hace más tiempo.
+ */
+public class DescriptionDocumentCache {
+
+	// número máximo de documentos guardados en la cache
+	private static final int MAX_DOCUMENTS = 64;
+
+	// documento guardado junto con la versión de la descripción utilizada para construirlo
+	private record VersionedDocument(long version, HTMLDocument document) {
+	}
+
+	// documentos de cada disciplina ordenados por acceso, el primero es el
+	// utilizado hace más tiempo y es el que se descarta al superar el máximo
+	private Map<URL, VersionedDocument> documents = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<URL, VersionedDocument> eldest) {
+			return size() > MAX_DOCUMENTS;
+		}
+	};
+
+	// kit utilizado para interpretar el HTML de los documentos
+	private HTMLEditorKit editorKit = new HTMLEditorKit();
+
+	/**
+	 * Obtiene el documento guardado para una disciplina si se construyó a partir
+	 * de la versión indicada de su descripción.
+	 *
+	 * @param discipline URL de la disciplina
+	 * @param version    versión actual de la descripción de la disciplina
+	 * @return documento de la disciplina o null si no está guardado o se
+	 *         construyó con otra versión de la descripción
+	 */
+	public synchronized HTMLDocument get(URL discipline, long version) {
+		VersionedDocument cached = documents.get(discipline);
+		if (cached == null) {
+			return null;
+		}
+
+		// si la descripción ha cambiado el documento ya no es válido
+		if (cached.version() != version) {
+			documents.remove(discipline);
+			return null;
+		}
+		return cached.document();
+	}
+
+	/**
+	 * Construye el documento de la descripción de una disciplina y lo guarda en
+	 * la cache asociado a la versión indicada.
+	 *
+	 * @param discipline URL de la disciplina
+	 * @param version    versión de la descripción
+	 * @param name       nombre de la disciplina que se muestra como título
+	 * @param paragraphs párrafos de la descripción
+	 * @return documento construido
+	 */
+	public HTMLDocument put(URL discipline, long version, String name, List<String> paragraphs) {
+		// el documento se construye fuera del bloque sincronizado para no
+		// bloquear otros hilos mientras se interpreta el HTML
+		StringBuilder html = startDocument(name, discipline);
+		for (String paragraph : paragraphs) {
+			html.append("<p>").append(escape(paragraph)).append("</p>");
+		}
+		HTMLDocument document = createDocument(html.append("</html>"));
+
+		synchronized (this) {
+			documents.put(discipline, new VersionedDocument(version, document));
+		}
+		return document;
+	}
+
+	/**
+	 * Construye el documento que se muestra cuando no se ha podido obtener la
+	 * descripción de una disciplina. Este documento no se guarda en la cache.
+	 *
+	 * @param discipline URL de la disciplina
+	 * @param name       nombre de la disciplina que se muestra como título
+	 * @return documento construido
+	 */
+	public HTMLDocument createErrorDocument(URL discipline, String name) {
+		StringBuilder html = startDocument(name, discipline);
+		html.append("<p>No se ha podido obtener la información</p></html>");
+		return createDocument(html);
+	}
+
+	/**
+	 * Elimina todos los documentos de la cache.
+	 */
+	public synchronized void clear() {
+		documents.clear();
+	}
+
+	// comienza el HTML del documento con el título y la URL de la disciplina
+	private StringBuilder startDocument(String name, URL discipline) {
+		String url = escape(discipline.toString());
+		return new StringBuilder(1024).append("<html><h1>").append(escape(name)).append("</h1>")
+				.append("<p>URL: <a href='").append(url).append("'>").append(url).append("</a></p>");
+	}
+
+	// interpreta el HTML y crea el documento, igual que haría JEditorPane.setText
+	private HTMLDocument createDocument(CharSequence html) {
+		HTMLDocument document = (HTMLDocument) editorKit.createDefaultDocument();
+		try {
+			editorKit.read(new StringReader(html.toString()), document, 0);
+		} catch (IOException | BadLocationException e) {
+			// no puede ocurrir al leer de un String y escribir al inicio de un documento vacío
+			throw new IllegalStateException("No se ha podido construir el documento", e);
+		}
+		return document;
+	}
+
+	// sustituye los caracteres especiales de HTML del texto de la descripción
+	private static String escape(String text) {
+		StringBuilder escaped = null;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			String replacement = switch (c) {
+				case '<' -> "&lt;";
+				case '>' -> "&gt;";
+				case '&' -> "&amp;";
+				case '\'' -> "&#39;";
+				case '"' -> "&quot;";
+				default -> null;
+			};
+
+			// solo se copia el texto si contiene algún carácter a sustituir
+			if (replacement != null && escaped == null) {
+				escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+			}
+			if (escaped != null) {
+				if (replacement != null) {
+					escaped.append(replacement);
+				} else {
+					escaped.append(c);
+				}
+			}
+		}
+		return escaped == null ? text : escaped.toString();
+	}
+}
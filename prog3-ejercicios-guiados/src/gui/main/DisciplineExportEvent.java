@@ -0,0 +1,30 @@
+package gui.main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder que registra la exportación de la descripción
+ * de cada disciplina a fichero, con el número de párrafos escritos y si se ha
+ * podido obtener la descripción. La duración del evento incluye la descarga y
+ * la escritura en el fichero.
+ */
+@Name("prog3.DisciplineExport")
+@Label("Exportación de disciplina")
+@Category({ "Prog3", "Exportación" })
+@Description("Exportación de la descripción de una disciplina a fichero")
+@StackTrace(false)
+class DisciplineExportEvent extends jdk.jfr.Event {
+
+	@Label("Disciplina")
+	String discipline;
+
+	@Label("Párrafos")
+	int paragraphs;
+
+	@Label("Correcta")
+	boolean success;
+}
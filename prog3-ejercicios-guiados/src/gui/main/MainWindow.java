@@ -1,6 +1,7 @@
 package gui.main;
 
 import java.awt.BorderLayout;
+import java.awt.Color;
 import java.awt.GridLayout;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
@@ -17,17 +18,20 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JDialog;
+import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JEditorPane;
 import javax.swing.JFileChooser;
@@ -45,12 +49,16 @@ import javax.swing.JTabbedPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.text.html.HTMLDocument;
 
 import domain.Athlete;
 import domain.Athlete.Genre;
+import domain.DatasetSnapshot;
+import domain.DatasetStore;
 import domain.Medal;
 import domain.Medal.Metal;
 import gui.main.dialogs.NewAthleteDialog;
@@ -60,12 +68,19 @@ import gui.main.form.AthleteFormPanel;
 import gui.main.form.FormDataNotValid;
 import gui.main.models.FilterListModel;
 import gui.main.models.MedalsTableModel;
+import gui.main.models.PagedMedalsTableModel;
+import gui.main.models.SnapshotMedalSource;
 import gui.main.renderers.AthleteListCellRenderer;
 import gui.main.renderers.DateTableCellRenderer;
 import gui.main.renderers.MetalTableCellRenderer;
+import gui.util.CountryFlags;
 import net.DescriptionCache;
 import net.WebScraper;
 import net.WebScraperException;
+import search.AthleteIndexes;
+import search.AthleteQuery;
+import search.QuerySyntaxException;
+import search.SortOrder;
 
 /**
  * Ventana principal de la aplicación.
@@ -77,6 +92,9 @@ public class MainWindow extends JFrame {
 	 */
 	private static final long serialVersionUID = 1L;
 
+	// detecta si el texto del filtro contiene alguna condición de consulta estructurada (campo:valor, campo>=valor...)
+	private static final Pattern QUERY_CLAUSE = Pattern.compile("(^|\\s)\\p{L}+(:|>=|<=|=|>|<)");
+
 	private List<Athlete> sampleAthletes = new ArrayList<>(Arrays.asList(
 			new Athlete(1111111, "Apellido, Nombre 1", Genre.FEMALE, "Country 1", LocalDate.of(1990, 12, 15)),
 			new Athlete(2222222, "Apellido, Nombre 2", Genre.FEMALE, "Country 2", LocalDate.of(1995, 5, 20)),
@@ -87,7 +105,7 @@ public class MainWindow extends JFrame {
 
 	private List<String> countries = List.of("Country 1", "Country 2", "Country 3", "Country 4");
 
-	private Map<Integer, List<Medal>> medalsPerAthlete = Map.of(
+	private Map<Integer, List<Medal>> sampleMedals = Map.of(
 			sampleAthletes.get(0).getCode(), new ArrayList<>(Arrays.asList(
 					new Medal(Metal.SILVER, LocalDate.of(2024, 7, 29), sampleAthletes.get(0), "Judo"),
 					new Medal(Metal.GOLD, LocalDate.of(2024, 7, 30), sampleAthletes.get(0), "Cycling road"))
@@ -101,11 +119,20 @@ public class MainWindow extends JFrame {
 			)
 	);
 
-	private AthleteListCellRenderer athleteListCellRenderer; // referencia al renderer de la lista de atletas
+	// almacén con la versión actual de atletas y medallas que puede ser leída
+	// desde cualquier hilo sin sincronización
+	private DatasetStore dataset = new DatasetStore(DatasetSnapshot.of(sampleAthletes, sampleMedals));
+	private AthleteIndexes athleteIndexes; // índices de la última versión de los datos consultada
+	// versión de los datos cuyos atletas contiene el modelo de la lista, que
+	// se actualiza junto con el modelo en el hilo de Swing
+	private DatasetSnapshot listedSnapshot = dataset.getSnapshot();
+
 	private FilterListModel<Athlete> jListModelAthletes; // referencia al modelo de datos de la lista
 	private JList<Athlete> jListAthletes; // referencia al JList de atletas
 	private AthleteFormPanel formAthletes; // referencia al formulario (JPanel) de atletas
 	private JButton removeAthletesButton; // referencia al botón de eliminar athletas
+	private JTextField filterTextField; // referencia al campo de filtro de atletas
+	private JCheckBox fuzzyCheckBox; // referencia a la casilla de búsqueda aproximada
 
 	private MedalsTableModel medalsTableModel; // referencia al modelo de datos de la tabla
 	private JTable medalsJTable; // referencia a la tabla de medallas
@@ -116,15 +143,38 @@ public class MainWindow extends JFrame {
 	private Thread exportThread; // referencia al hilo de exportación de disciplinas
 	
 	private DescriptionCache descriptionCache; // referencia a la cache de descripciones de disciplinas
+	// documentos ya construidos de las descripciones mostradas en el panel de información contextual
+	private DescriptionDocumentCache descriptionDocuments = new DescriptionDocumentCache();
 
 	public MainWindow() {
+		this(null);
+	}
+
+	/**
+	 * Constructor que recibe los datos con los que se inicia la aplicación en
+	 * lugar de los datos de ejemplo. Los países del formulario son los de los
+	 * atletas recibidos.
+	 *
+	 * @param initialData datos iniciales o null para utilizar los de ejemplo
+	 */
+	public MainWindow(DatasetSnapshot initialData) {
+		if (initialData != null) {
+			dataset = new DatasetStore(initialData);
+			listedSnapshot = initialData;
+			sampleAthletes = new ArrayList<>(initialData.getAthletes());
+			countries = sampleAthletes.stream().map(Athlete::getCountry).distinct().sorted().toList();
+		}
+
+		// cargamos en paralelo las banderas de todos los países para que
+		// el hilo de Swing no tenga que decodificarlas al pintar las listas
+		CountryFlags.preload();
+
 		// creamos e iniciamos la cache de descripciones de disciplinas
 		descriptionCache = DescriptionCache.getInstance();
 		
 		// vamos a obtener todas los nombres de disciplinas de los atletas
 		// para ir descargando sus descripciones desde la página web en segundo plano
-		Set<URL> allDisciplines = medalsPerAthlete.values().stream()
-			.flatMap(List::stream)
+		Set<URL> allDisciplines = dataset.getSnapshot().getAllMedals()
             .map(m -> {
 				try {
 					return WebScraper.getURL(m.getDiscipline());
@@ -161,16 +211,19 @@ public class MainWindow extends JFrame {
 		// creamos un modelo de datos para instancias Athlete que son las que maneja
 		// la aplicación, así nos evitamos convertir de Athlete a String y viceversa
 		// vamos a utilizar un modelo de datos propio al que se le puede especificar
-		// un filtro cuando sea necesario
-		jListModelAthletes = new FilterListModel<>(sampleAthletes);
+		// un filtro cuando sea necesario. Le indicamos que el texto por el que
+		// se filtran los atletas es su nombre
+		jListModelAthletes = new FilterListModel<>(sampleAthletes, Athlete::getName);
+		// las búsquedas sobre listas grandes se realizan en segundo plano cuando
+		// el usuario deja de escribir durante 150 ms, mostrando resultados parciales
+		jListModelAthletes.setBackgroundFiltering(150, true);
 		
 		// instanciamos y añadimos un JList en la parte WEST del BorderLayout
 		// usamos un JScrollPane para permitir el scroll vertical
 		jListAthletes = new JList<Athlete>(jListModelAthletes);
 		jListAthletes.setFixedCellWidth(200); // anchura fija del JList
 		
-		athleteListCellRenderer = new AthleteListCellRenderer();
-		jListAthletes.setCellRenderer(athleteListCellRenderer);
+		jListAthletes.setCellRenderer(new AthleteListCellRenderer());
 
 		// registramos un escuchador en la lista para actualizar el panel de la derecha
 		// con el atleta seleccionado en cada momento
@@ -188,10 +241,14 @@ public class MainWindow extends JFrame {
 					formAthletes.setAthlete(selectedAthlete);
 	
 					// establecemos también los datos a mostrar en la tabla de medallas
-					// obteniendo la lista de medallas del atleta seleccionado del mapa
-					// si el atleta no tiene medallas usamos una lista vacía
-					List<Medal> medals = medalsPerAthlete.getOrDefault(selectedAthlete.getCode(), Collections.emptyList());
+					// obteniendo la lista de medallas del atleta seleccionado de la versión
+					// actual de los datos, si el atleta no tiene medallas se obtiene una lista vacía
+					List<Medal> medals = dataset.getSnapshot().getMedals(selectedAthlete.getCode());
 					medalsTableModel.updateMedals(medals);
+
+					// es probable que el usuario consulte a continuación alguna de las disciplinas
+					// del atleta, así que pedimos que se descarguen sus descripciones con prioridad
+					prefetchDisciplines(medals, true);
 				} else {
 					// en caso contrario limpiamos el formulario de atletas
 					formAthletes.setAthlete(null);
@@ -199,6 +256,30 @@ public class MainWindow extends JFrame {
 			}
 		});
 
+		// al pasar el ratón sobre un atleta también pedimos que se descarguen con
+		// prioridad las descripciones de sus disciplinas, únicamente cuando el
+		// ratón pasa a estar sobre otro atleta de la lista. No es una acción del
+		// usuario, así que la cache mantiene el tiempo mínimo entre descargas
+		jListAthletes.addMouseMotionListener(new MouseAdapter() {
+			private int hoveredIndex = -1; // índice del último atleta sobre el que ha pasado el ratón
+
+			@Override
+			public void mouseMoved(MouseEvent e) {
+				int index = jListAthletes.locationToIndex(e.getPoint());
+				// locationToIndex devuelve la celda más cercana, comprobamos que el ratón esté sobre ella
+				if (index >= 0 && !jListAthletes.getCellBounds(index, index).contains(e.getPoint())) {
+					index = -1;
+				}
+				if (index != hoveredIndex) {
+					hoveredIndex = index;
+					if (index >= 0) {
+						Athlete athlete = jListModelAthletes.getElementAt(index);
+						prefetchDisciplines(dataset.getSnapshot().getMedals(athlete.getCode()), false);
+					}
+				}
+			}
+		});
+
 		// vamos a registrar otro escuchador de selección para habilitar
 		// deshabilitar el botón de eliminar atleta
 		jListAthletes.addListSelectionListener(e -> {
@@ -218,36 +299,35 @@ public class MainWindow extends JFrame {
 		// también contiene un campo de texto para filtrar la lista
 		JPanel leftPanel = new JPanel(new BorderLayout());
 		
-		// creamos un campo para filtrar la lista de atletas
-		JTextField filterTextField = new JTextField("");
-		leftPanel.add(filterTextField, BorderLayout.NORTH);
+		// creamos un campo para filtrar la lista de atletas y una casilla
+		// para indicar si la búsqueda es aproximada (tolerante a errores)
+		filterTextField = new JTextField("");
+		fuzzyCheckBox = new JCheckBox("Aprox.");
+		fuzzyCheckBox.setToolTipText("Búsqueda aproximada tolerante a errores de escritura");
+		JPanel filterPanel = new JPanel(new BorderLayout());
+		filterPanel.add(filterTextField, BorderLayout.CENTER);
+		filterPanel.add(fuzzyCheckBox, BorderLayout.EAST);
+
+		// desplegable con los criterios de ordenación de la lista de atletas
+		JComboBox<String> sortComboBox = new JComboBox<>(new String[] { "Orden de inserción", "Nombre", "País", "Fecha de nacimiento" });
+		sortComboBox.addActionListener(e -> jListModelAthletes.setSortOrder(createAthleteSortOrder(sortComboBox.getSelectedIndex())));
+		filterPanel.add(sortComboBox, BorderLayout.SOUTH);
+		leftPanel.add(filterPanel, BorderLayout.NORTH);
+		
+		// al cambiar el tipo de búsqueda se vuelve a aplicar el filtro
+		fuzzyCheckBox.addActionListener(e -> applyAthleteFilter());
 		
-		// instancia de un Predicate que se encarga de determinar si un atleta
-		// cumple con el criterio de búsqueda especificado en el campo de texto
-		// si el nombre del atleta contiene el texto del campo de filtro
-		Predicate<Athlete> filter = new Predicate<Athlete>() {
-			
-			@Override
-			public boolean test(Athlete t) {
-				return t.getName().toLowerCase().contains(filterTextField.getText().toLowerCase());
-			}
-		};
-			
 		// escuchador de eventos para actualizar el filtro del modelo de datos
 		filterTextField.getDocument().addDocumentListener(new DocumentListener() {
 			
 			@Override
 			public void insertUpdate(DocumentEvent e) {
-				jListModelAthletes.setFilter(filter); // aplicar el nuevo filtro
-				// establecemos el texto a resaltar en el renderer de la lista
-				athleteListCellRenderer.setHighLightedText(filterTextField.getText());
+				applyAthleteFilter(); // aplicar el nuevo filtro
 			}
 
 			@Override
 			public void removeUpdate(DocumentEvent e) {
-				jListModelAthletes.setFilter(filter); // aplicar el nuevo filtro
-				// establecemos el texto a resaltar en el renderer de la lista
-				athleteListCellRenderer.setHighLightedText(filterTextField.getText());
+				applyAthleteFilter(); // aplicar el nuevo filtro
 			}
 
 			@Override
@@ -377,10 +457,90 @@ public class MainWindow extends JFrame {
 		setVisible(true); // hacemos visible la ventana
 	}
 
+	/**
+	 * Obtiene el almacén con la versión actual de los datos de la aplicación, que
+	 * se puede consultar desde cualquier hilo.
+	 *
+	 * @return almacén de datos
+	 */
+	public DatasetStore getDataset() {
+		return dataset;
+	}
+
+	// componentes utilizados por la prueba de escala para simular al usuario y
+	// medir los tiempos de respuesta
+	JTextField getFilterTextField() {
+		return filterTextField;
+	}
+
+	JList<Athlete> getAthleteList() {
+		return jListAthletes;
+	}
+
+	FilterListModel<Athlete> getAthleteListModel() {
+		return jListModelAthletes;
+	}
+
+	// aplica el filtro del campo de texto a la lista de atletas
+	private void applyAthleteFilter() {
+		String text = filterTextField.getText();
+		filterTextField.setForeground(UIManager.getColor("TextField.foreground"));
+		if (QUERY_CLAUSE.matcher(text).find()) {
+			// el texto es una consulta estructurada que se compila a un plan
+			// que utiliza los índices de los atletas
+			try {
+				jListModelAthletes.setQueryPlan(AthleteQuery.compile(text, () -> listedSnapshot, this::getAthleteIndexes));
+			} catch (QuerySyntaxException e) {
+				// mientras la consulta no es válida se mantiene el filtro anterior
+				// y se indica el error con el color del texto
+				filterTextField.setForeground(Color.RED);
+				filterTextField.setToolTipText(e.getMessage());
+				return;
+			}
+			filterTextField.setToolTipText(null);
+			return;
+		}
+
+		filterTextField.setToolTipText(null);
+		if (fuzzyCheckBox.isSelected()) {
+			// el modelo muestra los atletas con nombres parecidos al texto
+			// ordenados de más a menos parecidos
+			jListModelAthletes.setFuzzyFilter(text);
+		} else {
+			// el modelo muestra los atletas cuyo nombre contiene el texto
+			jListModelAthletes.setTextFilter(text);
+		}
+	}
+
+	// crea el criterio de ordenación de la lista de atletas correspondiente a la
+	// opción seleccionada en el desplegable, los textos se ordenan según el idioma del sistema
+	private SortOrder<Athlete> createAthleteSortOrder(int option) {
+		switch (option) {
+		case 1:
+			return SortOrder.byText(Athlete::getName, Locale.getDefault());
+		case 2:
+			return SortOrder.byText(Athlete::getCountry, Locale.getDefault());
+		case 3:
+			return SortOrder.byLong(a -> a.getBirthdate().toEpochDay());
+		default:
+			return null; // orden de inserción
+		}
+	}
+
+	// obtiene los índices de los atletas de la versión actual de los datos
+	// los índices solo se reconstruyen cuando los datos han cambiado
+	private AthleteIndexes getAthleteIndexes() {
+		DatasetSnapshot snapshot = dataset.getSnapshot();
+		if (athleteIndexes == null || athleteIndexes.getSnapshot() != snapshot) {
+			athleteIndexes = AthleteIndexes.of(snapshot);
+		}
+		return athleteIndexes;
+	}
+
 	// crea el panel que contiene el JTable de medallas
 	private JComponent createMedalPanel() {
 		// creamos el modelo de datos de la tabla
-		medalsTableModel = new MedalsTableModel();
+		medalsTableModel = new MedalsTableModel(dataset);
 		// creamos la tabla de medallas y le asignamos el modelo de datos
 		medalsJTable = new JTable(medalsTableModel);
 
@@ -427,33 +587,33 @@ public class MainWindow extends JFrame {
                 	try {
 	                	URL url = WebScraper.getURL(discipline);
 	                	
-	                	// usamos la cache de descripciones para intentar obtener la descripción
-	                	descriptionCache.getDescriptionAsync(url,
-	            			paragraphs -> {
+	                	// si el documento de la disciplina ya se ha construido con la versión
+	                	// actual de su descripción basta con volver a mostrarlo
+	                	HTMLDocument document = descriptionDocuments.get(url, descriptionCache.getVersion(url));
+	                	if (document != null) {
+	                		showContextualInfo(document);
+	                		return;
+	                	}
+
+	                	// usamos la cache de descripciones para intentar obtener la descripción. Los
+	                	// callbacks se ejecutan en el hilo de la cache, de manera que el documento se
+	                	// construye fuera del hilo de Swing y solo se muestra desde el hilo de Swing
+	                	descriptionCache.getVersionedDescriptionAsync(url,
+	            			description -> {
 	            				// si la descripción se ha podido obtener se llama este callback
-	    						String info = "<html><h1>" + discipline + "</h1>";
-	    						info += "<p>" + String.format("URL: <a href='%s'>%s</a>", url, url) + "</p>";
-	    						for (String paragraph : paragraphs) {
-	    							info += "<p>" + paragraph + "</p>";
-	    						}
-	    						info += "</html>";
-	    						// actualizamos el JTextArea con la información contextual
-		                    	contextualInfoEditorPane.setText(info);
-		                    	// situar el cursos en la parte superior del JTextArea
-		                    	contextualInfoEditorPane.setCaretPosition(0);
+	            				// se guarda el documento construido asociado a la versión de la
+	            				// que proceden los párrafos y se muestra
+	            				HTMLDocument info = descriptionDocuments.put(url, description.version(),
+	            						discipline, description.paragraphs());
+	            				SwingUtilities.invokeLater(() -> showContextualInfo(info));
 	            			},
 	            			error -> {
 	            				// si no se ha podido obtener la descripción se llama este callback
-	            				String info = "<html><h1>" + discipline + "</h1>";
-	            				info += "<p>" + String.format("URL: <a href='%s'>%s</a>", url, url) + "</p>";
-	            				info += "<p>No se ha podido obtener la información</p>";
-	            				info += "</html>";
-	            				// actualizamos el JTextArea con la información contextual
-	                        	contextualInfoEditorPane.setText(info);
-	                        	// situar el cursos en la parte superior del JTextArea
-	                        	contextualInfoEditorPane.setCaretPosition(0);
+	            				HTMLDocument info = descriptionDocuments.createErrorDocument(url, discipline);
+	            				SwingUtilities.invokeLater(() -> showContextualInfo(info));
 	            			},
-	            			5000 // tiempo máximo de espera en milisegundos
+	            			5000, // tiempo máximo de espera en milisegundos
+	            			Runnable::run // los callbacks se ejecutan en el hilo de la cache
 	                	);
                 	} catch (WebScraperException ex) {
                 		System.out.println("Error descargando la información. " + ex.getMessage());
@@ -466,6 +626,29 @@ public class MainWindow extends JFrame {
 		return new JScrollPane(medalsJTable);
 	}
 
+	// solicita a la cache de descripciones que descargue con prioridad alta
+	// las descripciones de las disciplinas de las medallas indicadas, de
+	// inmediato si la solicitud es una acción del usuario
+	private void prefetchDisciplines(List<Medal> medals, boolean userRequested) {
+		List<URL> disciplines = new ArrayList<>(medals.size());
+		for (Medal medal : medals) {
+			try {
+				disciplines.add(WebScraper.getURL(medal.getDiscipline()));
+			} catch (WebScraperException e) {
+				// la disciplina se descargará al seleccionarla, donde se notificará el error
+			}
+		}
+		descriptionCache.prefetch(disciplines, userRequested);
+	}
+
+	// muestra un documento en el panel de información contextual
+	private void showContextualInfo(HTMLDocument document) {
+		// actualizamos el JEditorPane con la información contextual
+		contextualInfoEditorPane.setDocument(document);
+		// situar el cursor en la parte superior del JEditorPane
+		contextualInfoEditorPane.setCaretPosition(0);
+	}
+
 	// método para crear el menú de la ventana
 	private void createWindowMenu() {
 		// creamos la barra principal y asignamos a la ventana
@@ -517,6 +700,38 @@ public class MainWindow extends JFrame {
 		fileMenu.add(exitMenuItem);
 
 		jMenuBar.add(fileMenu);
+
+		// creamos el menú "Ver" con la vista de todas las medallas
+		JMenu viewMenu = new JMenu("Ver");
+		viewMenu.setMnemonic(KeyEvent.VK_V);
+
+		JMenuItem allMedalsMenuItem = new JMenuItem("Todas las medallas...");
+		allMedalsMenuItem.setMnemonic(KeyEvent.VK_M);
+		allMedalsMenuItem.addActionListener(e -> showAllMedalsDialog());
+		viewMenu.add(allMedalsMenuItem);
+
+		jMenuBar.add(viewMenu);
+	}
+
+	// muestra en una ventana las medallas de todos los atletas de la versión actual
+	// de los datos, la tabla utiliza un modelo paginado que carga las medallas por
+	// bloques según se desplaza el usuario, por lo que admite millones de medallas
+	private void showAllMedalsDialog() {
+		PagedMedalsTableModel allMedalsModel = new PagedMedalsTableModel(new SnapshotMedalSource(dataset.getSnapshot()));
+		JTable allMedalsTable = new JTable(allMedalsModel);
+		allMedalsTable.getColumnModel().getColumn(0).setMaxWidth(60);
+		allMedalsTable.getColumnModel().getColumn(1).setMaxWidth(80);
+		allMedalsTable.getColumnModel().getColumn(0).setCellRenderer(new MetalTableCellRenderer());
+		allMedalsTable.setDefaultRenderer(LocalDate.class,
+				new DateTableCellRenderer(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)));
+
+		JDialog allMedalsDialog = new JDialog(this, String.format("Todas las medallas (%d)", allMedalsModel.getRowCount()));
+		allMedalsDialog.add(new JScrollPane(allMedalsTable));
+		// la tabla ya está dentro del JScrollPane y se puede escuchar su desplazamiento
+		allMedalsModel.prefetchOnScroll(allMedalsTable);
+		allMedalsDialog.setSize(400, 500);
+		allMedalsDialog.setLocationRelativeTo(this);
+		allMedalsDialog.setVisible(true);
 	}
 
 	// muestra y procesa el diálogo para añadir un nuevo atleta
@@ -527,7 +742,10 @@ public class MainWindow extends JFrame {
 			// si el usuario ha pulsado la opción guardar
 			// obtenemos el nuevo atleta y lo añadimos a la lista de atletas
 			try {
-				jListModelAthletes.addElement(newAthleteDialog.getAhtlete());
+				Athlete newAthlete = newAthleteDialog.getAhtlete();
+				// se actualizan primero los datos para que los filtros del modelo utilicen la nueva versión
+				listedSnapshot = dataset.update(snapshot -> snapshot.withAthlete(newAthlete));
+				jListModelAthletes.addElement(newAthlete);
 			} catch (FormDataNotValid e) {
 				// no hacemos nada porque sabemos que el atleta debe
 				// ser válido en este punto
@@ -546,9 +764,9 @@ public class MainWindow extends JFrame {
 			// si la respuesta del usuario es afirmativa
 			// obtenemos la lista de índices seleccionados en el JList de atletas
 			// y los borramos de su modelo de datos
-			for (int i = selectedIndices.length - 1; i >= 0; i--) {
-				jListModelAthletes.remove(selectedIndices[i]);
-			}
+			List<Athlete> removedAthletes = jListAthletes.getSelectedValuesList();
+			listedSnapshot = dataset.update(snapshot -> snapshot.withoutAthletes(removedAthletes));
+			jListModelAthletes.removeAll(selectedIndices);
 		}
 	}
 
@@ -581,12 +799,15 @@ public class MainWindow extends JFrame {
 		// obtenemos los atletas seleccionados en el JList
 		List<Athlete> selectedAthletes = jListAthletes.getSelectedValuesList();
 		
+		// obtenemos la versión actual de los datos, que no cambia aunque
+		// se editen medallas mientras se realiza la exportación
+		DatasetSnapshot snapshot = dataset.getSnapshot();
+		
 		// obtenemos el conjunto de todas las disciplinas a exportar
 		// para poder establecer el máximo de la barra de progreso
 		// vamos a utilizar un stream pero se puede usar un bucle
 		Set<String> disciplines = selectedAthletes.stream()
-				.filter(a -> medalsPerAthlete.containsKey(a.getCode()))
-				.flatMap(a -> medalsPerAthlete.get(a.getCode()).stream())
+				.flatMap(a -> snapshot.getMedals(a.getCode()).stream())
 				.map(Medal::getDiscipline).collect(Collectors.toSet());
 		
 		// establecemos el máximo de la barra de progreso
@@ -601,6 +822,10 @@ public class MainWindow extends JFrame {
 				Iterator<String> iterator = disciplines.iterator();
 				while (iterator.hasNext() && !Thread.interrupted()) {
 					String discipline = iterator.next();
+					// se registra un evento de JFR por cada disciplina exportada
+					DisciplineExportEvent event = new DisciplineExportEvent();
+					event.begin();
+					event.discipline = discipline;
                     // escribimos la disciplina y su descripción en el fichero
 					writer.write(discipline + "\n");
 					
@@ -611,6 +836,8 @@ public class MainWindow extends JFrame {
 						for (String paragraph : paragraphs) {
                             writer.write(paragraph + "\n");
                         }
+						event.paragraphs = paragraphs.size();
+						event.success = true;
 					}
 					catch (WebScraperException e) {
                         // si hay problemas con la descarga se imprime el mensaje de error
@@ -620,6 +847,7 @@ public class MainWindow extends JFrame {
                     	Thread.currentThread().interrupt();
                     }
 					writer.write("\n");
+					event.commit();
 						
 					// actualizamos la barra de progreso
 					// debemos utilizar SwingUtilities.invokeLater para actualizar la barra
@@ -0,0 +1,294 @@
+package gui.main;
+
+import java.awt.event.KeyEvent;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JList;
+import javax.swing.JTextField;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import domain.Athlete;
+import domain.DatasetGenerator;
+import domain.DatasetSnapshot;
+import gui.main.models.FilterListModel;
+import net.LatencyHistogram;
+
+/**
+ * Prueba de escala de la ventana principal con un conjunto de datos generado
+ * con millones de atletas y medallas.
+ *
+ * La prueba genera los datos con DatasetGenerator, crea la ventana principal
+ * con ellos y simula a un usuario que escribe en el campo de filtro letra a
+ * letra y selecciona atletas de la lista. Para cada pulsación se mide el
+ * tiempo desde que se envía el evento de teclado hasta que se pinta la lista
+ * con el resultado definitivo del filtro, y para cada selección el tiempo hasta
+ * que se pintan el formulario y la tabla de medallas. También se mide el tiempo
+ * de arranque y la memoria ocupada por los datos y por la ventana.
+ *
+ * La prueba se activa con la propiedad del sistema scale.test indicando el
+ * número de atletas, por ejemplo -Dscale.test=1000000. La semilla de la
+ * generación se puede indicar con scale.test.seed y con
+ * -Dscale.test.exit=true el programa termina al mostrar los resultados.
+ */
+public class ScaleTest {
+
+	/**
+	 * Propiedad del sistema con el número de atletas que activa la prueba.
+	 */
+	public static final String ATHLETES_PROPERTY = "scale.test";
+
+	/**
+	 * Propiedad del sistema con la semilla de la generación de los datos.
+	 */
+	public static final String SEED_PROPERTY = "scale.test.seed";
+
+	/**
+	 * Propiedad del sistema que indica si se termina el programa al acabar la prueba.
+	 */
+	public static final String EXIT_PROPERTY = "scale.test.exit";
+
+	// número de búsquedas que se escriben y longitud de cada búsqueda
+	private static final int QUERIES = 5;
+	private static final int QUERY_LENGTH = 6;
+
+	// número de atletas que se seleccionan en la lista
+	private static final int SELECTIONS = 20;
+
+	// tiempo máximo de espera de cada repintado
+	private static final long PAINT_TIMEOUT_SECONDS = 30;
+
+	private int athleteCount; // número de atletas a generar
+	private long seed; // semilla de la generación
+	private boolean exitWhenDone; // indica si se termina el programa al acabar
+
+	private MainWindow window; // ventana principal creada con los datos generados
+	private JTextField filterField; // campo de filtro de la ventana
+	private JList<Athlete> athleteList; // lista de atletas de la ventana
+	private FilterListModel<Athlete> athleteListModel; // modelo de la lista de atletas
+
+	// medición en curso, solo se accede desde el hilo de Swing
+	private long measureStart; // instante en el que se envió el evento, 0 si no hay medición
+	private boolean resultPublished; // indica si se ha publicado el resultado definitivo
+	private LatencyHistogram measureHistogram; // histograma en el que se guarda la medición
+	private CountDownLatch measureDone; // se libera al terminar la medición
+
+	private LatencyHistogram keystrokeLatencies = new LatencyHistogram();
+	private LatencyHistogram selectionLatencies = new LatencyHistogram();
+	private int timeouts; // mediciones que no han terminado dentro del tiempo máximo
+
+	/**
+	 * Constructor que recibe el tamaño de los datos y la semilla.
+	 *
+	 * @param athleteCount número de atletas a generar
+	 * @param seed         semilla de la generación de los datos
+	 * @param exitWhenDone si es true se termina el programa al acabar la prueba
+	 */
+	public ScaleTest(int athleteCount, long seed, boolean exitWhenDone) {
+		if (athleteCount <= 0) {
+			throw new IllegalArgumentException("El número de atletas debe ser positivo: " + athleteCount);
+		}
+		this.athleteCount = athleteCount;
+		this.seed = seed;
+		this.exitWhenDone = exitWhenDone;
+	}
+
+	/**
+	 * Inicia la prueba en un hilo nuevo si se ha indicado el número de atletas con
+	 * la propiedad del sistema scale.test.
+	 *
+	 * @return true si se ha iniciado la prueba, en cuyo caso la prueba crea la
+	 *         ventana principal
+	 */
+	public static boolean startFromProperties() {
+		String athletes = System.getProperty(ATHLETES_PROPERTY);
+		if (athletes == null || athletes.isBlank()) {
+			return false;
+		}
+
+		ScaleTest test;
+		try {
+			long seed = Long.parseLong(System.getProperty(SEED_PROPERTY, "2024").strip());
+			test = new ScaleTest(Integer.parseInt(athletes.strip()), seed, Boolean.getBoolean(EXIT_PROPERTY));
+		} catch (IllegalArgumentException e) {
+			// NumberFormatException también es una IllegalArgumentException
+			System.err.println("Valor incorrecto de la prueba de escala: " + e.getMessage());
+			return false;
+		}
+		new Thread(test::run, "Prueba de escala").start();
+		return true;
+	}
+
+	/**
+	 * Ejecuta la prueba completa y muestra los resultados en la salida estándar.
+	 */
+	public void run() {
+		try {
+			System.out.format("Prueba de escala con %,d atletas (semilla %d)%n", athleteCount, seed);
+			long heapBefore = usedHeap();
+
+			long start = System.nanoTime();
+			DatasetSnapshot data = new DatasetGenerator(seed).generate(athleteCount);
+			long generationNanos = System.nanoTime() - start;
+			long medalCount = data.getAllMedals().count();
+			long heapData = usedHeap();
+
+			// se crea la ventana en el hilo de Swing y se espera a que se procesen los
+			// eventos pendientes, momento en el que la ventana ya responde al usuario
+			start = System.nanoTime();
+			SwingUtilities.invokeAndWait(() -> window = new MainWindow(data));
+			long constructionNanos = System.nanoTime() - start;
+			SwingUtilities.invokeAndWait(() -> {
+			});
+			long readyNanos = System.nanoTime() - start;
+			long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+			long heapWindow = usedHeap();
+
+			System.out.format("Datos generados: %,d atletas y %,d medallas en %d ms%n", athleteCount, medalCount,
+					TimeUnit.NANOSECONDS.toMillis(generationNanos));
+			System.out.format("Ventana creada en %d ms, responde a los %d ms (%d ms desde el inicio del programa)%n",
+					TimeUnit.NANOSECONDS.toMillis(constructionNanos), TimeUnit.NANOSECONDS.toMillis(readyNanos), uptime);
+			System.out.format("Memoria: %,d KB los datos, %,d KB la ventana y sus índices, %,d KB en total%n",
+					(heapData - heapBefore) / 1024, (heapWindow - heapData) / 1024, heapWindow / 1024);
+
+			SwingUtilities.invokeAndWait(this::installProbes);
+			typeQueries(data.getAthletes());
+			selectAthletes();
+			printLatencies();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (InvocationTargetException e) {
+			System.err.println("Error en la prueba de escala: " + e.getCause());
+		}
+
+		if (exitWhenDone) {
+			System.exit(0);
+		}
+	}
+
+	// instala en el hilo de Swing los escuchadores que detectan la publicación de
+	// los resultados del filtro y el repintado de la ventana
+	private void installProbes() {
+		filterField = window.getFilterTextField();
+		athleteList = window.getAthleteList();
+		athleteListModel = window.getAthleteListModel();
+
+		// los resultados parciales se publican mientras la búsqueda sigue pendiente,
+		// solo se tiene en cuenta el resultado definitivo
+		athleteListModel.addListDataListener(new ListDataListener() {
+			@Override
+			public void contentsChanged(ListDataEvent e) {
+				resultPublished |= !athleteListModel.isFilterPending();
+			}
+
+			@Override
+			public void intervalAdded(ListDataEvent e) {
+				contentsChanged(e);
+			}
+
+			@Override
+			public void intervalRemoved(ListDataEvent e) {
+				contentsChanged(e);
+			}
+		});
+
+		// el gestor de repintado de Swing pinta todas las zonas modificadas de una
+		// vez, la medición termina con el primer repintado tras publicar el resultado
+		RepaintManager.setCurrentManager(new RepaintManager() {
+			@Override
+			public void paintDirtyRegions() {
+				super.paintDirtyRegions();
+				if (measureStart != 0 && resultPublished) {
+					measureHistogram.record(System.nanoTime() - measureStart);
+					measureStart = 0;
+					measureDone.countDown();
+				}
+			}
+		});
+	}
+
+	// escribe letra a letra el comienzo del nombre de varios atletas elegidos al
+	// azar, borrando el campo de filtro entre una búsqueda y la siguiente
+	private void typeQueries(List<Athlete> athletes) throws InterruptedException, InvocationTargetException {
+		Random random = new Random(seed);
+		for (int q = 0; q < QUERIES; q++) {
+			String name = athletes.get(random.nextInt(athletes.size())).getName();
+			String query = name.substring(0, Math.min(QUERY_LENGTH, name.length())).toLowerCase();
+			for (char c : query.toCharArray()) {
+				measure(keystrokeLatencies, () -> filterField.dispatchEvent(
+						new KeyEvent(filterField, KeyEvent.KEY_TYPED, System.currentTimeMillis(), 0, KeyEvent.VK_UNDEFINED, c)));
+			}
+			// se selecciona todo el texto y se borra con una única pulsación
+			measure(keystrokeLatencies, () -> {
+				filterField.selectAll();
+				filterField.dispatchEvent(new KeyEvent(filterField, KeyEvent.KEY_PRESSED, System.currentTimeMillis(), 0,
+						KeyEvent.VK_BACK_SPACE, KeyEvent.CHAR_UNDEFINED));
+			});
+		}
+	}
+
+	// selecciona atletas al azar de la lista completa, lo que actualiza el
+	// formulario y carga sus medallas en la tabla
+	private void selectAthletes() throws InterruptedException, InvocationTargetException {
+		Random random = new Random(seed);
+		for (int i = 0; i < SELECTIONS; i++) {
+			measure(selectionLatencies, () -> {
+				// se elige un atleta distinto del seleccionado para que cambie la ventana
+				int index;
+				do {
+					index = random.nextInt(athleteListModel.getSize());
+				} while (athleteListModel.getSize() > 1 && index == athleteList.getSelectedIndex());
+				athleteList.setSelectedIndex(index);
+				athleteList.ensureIndexIsVisible(index);
+				// la selección se procesa en el propio evento, no hay que esperar al filtro
+				resultPublished = true;
+			});
+		}
+		SwingUtilities.invokeAndWait(athleteList::clearSelection);
+	}
+
+	// ejecuta una acción del usuario en el hilo de Swing y espera al repintado
+	// con su resultado, guardando el tiempo transcurrido en el histograma indicado
+	private void measure(LatencyHistogram histogram, Runnable action) throws InterruptedException, InvocationTargetException {
+		CountDownLatch done = new CountDownLatch(1);
+		SwingUtilities.invokeAndWait(() -> {
+			measureHistogram = histogram;
+			measureDone = done;
+			resultPublished = false;
+			measureStart = System.nanoTime();
+			action.run();
+		});
+		if (!done.await(PAINT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+			timeouts++;
+			SwingUtilities.invokeAndWait(() -> measureStart = 0);
+		}
+	}
+
+	// muestra los percentiles de los tiempos de respuesta medidos
+	private void printLatencies() {
+		printLatencies("Pulsación hasta repintado", keystrokeLatencies);
+		printLatencies("Selección hasta repintado", selectionLatencies);
+		if (timeouts > 0) {
+			System.out.format("Mediciones sin repintado en %d s: %d%n", PAINT_TIMEOUT_SECONDS, timeouts);
+		}
+	}
+
+	private static void printLatencies(String name, LatencyHistogram histogram) {
+		System.out.format("%s (%d medidas, ms): media %.1f, p50 %.1f, p90 %.1f, p99 %.1f, máxima %.1f%n", name,
+				histogram.getCount(), histogram.getMeanMillis(), histogram.getPercentileMillis(50),
+				histogram.getPercentileMillis(90), histogram.getPercentileMillis(99), histogram.getMaxMillis());
+	}
+
+	// obtiene la memoria ocupada después de una recolección de basura
+	private static long usedHeap() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+}
@@ -0,0 +1,35 @@
+package gui.main.models;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder que registra cada vez que el modelo de la
+ * lista vuelve a calcular los elementos filtrados, con el número de elementos
+ * recorridos, el número de elementos que cumplen el filtro y la duración.
+ *
+ * Los eventos solo tienen coste cuando hay una grabación activa, por ejemplo
+ * con jcmd &lt;pid&gt; JFR.start.
+ */
+@Name("prog3.Filter")
+@Label("Filtrado de lista")
+@Category({ "Prog3", "Interfaz" })
+@Description("Cálculo de los elementos filtrados de la lista")
+@StackTrace(false)
+class FilterEvent extends jdk.jfr.Event {
+
+	@Label("Tipo de filtro")
+	String mode;
+
+	@Label("Elementos de entrada")
+	int inputSize;
+
+	@Label("Elementos filtrados")
+	int matches;
+
+	@Label("En segundo plano")
+	boolean background;
+}
@@ -1,30 +1,164 @@
 package gui.main.models;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import search.FuzzyIndex;
+import search.IntList;
+import search.QueryContext;
+import search.QueryPlan;
+import search.SortOrder;
+import search.TextMatches;
+import search.TextNormalizer;
+import search.TrigramIndex;
 
 /**
  * Clase genérica que se encarga de filtrar los elementos de una lista de
  * atletas de acuerdo a un criterio de búsqueda especificado con un
- * 
+ *
  * El modelo se va a implementar de manera genérica para que pueda ser utilizado
  * por cualquier tipo de objeto que se desee filtrar.
+ *
+ * Además de filtros generales con un Predicate, el modelo permite filtrar por
+ * texto si se le indica cómo obtener el texto de cada elemento. En este caso el
+ * filtrado es incremental: el texto normalizado de cada elemento se calcula una
+ * única vez, cuando la búsqueda se alarga solamente se recorren los elementos
+ * que cumplían la búsqueda anterior y los resultados de las búsquedas recientes
+ * se guardan para que borrar caracteres sea inmediato. Cuando no hay una
+ * búsqueda previa que aprovechar se utiliza un índice de trigramas, que además
+ * proporciona la posición de cada coincidencia para poder resaltarla. También
+ * se pueden realizar búsquedas aproximadas, tolerantes a errores de escritura,
+ * con los resultados ordenados por parecido.
+ *
+ * El modelo también puede ejecutar planes de consulta compilados (por ejemplo
+ * consultas estructuradas por varios campos), a los que ofrece sus datos y su
+ * índice de textos para que no tengan que recorrer todos los elementos.
+ *
+ * La lista filtrada puede mostrarse ordenada con un criterio de ordenación.
+ * Los datos se ordenan una única vez al establecer el criterio y la posición
+ * de cada elemento en los datos ordenados se guarda como clave numérica, de
+ * manera que los resultados de los índices y de las consultas se ordenan y los
+ * elementos nuevos se insertan con búsqueda binaria comparando números enteros
+ * en lugar de volver a comparar sus textos. Las búsquedas aproximadas
+ * mantienen su orden por parecido.
+ *
+ * Opcionalmente las búsquedas por texto sobre muchos elementos se pueden
+ * realizar en segundo plano para no bloquear el hilo de Swing.
  */
 public class FilterListModel<E> extends AbstractListModel<E> {
 
 	private static final long serialVersionUID = 1L;
 
+	// número máximo de resultados de búsquedas por texto que se guardan
+	private static final int MAX_CACHED_QUERIES = 32;
+
+	// número de elementos a recorrer a partir del cual una búsqueda por texto se
+	// realiza en segundo plano si el modo de filtrado en segundo plano está activo
+	private static final int BACKGROUND_FILTER_THRESHOLD = 10_000;
+
+	// número de elementos recorridos entre dos comprobaciones de cancelación
+	private static final int FILTER_CHUNK = 4096;
+
+	// tiempo mínimo en nanosegundos entre dos publicaciones de resultados parciales
+	private static final long PARTIAL_RESULT_INTERVAL = 100_000_000L;
+
 	private List<E> dataList; // referencia a la lista interna de datos
-	
-	private List<E> filteredList = new ArrayList<E>(); // lista de datos filtrados
+
+	// lista de datos filtrados, una vez calculada nunca se modifica ya que
+	// puede estar guardada entre los resultados de búsquedas recientes
+	private List<E> filteredList = new ArrayList<E>();
 	private Predicate<E> filter; // filtro a aplicar a la lista de datos
 
+	private Function<E, String> textExtractor; // obtiene el texto de un elemento para filtrar por texto
+	// texto normalizado de cada elemento, es un mapa concurrente ya que
+	// se consulta desde el hilo de filtrado en segundo plano
+	private Map<E, String> normalizedTexts = new ConcurrentHashMap<>();
+	private TrigramIndex<E> textIndex; // índice de trigramas sobre los textos normalizados
+	private FuzzyIndex<E> fuzzyIndex; // índice para búsquedas aproximadas sobre los textos normalizados
+	private String fuzzyQuery; // búsqueda aproximada actual, null si el filtro actual no es aproximado
+	private QueryPlan<E> queryPlan; // plan de consulta actual, null si el filtro actual no es una consulta
+
+	// búsqueda normalizada del filtro por texto actual y resultado con la posición
+	// de las coincidencias, ambos son null si el filtro actual no es por texto
+	private String textQuery;
+	private TextMatches<E> textMatches;
+
+	// copia inmutable de los datos sobre la que se realizan las búsquedas, ordenada
+	// según el criterio de ordenación si lo hay, de manera que los resultados de
+	// recorrerla ya están ordenados
+	private List<E> dataSnapshot;
+	private SortOrder<E> sortOrder; // criterio de ordenación de la lista filtrada, null si se usa el orden de los datos
+	// criterio que ordena por la posición en la copia ordenada de los datos, se
+	// crea a partir de ella cuando se necesita y se descarta si cambian los datos
+	private SortOrder<E> positionOrder;
+
+	// estado del modo de filtrado en segundo plano, el temporizador es null
+	// si el modo no está activado
+	private Timer debounceTimer; // espera a que el usuario deje de escribir
+	private boolean progressiveResults; // indica si se publican resultados parciales
+	private ExecutorService filterExecutor; // hilo en el que se realizan las búsquedas
+	private String pendingText; // texto de la búsqueda pendiente de publicar en segundo plano
+	// contador que se incrementa con cada búsqueda, una búsqueda en segundo plano
+	// se cancela cuando deja de coincidir con el valor con el que fue lanzada
+	private AtomicLong queryGeneration = new AtomicLong();
+
+	// resultados de las búsquedas por texto más recientes, el LinkedHashMap se
+	// mantiene en orden de acceso para descartar la búsqueda usada hace más tiempo
+	private Map<String, TextMatches<E>> queryResults = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TextMatches<E>> eldest) {
+			return size() > MAX_CACHED_QUERIES;
+		}
+	};
+
 	public FilterListModel(List<E> dataList) {
+		this(dataList, null);
+	}
+
+	/**
+	 * Constructor que recibe, además de los datos, la función que obtiene el texto
+	 * de cada elemento que se utiliza en los filtros por texto.
+	 *
+	 * @param dataList lista de datos del modelo
+	 * @param textExtractor función que obtiene el texto de un elemento
+	 */
+	public FilterListModel(List<E> dataList, Function<E, String> textExtractor) {
 		this.dataList = dataList;
-		
+		this.textExtractor = textExtractor;
+
+		// se calcula una única vez el texto normalizado de cada elemento
+		// y se construye el índice de trigramas sobre los textos normalizados
+		if (textExtractor != null) {
+			textIndex = new TrigramIndex<>();
+			fuzzyIndex = new FuzzyIndex<>();
+			for (E e : dataList) {
+				String normalizedText = TextNormalizer.normalize(textExtractor.apply(e));
+				normalizedTexts.put(e, normalizedText);
+				textIndex.add(e, normalizedText);
+				fuzzyIndex.add(e, normalizedText);
+			}
+		}
+
 		// el filtro inicial es true para mostrar todos los elementos
 		setFilter(e -> true);
 	}
@@ -36,22 +170,486 @@ public class FilterListModel<E> extends AbstractListModel<E> {
 	 */
 	public void setFilter(Predicate<E> filter) {
 		this.filter = filter;
+		textQuery = null; // ya no hay un filtro por texto
+		textMatches = null;
+		fuzzyQuery = null;
+		queryPlan = null;
 		updateFilteredList(); // aplicar el filtro a la lista de datos
 	}
 
+	/**
+	 * Activa el modo de filtrado en segundo plano para los filtros por texto.
+	 *
+	 * En este modo, cuando una búsqueda tiene que recorrer muchos elementos, se
+	 * espera a que el usuario deje de escribir durante el tiempo indicado y la
+	 * búsqueda se realiza en un hilo distinto del hilo de Swing. Cada nueva
+	 * búsqueda cancela la anterior si todavía no ha terminado y el resultado se
+	 * publica en el modelo desde el hilo de Swing.
+	 *
+	 * @param debounceMillis     tiempo en milisegundos que se espera a que el usuario deje de escribir
+	 * @param progressiveResults si es true se muestran resultados parciales mientras se realiza la búsqueda
+	 */
+	public void setBackgroundFiltering(int debounceMillis, boolean progressiveResults) {
+		this.progressiveResults = progressiveResults;
+
+		// las búsquedas se realizan de una en una en un único hilo
+		// el hilo es de tipo daemon para que no impida que termine el programa
+		if (filterExecutor == null) {
+			filterExecutor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "Filtrado de lista");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		// el temporizador de Swing ejecuta la búsqueda en el hilo de Swing
+		// cuando han pasado debounceMillis sin que se haya reiniciado
+		debounceTimer = new Timer(debounceMillis, e -> startBackgroundFilter());
+		debounceTimer.setRepeats(false);
+	}
+
+	/**
+	 * Establece el criterio de ordenación de la lista filtrada. Los datos se
+	 * ordenan con el criterio y el filtro actual se vuelve a aplicar para mostrar
+	 * sus resultados ordenados.
+	 *
+	 * @param sortOrder criterio de ordenación o null para mostrar los elementos en el orden de los datos
+	 */
+	public void setSortOrder(SortOrder<E> sortOrder) {
+		this.sortOrder = sortOrder;
+
+		// los resultados guardados y la copia de los datos siguen el orden anterior
+		dataChanged();
+		updateFilteredList();
+	}
+
+	/**
+	 * Establece un filtro por texto: se muestran los elementos cuyo texto contiene
+	 * el texto indicado sin tener en cuenta mayúsculas ni acentos.
+	 *
+	 * La búsqueda se realiza sobre los resultados de la búsqueda guardada más
+	 * larga que sea prefijo del texto indicado, de manera que al escribir un
+	 * carácter más solo se recorren los elementos que ya cumplían la búsqueda
+	 * anterior. Si la búsqueda ya se ha realizado recientemente se reutiliza su
+	 * resultado directamente.
+	 *
+	 * Si el modo de filtrado en segundo plano está activado y la búsqueda tiene
+	 * que recorrer muchos elementos, el filtro se aplica más tarde desde otro hilo.
+	 *
+	 * @param text texto a buscar
+	 */
+	public void setTextFilter(String text) {
+		if (textExtractor == null) {
+			throw new IllegalStateException("El modelo no tiene una función para obtener el texto de los elementos");
+		}
+
+		// cualquier búsqueda que se esté realizando en segundo plano queda obsoleta
+		long generation = queryGeneration.incrementAndGet();
+
+		String query = TextNormalizer.normalize(text);
+
+		// si la búsqueda se ha realizado recientemente se reutiliza el resultado
+		TextMatches<E> cachedResult = queryResults.get(query);
+		if (cachedResult != null) {
+			cancelPendingFilter();
+			publishTextFilter(query, cachedResult);
+			return;
+		}
+
+		// si no hay ninguna búsqueda previa que sirva de punto de partida y
+		// la búsqueda es suficientemente larga se utiliza el índice de trigramas
+		List<E> candidates = getPrefixCandidates(query);
+		if (candidates == null && query.length() >= TrigramIndex.MIN_QUERY_LENGTH) {
+			cancelPendingFilter();
+			publishTextFilter(query, searchTextIndex(query));
+			return;
+		}
+
+		// si hay pocos elementos que recorrer la búsqueda se realiza directamente
+		if (candidates == null) {
+			candidates = getDataSnapshot();
+		}
+		if (debounceTimer == null || candidates.size() < BACKGROUND_FILTER_THRESHOLD) {
+			cancelPendingFilter();
+			publishTextFilter(query, filterByText(candidates, query, generation, null));
+			return;
+		}
+
+		// en caso contrario se espera a que el usuario deje de escribir
+		// cada pulsación reinicia el temporizador
+		pendingText = text;
+		debounceTimer.restart();
+	}
+
+	/**
+	 * Establece un filtro por texto aproximado, tolerante a errores de escritura.
+	 * Se muestran los elementos que, para cada palabra del texto indicado, tienen
+	 * una palabra parecida, ordenados de más a menos parecidos; la última
+	 * palabra puede estar a medio escribir. La búsqueda utiliza un árbol de
+	 * prefijos de las palabras de los textos, por lo que no se calcula la
+	 * distancia con todos los elementos.
+	 *
+	 * @param text texto a buscar
+	 */
+	public void setFuzzyFilter(String text) {
+		if (textExtractor == null) {
+			throw new IllegalStateException("El modelo no tiene una función para obtener el texto de los elementos");
+		}
+
+		// cualquier búsqueda por texto pendiente queda obsoleta
+		queryGeneration.incrementAndGet();
+		cancelPendingFilter();
+
+		String query = TextNormalizer.normalize(text);
+		if (query.isBlank()) {
+			// sin texto se muestran todos los elementos
+			setFilter(e -> true);
+			return;
+		}
+
+		// los resultados no se guardan entre los resultados recientes, ya que
+		// una búsqueda aproximada no contiene necesariamente a sus ampliaciones
+		publishFuzzyFilter(query);
+	}
+
+	// establece el resultado de una búsqueda aproximada como lista filtrada
+	private void publishFuzzyFilter(String query) {
+		runFuzzyFilter(query);
+		fireContentsChanged(this, 0, getSize() - 1); // notificar al JList del cambio producido
+	}
+
+	// realiza una búsqueda aproximada y la establece como filtro sin notificar al JList
+	private void runFuzzyFilter(String query) {
+		List<E> result = fuzzyIndex.search(query);
+		Set<E> matches = new HashSet<>(result);
+		filter = matches::contains;
+		textQuery = null; // no hay posiciones de coincidencias que resaltar
+		textMatches = null;
+		fuzzyQuery = query;
+		queryPlan = null;
+		filteredList = result;
+	}
+
+	/**
+	 * Establece como filtro un plan de consulta compilado. El plan se ejecuta
+	 * sobre los datos del modelo y puede utilizar el índice de textos del modelo
+	 * para buscar texto en los elementos. El plan se vuelve a ejecutar cada vez
+	 * que se modifican los datos.
+	 *
+	 * @param plan plan de consulta a ejecutar
+	 */
+	public void setQueryPlan(QueryPlan<E> plan) {
+		if (textExtractor == null) {
+			throw new IllegalStateException("El modelo no tiene una función para obtener el texto de los elementos");
+		}
+
+		// cualquier búsqueda por texto pendiente queda obsoleta
+		queryGeneration.incrementAndGet();
+		cancelPendingFilter();
+		publishQueryPlan(plan);
+	}
+
+	// ejecuta un plan de consulta y establece su resultado como lista filtrada
+	private void publishQueryPlan(QueryPlan<E> plan) {
+		runQueryPlan(plan);
+		fireContentsChanged(this, 0, getSize() - 1); // notificar al JList del cambio producido
+	}
+
+	// ejecuta un plan de consulta y lo establece como filtro sin notificar al JList
+	private void runQueryPlan(QueryPlan<E> plan) {
+		List<E> result = plan.execute(new ModelQueryContext());
+		if (sortOrder != null) {
+			// los planes devuelven los elementos en el orden de sus índices
+			result = getPositionOrder().sort(result);
+		}
+		Set<E> matches = new HashSet<>(result);
+		filter = matches::contains;
+		textQuery = null; // no hay posiciones de coincidencias que resaltar
+		textMatches = null;
+		fuzzyQuery = null;
+		queryPlan = plan;
+		filteredList = result;
+	}
+
+	// contexto que ofrece a los planes de consulta los datos y el índice de textos del modelo
+	private class ModelQueryContext implements QueryContext<E> {
+
+		@Override
+		public List<E> getData() {
+			return getDataSnapshot();
+		}
+
+		@Override
+		public List<E> searchText(String normalizedQuery) {
+			// el índice de trigramas solamente admite búsquedas de cierta longitud
+			if (normalizedQuery.length() >= TrigramIndex.MIN_QUERY_LENGTH) {
+				return textIndex.search(normalizedQuery).getElements();
+			}
+			return filterByText(getDataSnapshot(), normalizedQuery, queryGeneration.get(), null).getElements();
+		}
+
+		@Override
+		public String getNormalizedText(E element) {
+			return normalizedTexts.get(element);
+		}
+	}
+
+	/**
+	 * Obtiene la posición en la que empieza el texto buscado dentro del texto
+	 * del elemento indicado, tal y como se ha calculado al filtrar. Permite
+	 * resaltar la coincidencia sin tener que volver a buscarla.
+	 *
+	 * @param index posición del elemento en la lista filtrada
+	 * @return posición de la coincidencia o -1 si no hay un filtro por texto
+	 */
+	public int getMatchOffset(int index) {
+		if (textMatches == null || textQuery == null || textQuery.isEmpty() || index >= textMatches.size()) {
+			return -1;
+		}
+		return textMatches.getOffset(index);
+	}
+
+	/**
+	 * Indica si hay una búsqueda por texto pendiente de publicar: esperando a que
+	 * el usuario deje de escribir o realizándose en segundo plano. Mientras hay
+	 * una búsqueda pendiente la lista puede mostrar el resultado anterior o
+	 * resultados parciales.
+	 *
+	 * @return true si hay una búsqueda pendiente
+	 */
+	public boolean isFilterPending() {
+		return pendingText != null;
+	}
+
+	/**
+	 * Obtiene la longitud del texto buscado con el filtro por texto actual.
+	 *
+	 * @return longitud del texto buscado o 0 si no hay un filtro por texto
+	 */
+	public int getMatchLength() {
+		return textQuery == null ? 0 : textQuery.length();
+	}
+
+	// método llamado por el temporizador en el hilo de Swing para lanzar la búsqueda
+	// pendiente en el hilo de filtrado
+	private void startBackgroundFilter() {
+		if (pendingText == null) {
+			return;
+		}
+
+		String query = TextNormalizer.normalize(pendingText);
+		long generation = queryGeneration.get();
+		List<E> prefixCandidates = getPrefixCandidates(query);
+		List<E> candidates = prefixCandidates != null ? prefixCandidates : getDataSnapshot();
+
+		// los resultados parciales se publican en el hilo de Swing si la búsqueda sigue vigente
+		Consumer<TextMatches<E>> onPartialResult = !progressiveResults ? null : partialResult -> SwingUtilities.invokeLater(() -> {
+			if (generation == queryGeneration.get()) {
+				// las posiciones parciales corresponden a la búsqueda en curso, que
+				// determina también la longitud del texto a resaltar
+				textQuery = query;
+				textMatches = partialResult;
+				filteredList = partialResult.getElements();
+				fireContentsChanged(this, 0, getSize() - 1);
+			}
+		});
+
+		filterExecutor.execute(() -> {
+			FilterEvent event = new FilterEvent();
+			event.begin();
+			TextMatches<E> result = filterByText(candidates, query, generation, onPartialResult);
+			event.end();
+			// las búsquedas canceladas no se registran
+			if (result != null && event.shouldCommit()) {
+				event.mode = "texto";
+				event.inputSize = candidates.size();
+				event.matches = result.getElements().size();
+				event.background = true;
+				event.commit();
+			}
+			// si la búsqueda no ha sido cancelada se publica en el hilo de Swing
+			// siempre que no se haya iniciado otra búsqueda mientras tanto
+			if (result != null) {
+				SwingUtilities.invokeLater(() -> {
+					if (generation == queryGeneration.get()) {
+						pendingText = null;
+						publishTextFilter(query, result);
+					}
+				});
+			}
+		});
+	}
+
+	// descarta la búsqueda pendiente de lanzar en segundo plano
+	private void cancelPendingFilter() {
+		pendingText = null;
+		if (debounceTimer != null) {
+			debounceTimer.stop();
+		}
+	}
+
+	// obtiene el resultado guardado del prefijo más largo de la búsqueda, que contiene
+	// todos los elementos que pueden cumplirla, ya que cualquier elemento que contenga
+	// la búsqueda también contiene sus prefijos. Devuelve null si no hay ninguno
+	private List<E> getPrefixCandidates(String query) {
+		for (int length = query.length() - 1; length > 0; length--) {
+			TextMatches<E> prefixResult = queryResults.get(query.substring(0, length));
+			if (prefixResult != null) {
+				return prefixResult.getElements();
+			}
+		}
+		return null;
+	}
+
+	// obtiene una copia inmutable de la lista de datos que puede recorrerse desde
+	// otro hilo, la copia se reutiliza hasta que se modifican los datos
+	// si hay un criterio de ordenación la copia está ordenada
+	private List<E> getDataSnapshot() {
+		if (dataSnapshot == null) {
+			dataSnapshot = sortOrder == null ? List.copyOf(dataList) : sortOrder.sort(dataList);
+		}
+		return dataSnapshot;
+	}
+
+	// obtiene el criterio que ordena por la posición en la copia ordenada de los
+	// datos, que solamente existe si hay un criterio de ordenación
+	private SortOrder<E> getPositionOrder() {
+		if (positionOrder == null) {
+			positionOrder = SortOrder.byPosition(getDataSnapshot());
+		}
+		return positionOrder;
+	}
+
+	// busca un texto con el índice de trigramas, que devuelve los elementos en
+	// el orden en el que se añadieron, y ordena el resultado si es necesario
+	private TextMatches<E> searchTextIndex(String query) {
+		TextMatches<E> result = textIndex.search(query);
+		return sortOrder == null ? result : getPositionOrder().sort(result);
+	}
+
+	// filtra los candidatos cuyo texto normalizado contiene la búsqueda guardando
+	// la posición de la coincidencia. Cada cierto número de elementos se comprueba
+	// si la búsqueda ha sido cancelada, en cuyo caso se devuelve null, y se notifican
+	// los resultados parciales si se ha indicado un consumer para ello
+	private TextMatches<E> filterByText(List<E> candidates, String query, long generation, Consumer<TextMatches<E>> onPartialResult) {
+		List<E> result = new ArrayList<>();
+		IntList offsets = new IntList();
+		long lastPartialResult = System.nanoTime();
+		int scanned = 0;
+		for (E e : candidates) {
+			// el texto puede no existir si el elemento se ha eliminado mientras se filtraba
+			String normalizedText = normalizedTexts.get(e);
+			int offset = normalizedText == null ? -1 : normalizedText.indexOf(query);
+			if (offset >= 0) {
+				result.add(e);
+				offsets.add(offset);
+			}
+
+			if (++scanned % FILTER_CHUNK == 0) {
+				if (generation != queryGeneration.get()) {
+					return null; // hay una búsqueda más reciente
+				}
+				if (onPartialResult != null && System.nanoTime() - lastPartialResult > PARTIAL_RESULT_INTERVAL) {
+					onPartialResult.accept(new TextMatches<>(List.copyOf(result), offsets.toArray()));
+					lastPartialResult = System.nanoTime();
+				}
+			}
+		}
+		return new TextMatches<>(Collections.unmodifiableList(result), offsets.toArray());
+	}
+
+	// establece el resultado de una búsqueda por texto como lista filtrada
+	// y lo guarda entre los resultados recientes
+	private void publishTextFilter(String query, TextMatches<E> result) {
+		queryResults.put(query, result);
+		filter = e -> normalizedTexts.get(e).contains(query);
+		fuzzyQuery = null;
+		queryPlan = null;
+		textQuery = query;
+		textMatches = result;
+		filteredList = result.getElements();
+		fireContentsChanged(this, 0, getSize() - 1); // notificar al JList del cambio producido
+	}
+
+	// invalida los datos derivados de la lista de datos cuando esta se modifica
+	// y relanza la búsqueda en segundo plano si había alguna pendiente
+	private void dataChanged() {
+		queryResults.clear(); // los resultados guardados ya no son válidos
+		dataSnapshot = null;
+		positionOrder = null; // las posiciones corresponden a la copia anterior
+		queryGeneration.incrementAndGet(); // la búsqueda en curso ya no es válida
+		if (pendingText != null) {
+			debounceTimer.restart();
+		}
+	}
+
 	// método interno que aplica el filtro a la lista
 	// original para obtener la lista de datos filtrados
 	private void updateFilteredList() {
-		filteredList.clear(); // limpiar la lista de datos filtrados
-		
+		// se registra un evento de JFR con el tamaño de la entrada, el número de
+		// elementos filtrados y la duración del cálculo
+		FilterEvent event = new FilterEvent();
+		event.begin();
+
+		recomputeFilteredList();
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.mode = getFilterMode();
+			event.inputSize = dataList.size();
+			event.matches = getSize();
+			event.commit();
+		}
+	}
+
+	// obtiene el tipo del filtro actual para los eventos de JFR
+	private String getFilterMode() {
+		if (fuzzyQuery != null) {
+			return "aproximado";
+		} else if (queryPlan != null) {
+			return "consulta";
+		} else if (textQuery != null) {
+			return "texto";
+		}
+		return "predicado";
+	}
+
+	// vuelve a calcular los elementos filtrados con el filtro actual
+	private void recomputeFilteredList() {
+		// si el filtro actual es aproximado se vuelve a realizar la búsqueda
+		if (fuzzyQuery != null) {
+			publishFuzzyFilter(fuzzyQuery);
+			return;
+		}
+
+		// si el filtro actual es un plan de consulta se vuelve a ejecutar
+		if (queryPlan != null) {
+			publishQueryPlan(queryPlan);
+			return;
+		}
+
+		// si el filtro actual es por texto se vuelve a buscar el texto, utilizando
+		// el índice si es posible, para obtener también la posición de las coincidencias
+		if (textQuery != null) {
+			publishTextFilter(textQuery, textQuery.length() >= TrigramIndex.MIN_QUERY_LENGTH ? searchTextIndex(textQuery)
+					: filterByText(getDataSnapshot(), textQuery, queryGeneration.get(), null));
+			return;
+		}
+
+		// se crea una nueva lista en lugar de limpiar la anterior
+		// ya que la anterior puede estar guardada como resultado de una búsqueda
+		List<E> newFilteredList = new ArrayList<>();
+
 		// filtrar la lista de datos original en base al criterio de búsqueda
 		// especificado por el filtro y agregar los elementos que cumplen con
 		// el criterio al listado de datos filtrados
-		for (E e : dataList) {
+		// se recorre la copia de los datos, que ya está ordenada si es necesario
+		for (E e : getDataSnapshot()) {
 			if (filter.test(e)) {
-				filteredList.add(e);
+				newFilteredList.add(e);
 			}
 		}
+		filteredList = newFilteredList;
 		fireContentsChanged(this, 0, getSize() - 1); // notificar al JList del cambio producido
 	}
 
@@ -70,29 +668,225 @@ public class FilterListModel<E> extends AbstractListModel<E> {
 	/**
 	 * Método que se encarga de agregar un elemento a la lista de datos y notificar
 	 * al JList del cambio producido en los datos
-	 * 
+	 *
 	 * @param element elemento a agregar
 	 */
 	public void addElement(E e) {
-		dataList.add(e); // nuevo elemento a la lista
-		updateFilteredList(); // aplicar el filtro a la lista de datos
+		addAll(List.of(e));
+	}
 
-		// notificar al JList del cambio producido
-		fireIntervalAdded(this, dataList.size() - 1, dataList.size() - 1);
+	/**
+	 * Agrega varios elementos al final de la lista de datos. Solamente se
+	 * comprueba el filtro actual sobre los elementos nuevos y los que lo cumplen
+	 * se añaden al final de la lista filtrada, notificando al JList con un único
+	 * evento con las posiciones añadidas.
+	 *
+	 * Las búsquedas aproximadas y los planes de consulta se vuelven a ejecutar
+	 * con sus índices, ya que los nuevos elementos pueden no quedar al final.
+	 *
+	 * @param elements elementos a agregar
+	 */
+	public void addAll(Collection<? extends E> elements) {
+		if (elements.isEmpty()) {
+			return;
+		}
+
+		List<E> added = new ArrayList<>(elements);
+		dataList.addAll(added); // nuevos elementos al final de la lista
+		if (textExtractor != null) {
+			for (E e : added) {
+				String normalizedText = TextNormalizer.normalize(textExtractor.apply(e));
+				normalizedTexts.put(e, normalizedText);
+				textIndex.add(e, normalizedText);
+				fuzzyIndex.add(e, normalizedText);
+			}
+		}
+		List<E> previousSnapshot = dataSnapshot;
+		dataChanged();
+		// la copia ordenada de los datos se actualiza mezclando los elementos
+		// nuevos en lugar de volver a ordenar todos los datos
+		if (sortOrder != null && previousSnapshot != null) {
+			dataSnapshot = sortOrder.merge(previousSnapshot, sortOrder.sort(added));
+		}
+
+		int oldSize = filteredList.size();
+		if (fuzzyQuery != null || queryPlan != null) {
+			if (fuzzyQuery != null) {
+				runFuzzyFilter(fuzzyQuery);
+			} else {
+				runQueryPlan(queryPlan);
+			}
+
+			// el resto de elementos mantiene su orden, así que si solamente se ha añadido
+			// un elemento al resultado se notifica únicamente su posición
+			int position = added.size() == 1 && filteredList.size() == oldSize + 1 ? filteredList.indexOf(added.get(0)) : -1;
+			if (position >= 0) {
+				fireIntervalAdded(this, position, position);
+			} else {
+				fireContentsChanged(this, 0, getSize() - 1);
+			}
+			return;
+		}
+
+		// se obtienen los elementos nuevos que cumplen el filtro y la posición
+		// de su coincidencia si el filtro es por texto
+		List<E> matching = new ArrayList<>();
+		IntList matchingOffsets = new IntList();
+		for (E e : added) {
+			if (textQuery != null) {
+				int offset = normalizedTexts.get(e).indexOf(textQuery);
+				if (offset >= 0) {
+					matching.add(e);
+					matchingOffsets.add(offset);
+				}
+			} else if (filter.test(e)) {
+				matching.add(e);
+			}
+		}
+		if (matching.isEmpty()) {
+			return;
+		}
+
+		if (sortOrder == null) {
+			// los elementos nuevos están al final de los datos, así que van al final
+			// de la lista filtrada, que conserva el orden de los datos
+			List<E> newFilteredList = new ArrayList<>(filteredList);
+			newFilteredList.addAll(matching);
+			IntList offsets = copyOffsets(textMatches, newFilteredList.size());
+			for (int i = 0; offsets != null && i < matchingOffsets.size(); i++) {
+				offsets.add(matchingOffsets.get(i));
+			}
+			setFilteredList(newFilteredList, offsets);
+
+			// notificar al JList únicamente de las posiciones añadidas
+			fireIntervalAdded(this, oldSize, newFilteredList.size() - 1);
+		} else if (matching.size() == 1) {
+			// un único elemento se inserta en su posición, que se obtiene con búsqueda binaria
+			E e = matching.get(0);
+			int position = getPositionOrder().insertionPoint(filteredList, e);
+			List<E> newFilteredList = new ArrayList<>(filteredList);
+			newFilteredList.add(position, e);
+			IntList offsets = copyOffsets(textMatches, newFilteredList.size());
+			if (offsets != null) {
+				offsets.insert(position, matchingOffsets.get(0));
+			}
+			setFilteredList(newFilteredList, offsets);
+			fireIntervalAdded(this, position, position);
+		} else {
+			// varios elementos se ordenan entre sí y se mezclan con la lista filtrada
+			SortOrder<E> order = getPositionOrder();
+			if (textMatches != null) {
+				textMatches = order.merge(textMatches, order.sort(new TextMatches<>(matching, matchingOffsets.toArray())));
+				filteredList = textMatches.getElements();
+			} else {
+				filteredList = order.merge(filteredList, order.sort(matching));
+			}
+			fireContentsChanged(this, 0, getSize() - 1);
+		}
 	}
 
 	/**
 	 * Método que se encarga de remover un elemento de la lista de datos y notificar
 	 * al JList del cambio producido en los datos
-	 * 
-	 * @param index posición del elemento a remover
+	 *
+	 * @param index posición del elemento a remover en la lista filtrada
 	 */
-	public void remove(int i) {
-		dataList.remove(i); // eliminar el elemento en la posición index
-		updateFilteredList(); // aplicar el filtro a la lista de datos
+	public void remove(int index) {
+		removeAll(new int[] { index });
+	}
+
+	/**
+	 * Elimina de la lista de datos los elementos de las posiciones indicadas de
+	 * la lista filtrada (por ejemplo, las posiciones seleccionadas en el JList).
+	 * Los elementos se eliminan de los datos en un único recorrido y la lista
+	 * filtrada no se vuelve a calcular, solamente se quitan esas posiciones.
+	 * Se notifica al JList con un evento por cada grupo de posiciones
+	 * consecutivas eliminadas.
+	 *
+	 * @param indices posiciones de los elementos a eliminar en la lista filtrada
+	 */
+	public void removeAll(int[] indices) {
+		if (indices.length == 0) {
+			return;
+		}
+
+		int[] positions = indices.clone();
+		Arrays.sort(positions);
+
+		// se eliminan todos los elementos de los datos en un único recorrido
+		Set<E> removed = new HashSet<>();
+		for (int position : positions) {
+			removed.add(filteredList.get(position));
+		}
+		dataList.removeIf(removed::contains);
+		for (E e : removed) {
+			normalizedTexts.remove(e);
+			if (textExtractor != null) {
+				textIndex.remove(e);
+				fuzzyIndex.remove(e);
+			}
+		}
+		List<E> previousSnapshot = dataSnapshot;
+		dataChanged();
+		// la copia ordenada de los datos se actualiza quitando los elementos
+		// eliminados en lugar de volver a ordenar todos los datos
+		if (sortOrder != null && previousSnapshot != null) {
+			dataSnapshot = previousSnapshot.stream().filter(e -> !removed.contains(e)).toList();
+		}
+
+		// el resto de elementos filtrados sigue cumpliendo el filtro y conserva su
+		// orden, así que basta con quitar las posiciones eliminadas
+		int oldSize = filteredList.size();
+		List<E> newFilteredList = new ArrayList<>(oldSize - removed.size());
+		IntList offsets = textMatches == null ? null : new IntList(oldSize - removed.size());
+		int next = 0;
+		for (int i = 0; i < oldSize; i++) {
+			if (next < positions.length && positions[next] == i) {
+				// se saltan también las posiciones repetidas
+				while (next < positions.length && positions[next] == i) {
+					next++;
+				}
+				continue;
+			}
+			newFilteredList.add(filteredList.get(i));
+			if (offsets != null) {
+				offsets.add(textMatches.getOffset(i));
+			}
+		}
+		setFilteredList(newFilteredList, offsets);
+
+		// notificar al JList de cada grupo de posiciones consecutivas eliminadas, empezando
+		// por el final para que las posiciones de los grupos anteriores sigan siendo válidas
+		int end = positions.length - 1;
+		while (end >= 0) {
+			int start = end;
+			while (start > 0 && positions[start - 1] >= positions[start] - 1) {
+				start--;
+			}
+			fireIntervalRemoved(this, positions[start], positions[end]);
+			end = start - 1;
+		}
+	}
+
+	// establece la nueva lista filtrada tras una modificación de los datos
+	// junto con las posiciones de las coincidencias si el filtro es por texto
+	private void setFilteredList(List<E> newFilteredList, IntList offsets) {
+		filteredList = newFilteredList;
+		if (textMatches != null) {
+			textMatches = new TextMatches<>(Collections.unmodifiableList(newFilteredList), offsets.toArray());
+		}
+	}
 
-		// notificar al JList del cambio producido
-		fireIntervalRemoved(this, i, i);
+	// copia las posiciones de las coincidencias de un resultado de una búsqueda por texto
+	private static IntList copyOffsets(TextMatches<?> matches, int capacity) {
+		if (matches == null) {
+			return null;
+		}
+		IntList offsets = new IntList(capacity);
+		for (int i = 0; i < matches.size(); i++) {
+			offsets.add(matches.getOffset(i));
+		}
+		return offsets;
 	}
 
 }
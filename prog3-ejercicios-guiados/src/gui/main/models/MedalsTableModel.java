@@ -1,11 +1,12 @@
 package gui.main.models;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.time.LocalDate;
 import java.util.List;
 
 import javax.swing.table.AbstractTableModel;
 
+import domain.DatasetStore;
 import domain.Medal;
 
 /**
@@ -15,6 +16,10 @@ import domain.Medal;
  * Implementamos los distintos métodos qué configuran la información que
  * se muestra en la tabla que haga uso de este modelo. Cada método del
  * modelo responde a una serie de preguntas hace el JTable.
+ * 
+ * Las modificaciones de medallas no cambian las instancias existentes, ya que
+ * pueden estar siendo leídas desde otros hilos. En su lugar se crea una copia
+ * modificada y se publica una nueva versión de los datos en el almacén.
  */
 public class MedalsTableModel extends AbstractTableModel {
 
@@ -25,12 +30,16 @@ public class MedalsTableModel extends AbstractTableModel {
 	
 	private String[] columnNames = new String[] { "Metal", "Fecha", "Disciplina" };
 	private List<Medal> medals; // referencia a la lista de medallas
+	private DatasetStore dataset; // almacén en el que se publican los cambios
 	
 	/**
-	 * Constructor que recibe los datos del modelo
+	 * Constructor que recibe el almacén de datos en el que se publican
+	 * las modificaciones realizadas sobre las medallas
+	 * @param dataset almacén de datos de la aplicación
 	 */
-	public MedalsTableModel() {
-		this.medals = Collections.emptyList();
+	public MedalsTableModel(DatasetStore dataset) {
+		this.dataset = dataset;
+		this.medals = new ArrayList<>();
 	}
 
 	@Override
@@ -89,17 +98,24 @@ public class MedalsTableModel extends AbstractTableModel {
 		// modifica el valor de una celda, el modelo de datos debe
 		// actualizar los datos internos en consecuencia
 		Medal m = medals.get(rowIndex); // fila que se ha modificado
+		
+		// la medalla original no se modifica, se modifica una copia
+		Medal updated = new Medal(m);
 		switch (columnIndex) {
 		case 0:
-			m.setMetal((Medal.Metal) value);
+			updated.setMetal((Medal.Metal) value);
 			break;
 		case 1:
-			m.setMedalDate((LocalDate) value);
+			updated.setMedalDate((LocalDate) value);
 			break;
 		case 2:
-			m.setDiscipline((String) value);
+			updated.setDiscipline((String) value);
 			break;
 		}
+		
+		// se sustituye la medalla en la tabla y se publica la nueva versión de los datos
+		medals.set(rowIndex, updated);
+		dataset.update(snapshot -> snapshot.withReplacedMedal(m, updated));
 	}
 
 	/**
@@ -107,7 +123,8 @@ public class MedalsTableModel extends AbstractTableModel {
 	 * notifica al JTable asociado para que se actualice
 	 */
 	public void updateMedals(List<Medal> medals) {
-		this.medals = medals;
+		// se hace una copia ya que la lista recibida puede ser inmutable
+		this.medals = new ArrayList<>(medals);
 
 		// notificamos el cambio de datos para que
 		// la tabla se repinte
@@ -121,6 +138,7 @@ public class MedalsTableModel extends AbstractTableModel {
 	 */
 	public void addMedal(Medal medal) {
 		medals.add(medal);
+		dataset.update(snapshot -> snapshot.withMedal(medal));
 		
 		// podemos indicar que se ha añadido una fila concreta
         fireTableRowsInserted(medals.size() - 1, medals.size() - 1);
@@ -0,0 +1,27 @@
+package gui.main.models;
+
+import java.util.List;
+
+/**
+ * Origen de datos que proporciona los elementos de una tabla por bloques, de
+ * manera que no es necesario tener todos los elementos en memoria. Los
+ * bloques pueden solicitarse desde un hilo distinto del hilo de Swing.
+ */
+public interface PageSource<E> {
+
+	/**
+	 * Obtiene el número total de elementos.
+	 *
+	 * @return número de elementos
+	 */
+	int size();
+
+	/**
+	 * Obtiene los elementos de un bloque.
+	 *
+	 * @param offset posición del primer elemento del bloque
+	 * @param count  número máximo de elementos del bloque
+	 * @return elementos del bloque, menos de count si se llega al final
+	 */
+	List<E> loadPage(int offset, int count);
+}
@@ -0,0 +1,202 @@
+package gui.main.models;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.JTable;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+import domain.Medal;
+
+/**
+ * Modelo de datos de solo lectura para visualizar un número muy grande de
+ * medallas (por ejemplo, todas las medallas de unos JJ.OO.) sin tenerlas todas
+ * en memoria.
+ *
+ * Las medallas se obtienen de un PageSource en bloques de tamaño fijo a medida
+ * que el JTable las solicita. Solamente se mantienen en memoria los bloques
+ * usados más recientemente y, cuando el usuario se desplaza por la tabla, el
+ * bloque siguiente en la dirección del desplazamiento se carga por adelantado
+ * en otro hilo para que esté disponible cuando se necesite.
+ *
+ * Los bloques solamente se consultan y guardan desde el hilo de Swing, el hilo
+ * de carga anticipada publica los bloques cargados con invokeLater.
+ */
+public class PagedMedalsTableModel extends AbstractTableModel {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 1L;
+
+	// número de filas de cada bloque
+	private static final int BLOCK_SIZE = 256;
+
+	// número máximo de bloques que se mantienen en memoria
+	private static final int MAX_CACHED_BLOCKS = 16;
+
+	private String[] columnNames = new String[] { "Metal", "Fecha", "Disciplina" };
+	private PageSource<Medal> source; // origen de datos de las medallas
+	private int rowCount; // número de filas, se obtiene una vez del origen de datos
+
+	// bloques cargados más recientemente, el LinkedHashMap se mantiene en orden
+	// de acceso para descartar el bloque usado hace más tiempo
+	private Map<Integer, List<Medal>> blocks = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, List<Medal>> eldest) {
+			return size() > MAX_CACHED_BLOCKS;
+		}
+	};
+
+	private Set<Integer> pendingBlocks = new HashSet<>(); // bloques que se están cargando por adelantado
+	private long sourceVersion = 0; // se incrementa al cambiar de origen para descartar cargas obsoletas
+	private int lastFirstVisibleRow = 0; // primera fila visible en el último desplazamiento
+
+	// hilo en el que se cargan los bloques por adelantado, es de tipo daemon
+	// para que no impida que termine el programa. Lo comparten todos los modelos
+	// para no dejar un hilo por cada ventana que se ha abierto y cerrado; las
+	// cargas de un modelo que ya no se muestra terminan sin que nadie las consulte
+	private static final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "Carga de medallas");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Constructor que recibe el origen de datos de las medallas.
+	 *
+	 * @param source origen de datos de las medallas
+	 */
+	public PagedMedalsTableModel(PageSource<Medal> source) {
+		this.source = source;
+		this.rowCount = source.size();
+	}
+
+	/**
+	 * Cambia el origen de datos de las medallas y notifica al JTable asociado.
+	 *
+	 * @param source nuevo origen de datos
+	 */
+	public void setSource(PageSource<Medal> source) {
+		this.source = source;
+		this.rowCount = source.size();
+		sourceVersion++; // los bloques que se estén cargando ya no son válidos
+		blocks.clear();
+		pendingBlocks.clear();
+		fireTableDataChanged();
+	}
+
+	/**
+	 * Hace que el modelo cargue por adelantado el bloque siguiente (o el
+	 * anterior si el usuario se desplaza hacia arriba) cada vez que cambia la
+	 * zona visible de la tabla.
+	 *
+	 * @param table tabla que utiliza este modelo, debe estar dentro de un JScrollPane
+	 */
+	public void prefetchOnScroll(JTable table) {
+		JViewport viewport = (JViewport) SwingUtilities.getAncestorOfClass(JViewport.class, table);
+		viewport.addChangeListener(e -> {
+			Rectangle visible = viewport.getViewRect();
+			int first = table.rowAtPoint(visible.getLocation());
+			int last = table.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+			if (first < 0) {
+				return; // tabla vacía
+			}
+			if (last < 0) {
+				last = rowCount - 1;
+			}
+
+			if (first >= lastFirstVisibleRow) {
+				prefetch(last / BLOCK_SIZE + 1);
+			} else {
+				prefetch(first / BLOCK_SIZE - 1);
+			}
+			lastFirstVisibleRow = first;
+		});
+	}
+
+	@Override
+	public int getRowCount() {
+		// número de filas a mostrar en la tabla
+		return rowCount;
+	}
+
+	@Override
+	public int getColumnCount() {
+		// número de columnas a mostrar en la tabla
+		return columnNames.length;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		// devolvemos el nombre de la columna indicada
+		return columnNames[column];
+	}
+
+	@Override
+	public Object getValueAt(int rowIndex, int columnIndex) {
+		// obtenemos la medalla del bloque que contiene la fila
+		Medal m = getBlock(rowIndex / BLOCK_SIZE).get(rowIndex % BLOCK_SIZE);
+		switch (columnIndex) {
+			case 0: return m.getMetal();
+			case 1: return m.getMedalDate();
+			case 2: return m.getDiscipline();
+			default: return null;
+		}
+	}
+
+	@Override
+	public Class<?> getColumnClass(int columnIndex) {
+		// indica el tipo de cada columna de datos
+		// puede ser usado por renderers o editors
+		switch (columnIndex) {
+			case 0: return Medal.Metal.class;
+			case 1: return LocalDate.class;
+			case 2: return String.class;
+			default: return null;
+		}
+	}
+
+	// obtiene un bloque de medallas, cargándolo directamente si no está en memoria
+	// normalmente el bloque ya se habrá cargado por adelantado
+	private List<Medal> getBlock(int block) {
+		List<Medal> medals = blocks.get(block);
+		if (medals == null) {
+			medals = source.loadPage(block * BLOCK_SIZE, BLOCK_SIZE);
+			blocks.put(block, medals);
+		}
+		return medals;
+	}
+
+	// carga un bloque en el hilo de carga si no está en memoria ni se está cargando ya
+	private void prefetch(int block) {
+		if (block < 0 || block * BLOCK_SIZE >= rowCount || blocks.containsKey(block) || !pendingBlocks.add(block)) {
+			return;
+		}
+
+		PageSource<Medal> currentSource = source;
+		long version = sourceVersion;
+		prefetchExecutor.execute(() -> {
+			List<Medal> medals = currentSource.loadPage(block * BLOCK_SIZE, BLOCK_SIZE);
+			// el bloque se guarda en el hilo de Swing si el origen de datos no ha cambiado
+			SwingUtilities.invokeLater(() -> {
+				if (version == sourceVersion) {
+					pendingBlocks.remove(block);
+					blocks.putIfAbsent(block, medals);
+				}
+			});
+		});
+	}
+}
@@ -0,0 +1,73 @@
+package gui.main.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import domain.Athlete;
+import domain.DatasetSnapshot;
+import domain.Medal;
+
+/**
+ * Origen de datos con todas las medallas de una versión de los datos, en el
+ * orden de los atletas. Las medallas no se copian en una lista: solamente se
+ * guarda, para cada atleta, el número de medallas de los atletas anteriores,
+ * lo que permite localizar con búsqueda binaria el atleta que contiene la
+ * medalla de cualquier posición.
+ */
+public class SnapshotMedalSource implements PageSource<Medal> {
+
+	private DatasetSnapshot snapshot; // versión de los datos de la que se obtienen las medallas
+	private List<Athlete> athletes; // atletas de la versión
+	// posición de la primera medalla de cada atleta, con una posición más al
+	// final que contiene el número total de medallas
+	private int[] firstMedal;
+
+	/**
+	 * Constructor que recibe la versión de los datos cuyas medallas se muestran.
+	 *
+	 * @param snapshot versión de los datos
+	 */
+	public SnapshotMedalSource(DatasetSnapshot snapshot) {
+		this.snapshot = snapshot;
+		this.athletes = snapshot.getAthletes();
+		firstMedal = new int[athletes.size() + 1];
+		for (int i = 0; i < athletes.size(); i++) {
+			firstMedal[i + 1] = firstMedal[i] + snapshot.getMedals(athletes.get(i).getCode()).size();
+		}
+	}
+
+	@Override
+	public int size() {
+		return firstMedal[athletes.size()];
+	}
+
+	@Override
+	public List<Medal> loadPage(int offset, int count) {
+		List<Medal> page = new ArrayList<>(count);
+		if (offset >= size()) {
+			return page;
+		}
+
+		// se busca el último atleta cuya primera medalla está en offset o antes
+		int athlete = Arrays.binarySearch(firstMedal, offset);
+		if (athlete < 0) {
+			athlete = -athlete - 2;
+		}
+		// los atletas sin medallas comparten posición con el siguiente
+		while (firstMedal[athlete + 1] <= offset) {
+			athlete++;
+		}
+
+		int position = offset - firstMedal[athlete];
+		while (page.size() < count && athlete < athletes.size()) {
+			List<Medal> medals = snapshot.getMedals(athletes.get(athlete).getCode());
+			while (page.size() < count && position < medals.size()) {
+				page.add(medals.get(position++));
+			}
+			athlete++;
+			position = 0;
+		}
+		return page;
+	}
+}
@@ -1,89 +1,173 @@
 package gui.main.renderers;
 
+import java.awt.Color;
 import java.awt.Component;
 import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.swing.DefaultListCellRenderer;
-import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JList;
+import javax.swing.SwingUtilities;
 
 import domain.Athlete;
-import gui.util.CountryCodes;
-import gui.util.IconLoader;
-import gui.util.IconLoadingException;
+import gui.main.models.FilterListModel;
+import gui.util.CountryFlags;
 
 /**
  * Renderer utilizado en el JList de atletas para cambiar el modo en el que se
  * renderiza cada celda.
- * 
- * Permite especificar un texto que se mostrará resaltado en cada celda.
- * Se utilizará un fondo amarillo para resaltar el texto.
+ *
+ * Si el modelo de la lista es un FilterListModel, se resalta con un fondo
+ * amarillo la parte del nombre de cada atleta que coincide con el filtro de
+ * texto del modelo.
+ *
+ * El renderer se llama para cada celda cada vez que se repinta la lista, así
+ * que evita crear objetos en cada llamada: la fuente y la posición en píxeles
+ * del texto resaltado de cada nombre se guardan, y el fondo amarillo se pinta
+ * directamente en lugar de construir un texto HTML que Swing tendría que
+ * interpretar en cada celda. La bandera se obtiene con el identificador del
+ * país del atleta, sin construir la ruta del icono.
  */
 public class AthleteListCellRenderer extends DefaultListCellRenderer {
 
 	/**
-	 * 
+	 *
 	 */
 	private static final long serialVersionUID = 1L;
-	private String text = ""; // text a resaltar en la celda		
-	
-	/**
-	 * Establece el texto que se resaltará en el JLabel
-	 * @param text texto a resaltar en el JLabel
-	 */
-	public void setHighLightedText(String text) {
-		this.text = text;
-	}
+
+	// número máximo de posiciones de resaltado guardadas antes de descartarlas
+	private static final int MAX_CACHED_LAYOUTS = 4096;
+
+	private static final Color HIGHLIGHT_COLOR = Color.YELLOW; // fondo del texto resaltado
+
+	// fuente de la lista y fuente sin negrita derivada de ella, que solo se
+	// vuelve a derivar si cambia la fuente de la lista
+	private Font baseFont;
+	private Font plainFont;
+
+	// posición en píxeles del texto resaltado de cada nombre: {inicio, longitud, x, ancho}
+	// las posiciones dependen de la fuente, así que se descartan si esta cambia
+	private Map<String, int[]> highlightLayouts = new HashMap<>();
+
+	// texto resaltado de la celda que se va a pintar
+	private int highlightStart;
+	private int highlightLength;
+	private boolean paintingText; // indica que se está pintando el texto sobre el fondo ya pintado
+
+	// rectángulos reutilizados para calcular la posición del texto en la celda
+	private Insets insets = new Insets(0, 0, 0, 0);
+	private Rectangle viewR = new Rectangle();
+	private Rectangle iconR = new Rectangle();
+	private Rectangle textR = new Rectangle();
 
 	@Override
 	public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
 			boolean cellHasFocus) {
-		// obtenemos el componente JLabel creado por el renderer por defecto
-		Component c = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-		
-		// sabemos que por defecto es un JLabel, así que podemos hacer un cast de manera segura
-		JLabel jLabel = (JLabel) c;
-		
-		// quitamos la negrita de la fuente
-		jLabel.setFont(jLabel.getFont().deriveFont(Font.PLAIN));
-		
-		// ahora establecemos el texto del JLabel al nombre del atleta recibdo en value
 		// nuevamente podemos hacer un cast ya que sabemos que nuestro JList tiene Athletes
 		Athlete athlete = (Athlete) value;
-		
-		// obtenemos el icono a partir del nombre del país del atleta
-		try {
-			String isoCode = CountryCodes.COUNTRY_ISO_CODES.get(athlete.getCountry());
-			ImageIcon flagIcon = IconLoader.getIcon(String.format("/images/flags/%s.png", isoCode.toLowerCase()));
-			jLabel.setIcon(flagIcon);
-		} catch (IconLoadingException e) {
-			// mostrar el error por consola
-			System.err.println("No se ha podido encontrar la bandera el país: " + athlete.getCountry());
+
+		// obtenemos el componente JLabel creado por el renderer por defecto, pasándole
+		// directamente el nombre del atleta para que no tenga que convertirlo a texto
+		Component c = super.getListCellRendererComponent(list, athlete.getName(), index, isSelected, cellHasFocus);
+
+		// sabemos que por defecto es un JLabel, así que podemos hacer un cast de manera segura
+		JLabel jLabel = (JLabel) c;
+
+		// quitamos la negrita de la fuente, derivándola solo si ha cambiado la de la lista
+		if (list.getFont() != baseFont) {
+			baseFont = list.getFont();
+			plainFont = baseFont.deriveFont(Font.PLAIN);
+			highlightLayouts.clear();
 		}
-		
-		// tenemos en cuenta que el texto no sea vacio o sea espacios
-		if (!text.isBlank()) {
-			// buscamos dónde empieza y termina el texto a resaltar sin importar mayúsculas y minúsculas
-			String lowerCaseText = text.toLowerCase();
-			String lowerCaseName = athlete.getName().toLowerCase();
-			int start = lowerCaseName.indexOf(lowerCaseText);
-			int end = start + text.length();
-			
-			// construimos el texto resaltado con fondo amarillo
-			String highlightedText = "<html>" + athlete.getName().substring(0, start) + 
-				"<span style='background-color: yellow;'>" + 
-				athlete.getName().substring(start, end) + "</span>" +
-				athlete.getName().substring(end) + "</html>";
-			
-			// establecemos el texto resaltado en el JLabel
-			jLabel.setText(highlightedText);
+		jLabel.setFont(plainFont);
+
+		// obtenemos el icono a partir del identificador del país del atleta
+		jLabel.setIcon(CountryFlags.getFlag(athlete.getCountryId()));
+
+		// reutilizamos la posición del texto a resaltar calculada por el modelo al
+		// filtrar; con otros modelos no se resalta nada
+		if (list.getModel() instanceof FilterListModel<?> model) {
+			highlightStart = model.getMatchOffset(index);
+			highlightLength = model.getMatchLength();
 		} else {
-			// si no hay texto a resaltar, establecemos el nombre del atleta sin cambios
-            jLabel.setText(athlete.getName());
+			highlightStart = -1;
+			highlightLength = 0;
+		}
+
+		// tenemos en cuenta que haya texto a resaltar y que aparezca en el nombre
+		if (highlightStart < 0 || highlightLength <= 0 || highlightStart + highlightLength > athlete.getName().length()) {
+			highlightLength = 0;
 		}
 		return jLabel;
 	}
 
-	
+	@Override
+	protected void paintComponent(Graphics g) {
+		if (highlightLength == 0) {
+			super.paintComponent(g);
+			return;
+		}
+
+		// pintamos el fondo de la celda y, encima, el fondo amarillo del texto resaltado
+		if (isOpaque()) {
+			g.setColor(getBackground());
+			g.fillRect(0, 0, getWidth(), getHeight());
+		}
+		int[] layout = getHighlightLayout(getText());
+		g.setColor(HIGHLIGHT_COLOR);
+		g.fillRect(textR.x + layout[2], textR.y, layout[3], textR.height);
+
+		// finalmente se pinta el texto sin volver a pintar el fondo
+		paintingText = true;
+		try {
+			super.paintComponent(g);
+		} finally {
+			paintingText = false;
+		}
+	}
+
+	@Override
+	public boolean isOpaque() {
+		// mientras se pinta el texto la celda se comporta como transparente
+		// para que no se pinte el fondo encima del resaltado
+		return !paintingText && super.isOpaque();
+	}
+
+	// calcula la zona del texto en la celda (textR) y obtiene la posición en píxeles
+	// del texto resaltado dentro de ella, reutilizando la calculada anteriormente
+	private int[] getHighlightLayout(String name) {
+		FontMetrics fontMetrics = getFontMetrics(getFont());
+		getInsets(insets);
+		viewR.setBounds(insets.left, insets.top, getWidth() - insets.left - insets.right,
+				getHeight() - insets.top - insets.bottom);
+		iconR.setBounds(0, 0, 0, 0);
+		textR.setBounds(0, 0, 0, 0);
+		SwingUtilities.layoutCompoundLabel(this, fontMetrics, name, getIcon(), getVerticalAlignment(),
+				getHorizontalAlignment(), getVerticalTextPosition(), getHorizontalTextPosition(), viewR, iconR, textR,
+				getIconTextGap());
+
+		int[] layout = highlightLayouts.get(name);
+		if (layout == null) {
+			if (highlightLayouts.size() >= MAX_CACHED_LAYOUTS) {
+				highlightLayouts.clear();
+			}
+			layout = new int[] { -1, 0, 0, 0 };
+			highlightLayouts.put(name, layout);
+		}
+
+		// las posiciones en píxeles solo se calculan si ha cambiado el texto resaltado
+		if (layout[0] != highlightStart || layout[1] != highlightLength) {
+			layout[0] = highlightStart;
+			layout[1] = highlightLength;
+			layout[2] = fontMetrics.stringWidth(name.substring(0, highlightStart));
+			layout[3] = fontMetrics.stringWidth(name.substring(highlightStart, highlightStart + highlightLength));
+		}
+		return layout;
+	}
 }
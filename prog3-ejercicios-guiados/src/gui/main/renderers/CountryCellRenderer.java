@@ -3,13 +3,11 @@ package gui.main.renderers;
 import java.awt.Component;
 
 import javax.swing.DefaultListCellRenderer;
-import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JList;
 
-import gui.util.CountryCodes;
-import gui.util.IconLoader;
-import gui.util.IconLoadingException;
+import domain.CountryRegistry;
+import gui.util.CountryFlags;
 
 /**
  * Renderer para el selector de países JComboBox
@@ -30,14 +28,9 @@ public class CountryCellRenderer extends DefaultListCellRenderer {
 		// el valor recibido para la celda es el país mostrado en el  JCombobox
 		String country = (String) value;
 		
-		// intentamos obtener la bandera correspondiente al país
-		try {
-			String isoCode = CountryCodes.COUNTRY_ISO_CODES.get(country);
-			ImageIcon flagIcon = IconLoader.getIcon(String.format("/images/flags/%s.png", isoCode.toLowerCase()));
-			jLabel.setIcon(flagIcon);
-		} catch (IconLoadingException e) {
-			System.err.println("No se ha podido encontrar la bandera el país: " + country);
-		}
+		// obtenemos la bandera a partir del identificador del país, si el
+		// país no está registrado o no tiene bandera no se muestra ningún icono
+		jLabel.setIcon(CountryFlags.getFlag(CountryRegistry.getInstance().getId(country)));
 		
 		// devolvemos el componente a pintar en el JComboBox
 		return jLabel; 
@@ -1,11 +1,11 @@
 package gui.main.renderers;
 
-import java.awt.Component;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.swing.JLabel;
-import javax.swing.JTable;
 import javax.swing.table.DefaultTableCellRenderer;
 
 /**
@@ -16,6 +16,9 @@ import javax.swing.table.DefaultTableCellRenderer;
  * 
  * El renderer extiende del renderer por defecto de una tabla para configurar
  * únicamente el mínimo necesario del JLabel que se usa en cada celda.
+ * 
+ * Muchas medallas comparten fecha, así que el texto de cada fecha se formatea
+ * una única vez y se reutiliza en los siguientes repintados.
  */
 public class DateTableCellRenderer extends DefaultTableCellRenderer {
 
@@ -24,7 +27,11 @@ public class DateTableCellRenderer extends DefaultTableCellRenderer {
 	 */
 	private static final long serialVersionUID = 1L;
 	
+	// número máximo de fechas formateadas que se guardan antes de descartarlas
+	private static final int MAX_CACHED_DATES = 4096;
+
 	private DateTimeFormatter dateTimeFormatter;
+	private Map<LocalDate, String> formattedDates = new HashMap<>(); // texto de cada fecha ya formateada
 	
 	/** Constructor que recibe el formateador de fecha a utilizar por el
 	 * renderer
@@ -33,29 +40,34 @@ public class DateTableCellRenderer extends DefaultTableCellRenderer {
 	 */
 	public DateTableCellRenderer(DateTimeFormatter dateTimeFormatter) {
 		this.dateTimeFormatter = dateTimeFormatter;		
+
+		// texto a la derecha en el JLabel, se configura una única vez
+		setHorizontalAlignment(JLabel.RIGHT);
 	}
 
 	@Override
-	public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
-			int row, int column) {
-
-		// aprovechamos la implementación existente en la clase antecesora
-		// para obtener el componente JLabel visualizado como dentro de cada
-		// celda con la configuración por defecto
-		JLabel jLabel = (JLabel) super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-		
-		// establecemos el texto del JLabel al resultado de
-		// formatear la fecha con el formateador configurado para
-		// este renderer obtenido de value, que sabemos que es un
-		// LocalDate porque este renderer no debe ser usado con otros tipos
-		// de datos
-		jLabel.setText(dateTimeFormatter.format((LocalDate) value));
-		
-		// texto a la derecha en el JLabel
-		jLabel.setHorizontalAlignment(JLabel.RIGHT);
-		
-		// devolvemos el label para que se pinte en la celda que está siendo
-		// renderizada en el JTable 
-		return jLabel;
+	protected void setValue(Object value) {
+		// el renderer por defecto llama a este método desde getTableCellRendererComponent
+		// para establecer el texto a partir de value.toString(). Lo sustituimos por
+		// el resultado de formatear la fecha con el formateador configurado para
+		// este renderer, que sabemos que es un LocalDate porque este renderer no
+		// debe ser usado con otros tipos de datos
+		setText(format((LocalDate) value));
+	}
+
+	// obtiene el texto de una fecha, formateándola solo la primera vez
+	private String format(LocalDate date) {
+		if (date == null) {
+			return "";
+		}
+		String formatted = formattedDates.get(date);
+		if (formatted == null) {
+			if (formattedDates.size() >= MAX_CACHED_DATES) {
+				formattedDates.clear();
+			}
+			formatted = dateTimeFormatter.format(date);
+			formattedDates.put(date, formatted);
+		}
+		return formatted;
 	}
 }
@@ -20,6 +20,9 @@ import domain.Medal.Metal;
  * 
  * El renderer extiende del renderer por defecto de una tabla para configurar
  * únicamente el mínimo necesario del JLabel que se usa en cada celda. 
+ * 
+ * La fuente en negrita se deriva una única vez a partir de la fuente de la
+ * tabla, en lugar de derivarla para cada celda en cada repintado.
  */
 public class MetalTableCellRenderer extends DefaultTableCellRenderer {
 
@@ -34,6 +37,10 @@ public class MetalTableCellRenderer extends DefaultTableCellRenderer {
 		Metal.BRONZE, new Color(205, 127, 50)
 	);
 
+	// fuente de la tabla y fuente en negrita derivada de ella
+	private Font baseFont;
+	private Font boldFont;
+
 	@Override
 	public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus,
 			int row, int column) {
@@ -48,8 +55,15 @@ public class MetalTableCellRenderer extends DefaultTableCellRenderer {
 		
 		// establecemos el color del texto del JLabel de acuerdo
 		// al metal de la medalla recibida
-		jLabel.setForeground(metalColors.get(metal));
-		jLabel.setFont(jLabel.getFont().deriveFont(Font.BOLD));
+		// si la celda no tiene valor se utiliza el color por defecto
+		jLabel.setForeground(metal == null ? null : metalColors.get(metal));
+
+		// la negrita solo se vuelve a derivar si ha cambiado la fuente de la tabla
+		if (table.getFont() != baseFont) {
+			baseFont = table.getFont();
+			boldFont = baseFont.deriveFont(Font.BOLD);
+		}
+		jLabel.setFont(boldFont);
 		
 		return jLabel;
 	}
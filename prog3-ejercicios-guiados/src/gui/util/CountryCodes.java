@@ -1,14 +0,0 @@
-package gui.util;
-
-import java.util.Map;
-
-public class CountryCodes {
-
-	// mapa que relaciona el nombre de un país con su código ISO
-	public static final Map<String, String> COUNTRY_ISO_CODES = Map.of(
-		"Country 1", "CA",
-		"Country 2", "CH",
-		"Country 3", "DE",
-		"Country 4", "BR"
-	);
-}
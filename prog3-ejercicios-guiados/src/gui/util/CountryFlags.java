@@ -0,0 +1,87 @@
+package gui.util;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+import javax.swing.ImageIcon;
+
+import domain.CountryRegistry;
+
+/**
+ * Banderas de los países del registro de países, indexadas por el
+ * identificador de cada país. La ruta del icono de cada bandera se calcula una
+ * única vez, y el icono se obtiene de la caché de IconLoader la primera vez que
+ * se solicita.
+ *
+ * Para que pedir una bandera al pintar una celda sea consultar una posición de
+ * un array, se guarda el estado de la bandera de cada país: una referencia
+ * blanda al icono, que el recolector de basura puede liberar si falta memoria,
+ * o la indicación de que el país no tiene bandera, de manera que los países sin
+ * bandera no vuelven a consultar la caché ni a lanzar excepciones.
+ *
+ * Las banderas pueden cargarse todas por adelantado en paralelo con preload y,
+ * si no, se cargan la primera vez que se solicitan. Se puede acceder a ellas
+ * desde cualquier hilo.
+ */
+public class CountryFlags {
+
+	// estado de los países cuya bandera no existe o no se ha podido cargar
+	private static final SoftReference<ImageIcon> MISSING = new SoftReference<>(null);
+
+	// ruta del icono de la bandera de cada país
+	private static String[] flagPaths = new String[CountryRegistry.getInstance().size()];
+
+	// bandera de cada país: null si todavía no se ha cargado, MISSING si el país
+	// no tiene bandera o una referencia blanda al icono cargado
+	private static AtomicReferenceArray<SoftReference<ImageIcon>> flags = new AtomicReferenceArray<>(flagPaths.length);
+
+	static {
+		for (int id = 0; id < flagPaths.length; id++) {
+			flagPaths[id] = IconLoader.getFlagPath(CountryRegistry.getInstance().getIsoCode(id));
+		}
+	}
+
+	/**
+	 * Obtiene la bandera de un país.
+	 *
+	 * @param countryId identificador del país en el registro de países
+	 * @return bandera del país o null si el país no tiene bandera
+	 */
+	public static ImageIcon getFlag(int countryId) {
+		if (countryId == CountryRegistry.UNKNOWN) {
+			return null;
+		}
+
+		SoftReference<ImageIcon> flag = flags.get(countryId);
+		if (flag == MISSING) {
+			return null;
+		}
+		ImageIcon icon = flag == null ? null : flag.get();
+		if (icon != null) {
+			return icon;
+		}
+
+		// la bandera no se ha cargado todavía o el recolector de basura la ha
+		// liberado, si dos hilos la cargan a la vez se guarda la última
+		try {
+			icon = IconLoader.getIcon(flagPaths[countryId]);
+			flags.set(countryId, new SoftReference<>(icon));
+			return icon;
+		} catch (IconLoadingException e) {
+			flags.set(countryId, MISSING); // no todos los países tienen bandera
+			return null;
+		}
+	}
+
+	/**
+	 * Carga en paralelo las banderas de todos los países sin bloquear el hilo que
+	 * llama al método.
+	 *
+	 * @return CompletableFuture que se completa cuando se han cargado todas las banderas
+	 */
+	public static CompletableFuture<Void> preload() {
+		return CompletableFuture.runAsync(() -> IntStream.range(0, flagPaths.length).parallel().forEach(CountryFlags::getFlag));
+	}
+}
@@ -0,0 +1,256 @@
+package gui.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Vigilante del hilo de Swing (EDT) que detecta cuándo el hilo está ocupado más
+ * tiempo del indicado, lo que el usuario percibe como una interfaz bloqueada.
+ *
+ * Un hilo en segundo plano envía periódicamente una tarea vacía al hilo de
+ * Swing con SwingUtilities.invokeLater. Si la tarea tarda más del umbral en
+ * ejecutarse el hilo de Swing está bloqueado, y mientras siga bloqueado el
+ * vigilante toma muestras de su pila de llamadas. Las muestras se agrupan por
+ * el método en ejecución (la primera línea de la pila) para saber qué código
+ * bloquea el hilo con más frecuencia.
+ *
+ * El vigilante es opcional y se activa con la propiedad del sistema
+ * edt.watchdog indicando el umbral en milisegundos, por ejemplo
+ * -Dedt.watchdog=200. Al terminar el programa se escribe un informe en el
+ * fichero indicado por la propiedad edt.watchdog.report (por defecto
+ * edt-watchdog.txt).
+ */
+public class EdtWatchdog {
+
+	/**
+	 * Propiedad del sistema con el umbral en milisegundos que activa el vigilante.
+	 */
+	public static final String THRESHOLD_PROPERTY = "edt.watchdog";
+
+	/**
+	 * Propiedad del sistema con la ruta del fichero del informe.
+	 */
+	public static final String REPORT_PROPERTY = "edt.watchdog.report";
+
+	// fichero del informe si no se indica otro
+	private static final String DEFAULT_REPORT = "edt-watchdog.txt";
+
+	// número máximo de líneas de la pila que se guardan en cada muestra
+	private static final int MAX_STACK_DEPTH = 40;
+
+	// muestras agrupadas por el método en ejecución en el hilo de Swing
+	private static class StackSamples {
+		int count; // número de muestras
+		StackTraceElement[] stack; // pila de la primera muestra como ejemplo
+	}
+
+	private long thresholdNanos; // tiempo a partir del cual se considera que el hilo está bloqueado
+	private long sampleMillis; // periodo entre comprobaciones y muestras
+	private File reportFile; // fichero en el que se escribe el informe
+
+	// hilo daemon que comprueba el estado del hilo de Swing y toma las muestras
+	private ScheduledExecutorService scheduler;
+
+	// hilo de Swing, se obtiene desde la propia tarea enviada al hilo
+	private volatile Thread eventThread;
+	// instante en el que se envió la tarea pendiente de ejecutar o 0 si no hay ninguna
+	private volatile long heartbeatPosted;
+	// tiempo que tardó en ejecutarse la última tarea enviada
+	private volatile long heartbeatLatency;
+
+	// bloqueo en curso, solo se accede desde el hilo del vigilante
+	private boolean stalled;
+
+	// estadísticas de los bloqueos detectados, protegidas por el propio vigilante
+	private int stallCount;
+	private long totalStallNanos;
+	private long maxStallNanos;
+	private int sampleCount;
+	private Map<String, StackSamples> samples = new HashMap<>();
+
+	/**
+	 * Constructor que recibe el umbral de bloqueo y el fichero del informe.
+	 *
+	 * @param thresholdMillis tiempo en milisegundos a partir del cual se considera
+	 *                        que el hilo de Swing está bloqueado
+	 * @param reportFile      fichero en el que se escribe el informe al terminar
+	 *                        el programa
+	 */
+	public EdtWatchdog(long thresholdMillis, File reportFile) {
+		if (thresholdMillis <= 0) {
+			throw new IllegalArgumentException("El umbral debe ser positivo: " + thresholdMillis);
+		}
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+		// se comprueba varias veces dentro del umbral para detectar los bloqueos
+		// con precisión y tomar varias muestras de cada uno
+		this.sampleMillis = Math.max(10, thresholdMillis / 4);
+		this.reportFile = reportFile;
+	}
+
+	/**
+	 * Crea e inicia el vigilante si se ha indicado el umbral con la propiedad del
+	 * sistema edt.watchdog.
+	 *
+	 * @return vigilante iniciado o null si no se ha activado
+	 */
+	public static EdtWatchdog startFromProperties() {
+		String threshold = System.getProperty(THRESHOLD_PROPERTY);
+		if (threshold == null || threshold.isBlank()) {
+			return null;
+		}
+
+		try {
+			File reportFile = new File(System.getProperty(REPORT_PROPERTY, DEFAULT_REPORT));
+			EdtWatchdog watchdog = new EdtWatchdog(Long.parseLong(threshold.strip()), reportFile);
+			watchdog.start();
+			return watchdog;
+		} catch (IllegalArgumentException e) {
+			// NumberFormatException también es una IllegalArgumentException
+			System.err.println("Valor incorrecto de la propiedad " + THRESHOLD_PROPERTY + ": " + threshold);
+			return null;
+		}
+	}
+
+	/**
+	 * Inicia la vigilancia del hilo de Swing y registra la escritura del informe
+	 * al terminar el programa.
+	 */
+	public synchronized void start() {
+		if (scheduler != null) {
+			return;
+		}
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "Vigilante EDT");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleAtFixedRate(this::check, sampleMillis, sampleMillis, TimeUnit.MILLISECONDS);
+
+		// el informe se escribe al terminar el programa, incluido con System.exit
+		Runtime.getRuntime().addShutdownHook(new Thread(this::writeReport, "Informe vigilante EDT"));
+		System.out.format("Vigilando el hilo de Swing con un umbral de %d ms%n",
+				TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+	}
+
+	/**
+	 * Detiene la vigilancia del hilo de Swing. Las estadísticas recogidas se
+	 * mantienen y se escriben igualmente en el informe.
+	 */
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	// comprobación periódica que se ejecuta en el hilo del vigilante
+	private void check() {
+		long now = System.nanoTime();
+		long posted = heartbeatPosted;
+
+		if (posted == 0) {
+			// la tarea anterior ya se ha ejecutado, si había un bloqueo ha terminado
+			if (stalled) {
+				stalled = false;
+				endStall(heartbeatLatency);
+			}
+
+			// se envía una nueva tarea que anota cuánto ha tardado en ejecutarse
+			heartbeatPosted = now;
+			SwingUtilities.invokeLater(() -> {
+				eventThread = Thread.currentThread();
+				heartbeatLatency = System.nanoTime() - now;
+				heartbeatPosted = 0;
+			});
+		} else if (now - posted >= thresholdNanos) {
+			// la tarea no se ha ejecutado dentro del umbral, el hilo de Swing está
+			// bloqueado y se toma una muestra de su pila mientras lo siga estando
+			if (!stalled) {
+				stalled = true;
+				startStall();
+			}
+			Thread thread = eventThread;
+			if (thread != null) {
+				addSample(thread.getStackTrace());
+			}
+		}
+	}
+
+	// anota el comienzo de un bloqueo
+	private synchronized void startStall() {
+		stallCount++;
+	}
+
+	// anota la duración de un bloqueo que ha terminado
+	private synchronized void endStall(long stallNanos) {
+		totalStallNanos += stallNanos;
+		maxStallNanos = Math.max(maxStallNanos, stallNanos);
+	}
+
+	// añade una muestra de la pila agrupándola por el método en ejecución
+	private synchronized void addSample(StackTraceElement[] stack) {
+		if (stack.length == 0) {
+			return;
+		}
+		sampleCount++;
+		StackSamples stackSamples = samples.computeIfAbsent(stack[0].toString(), k -> new StackSamples());
+		if (stackSamples.count++ == 0) {
+			stackSamples.stack = stack;
+		}
+	}
+
+	/**
+	 * Escribe el informe con los bloqueos detectados y las muestras de la pila del
+	 * hilo de Swing, ordenadas de mayor a menor número de muestras.
+	 *
+	 * @param out destino del informe
+	 */
+	public synchronized void writeReport(PrintWriter out) {
+		out.format("Umbral de bloqueo: %d ms%n", TimeUnit.NANOSECONDS.toMillis(thresholdNanos));
+		out.format("Bloqueos detectados: %d%n", stallCount);
+		out.format("Tiempo total bloqueado: %d ms%n", TimeUnit.NANOSECONDS.toMillis(totalStallNanos));
+		out.format("Bloqueo más largo: %d ms%n", TimeUnit.NANOSECONDS.toMillis(maxStallNanos));
+		out.format("Muestras tomadas cada %d ms: %d%n", sampleMillis, sampleCount);
+
+		// se ordenan los grupos por número de muestras
+		List<Map.Entry<String, StackSamples>> entries = new ArrayList<>(samples.entrySet());
+		entries.sort((e1, e2) -> Integer.compare(e2.getValue().count, e1.getValue().count));
+		for (Map.Entry<String, StackSamples> entry : entries) {
+			StackSamples stackSamples = entry.getValue();
+			out.println();
+			out.format("%d muestras (%.1f %%) en %s%n", stackSamples.count, 100.0 * stackSamples.count / sampleCount,
+					entry.getKey());
+			int depth = Math.min(stackSamples.stack.length, MAX_STACK_DEPTH);
+			for (int i = 0; i < depth; i++) {
+				out.println("\tat " + stackSamples.stack[i]);
+			}
+			if (depth < stackSamples.stack.length) {
+				out.format("\t... %d más%n", stackSamples.stack.length - depth);
+			}
+		}
+		out.flush();
+	}
+
+	// escribe el informe en el fichero indicado al crear el vigilante
+	private void writeReport() {
+		stop();
+		try (PrintWriter out = new PrintWriter(reportFile, StandardCharsets.UTF_8)) {
+			writeReport(out);
+			System.out.println("Informe del vigilante del hilo de Swing guardado en " + reportFile);
+		} catch (IOException e) {
+			System.err.println("No se ha podido escribir el informe del vigilante en " + reportFile + ". " + e.getMessage());
+		}
+	}
+}
@@ -1,40 +1,77 @@
 package gui.util;
 
-import java.util.HashMap;
+import java.awt.MediaTracker;
+import java.lang.ref.SoftReference;
+import java.net.URL;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.ImageIcon;
 
 /**
  * Clase de utilidad para cargar iconos a partir su nombre de fichero. La clase
  * cachea el icono para evitar cargarlo cada vez.
+ *
+ * La caché puede utilizarse desde cualquier hilo, lo que permite cargar los
+ * iconos por adelantado en paralelo (por ejemplo, todas las banderas al
+ * arrancar) para que el hilo de Swing no tenga que decodificarlos la primera
+ * vez que se pintan. Los iconos se guardan con referencias blandas
+ * (SoftReference), de manera que el recolector de basura puede liberarlos si
+ * falta memoria y se vuelven a cargar cuando se necesiten. Los iconos que no
+ * existen también se recuerdan para no volver a buscarlos.
  */
 public class IconLoader {
 
-	private static Map<String, ImageIcon> loadedIcons = new HashMap<>(); // mapa para guardar los iconos cargados
+	// iconos cargados, el recolector de basura puede liberarlos si falta memoria
+	private static Map<String, SoftReference<ImageIcon>> loadedIcons = new ConcurrentHashMap<>();
+	// rutas de los iconos que no se han podido cargar
+	private static Set<String> missingIcons = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * Obtiene el icono a partir de la ruta indicada
-	 * 
+	 *
 	 * @param iconPath ruta al icono a cargar
 	 * @return icono cargado
 	 * @throws IconLoadingException si hay algún problema al cargar el icono
 	 */
-	public static ImageIcon getIcon(String piconPath) throws IconLoadingException {
-		// comprobamos si el icono ya ha sido cargada y no es nulo
-		if (loadedIcons.containsKey(piconPath)) {
-			// si el icono es nulo es que ya se intentó cargar pero hubo algún error
-			if (loadedIcons.get(piconPath) == null) {
-				throw new IconLoadingException("Icono no encontrado");
-			}
-
-			// existe el icono, lo devolvemos
-			return loadedIcons.get(piconPath);
+	public static ImageIcon getIcon(String iconPath) throws IconLoadingException {
+		// comprobamos si ya se intentó cargar el icono pero hubo algún error
+		if (missingIcons.contains(iconPath)) {
+			throw new IconLoadingException("Icono no encontrado: " + iconPath);
 		}
 
-		// leemos el fichero desde la ruta indicada
-		ImageIcon imageIcon = new ImageIcon(IconLoader.class.getResource(piconPath));
-		loadedIcons.put(piconPath, imageIcon); // cacheamos el icono ya cargado
+		// comprobamos si el icono ya ha sido cargado y no ha sido liberado
+		SoftReference<ImageIcon> reference = loadedIcons.get(iconPath);
+		ImageIcon imageIcon = reference == null ? null : reference.get();
+		if (imageIcon != null) {
+			return imageIcon;
+		}
+
+		// leemos el fichero desde la ruta indicada, si dos hilos cargan el mismo
+		// icono a la vez ambos obtienen un icono válido y se guarda el último
+		URL iconURL = IconLoader.class.getResource(iconPath);
+		if (iconURL == null) {
+			missingIcons.add(iconPath);
+			throw new IconLoadingException("Icono no encontrado: " + iconPath);
+		}
+		imageIcon = new ImageIcon(iconURL);
+		if (imageIcon.getImageLoadStatus() == MediaTracker.ERRORED) {
+			missingIcons.add(iconPath);
+			throw new IconLoadingException("No se ha podido cargar el icono: " + iconPath);
+		}
+
+		loadedIcons.put(iconPath, new SoftReference<>(imageIcon)); // cacheamos el icono ya cargado
 		return imageIcon;
 	}
+
+	/**
+	 * Obtiene la ruta del icono de la bandera de un país.
+	 *
+	 * @param isoCode código ISO del país
+	 * @return ruta del icono de la bandera
+	 */
+	public static String getFlagPath(String isoCode) {
+		return "/images/flags/" + isoCode.toLowerCase() + ".png";
+	}
 }
@@ -0,0 +1,334 @@
+package log;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritor asíncrono de los mensajes del registro.
+ *
+ * Los hilos que registran mensajes únicamente reservan una posición de un
+ * buffer circular creado al inicio, con una operación atómica, y copian en ella
+ * las referencias a la plantilla y a los argumentos del mensaje. Un único hilo
+ * en segundo plano recorre el buffer en orden, da formato a cada mensaje y lo
+ * escribe como una línea con campos clave=valor:
+ *
+ * <pre>
+ * ts=2024-08-02T10:15:30.123Z level=INFO logger=DescriptionCache thread="Lectura de descripciones" msg="..."
+ * </pre>
+ *
+ * De esta manera registrar un mensaje nunca espera a la consola ni a otros
+ * hilos y no crea objetos. Si el buffer se llena los mensajes nuevos se
+ * descartan en lugar de bloquear al hilo que los registra, y se escribe un
+ * aviso con el número de mensajes descartados.
+ *
+ * Mientras no hay mensajes el hilo de escritura espera sin despertarse
+ * periódicamente, y el hilo que publica un mensaje solo lo despierta si estaba
+ * esperando, por lo que en el caso habitual únicamente consulta una variable.
+ *
+ * El nivel mínimo se indica con la propiedad del sistema log.level (por
+ * defecto INFO) y los mensajes se escriben en la salida estándar o en el
+ * fichero indicado con la propiedad log.file. Al terminar el programa se
+ * escriben los mensajes pendientes.
+ *
+ * Clase implementada con el patrón Singleton.
+ */
+public class AsyncLogWriter {
+
+	/**
+	 * Propiedad del sistema con el nivel mínimo de los mensajes a escribir.
+	 */
+	public static final String LEVEL_PROPERTY = "log.level";
+
+	/**
+	 * Propiedad del sistema con el fichero en el que se escriben los mensajes.
+	 */
+	public static final String FILE_PROPERTY = "log.file";
+
+	// número de posiciones del buffer, debe ser una potencia de dos
+	private static final int CAPACITY = 8192;
+	private static final int MASK = CAPACITY - 1;
+
+	// posición del buffer, los objetos se crean una única vez y se reutilizan
+	private static class Slot {
+		// número de mensaje guardado en la posición, se escribe en último lugar
+		// para que el hilo de escritura vea el resto de campos ya asignados
+		volatile long sequence = -1;
+		long timestamp;
+		LogLevel level;
+		String logger;
+		String thread;
+		String message;
+		Object arg1;
+		Object arg2;
+		Object arg3;
+	}
+
+	// instancia única del escritor, se crea al cargar la clase
+	private static final AsyncLogWriter instance = new AsyncLogWriter();
+
+	private Slot[] ring = new Slot[CAPACITY]; // buffer circular de mensajes
+
+	// número de mensajes reservados por los hilos que registran mensajes
+	private AtomicLong claimed = new AtomicLong();
+	// número de mensajes ya escritos, solo lo modifica el hilo de escritura
+	private volatile long consumed;
+	// mensajes descartados por tener el buffer lleno desde el último aviso
+	private LongAdder dropped = new LongAdder();
+
+	private volatile int minLevel; // ordinal del nivel mínimo a escribir
+	private Writer out; // destino de los mensajes, solo lo usa el hilo de escritura
+	private volatile boolean stopping; // indica que el programa está terminando
+	private Thread drainer; // hilo que escribe los mensajes
+	private volatile boolean idle; // indica que el hilo de escritura espera a que haya mensajes
+
+	// texto reutilizado por el hilo de escritura para dar formato a cada línea
+	private StringBuilder line = new StringBuilder(256);
+
+	// constructor privado, se lee la configuración y se inicia el hilo de escritura
+	private AsyncLogWriter() {
+		for (int i = 0; i < CAPACITY; i++) {
+			ring[i] = new Slot();
+		}
+
+		LogLevel level = LogLevel.INFO;
+		String levelName = System.getProperty(LEVEL_PROPERTY);
+		if (levelName != null) {
+			try {
+				level = LogLevel.valueOf(levelName.strip().toUpperCase());
+			} catch (IllegalArgumentException e) {
+				System.err.println("Nivel de registro incorrecto: " + levelName);
+			}
+		}
+		minLevel = level.ordinal();
+
+		out = new BufferedWriter(new OutputStreamWriter(openOutput(), Charset.defaultCharset()), 16 * 1024);
+
+		drainer = new Thread(this::drain, "Escritura del registro");
+		drainer.setDaemon(true);
+		drainer.start();
+
+		// al terminar el programa se escriben los mensajes pendientes
+		Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "Fin del registro"));
+	}
+
+	/**
+	 * Obtiene la instancia única del escritor.
+	 *
+	 * @return escritor de mensajes
+	 */
+	public static AsyncLogWriter getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Indica si se escriben los mensajes del nivel indicado.
+	 *
+	 * @param level nivel de los mensajes
+	 * @return true si el nivel está activado
+	 */
+	public boolean isEnabled(LogLevel level) {
+		return level.ordinal() >= minLevel;
+	}
+
+	/**
+	 * Cambia el nivel mínimo de los mensajes que se escriben.
+	 *
+	 * @param level nivel mínimo
+	 */
+	public void setLevel(LogLevel level) {
+		minLevel = level.ordinal();
+	}
+
+	/**
+	 * Obtiene el número de mensajes que se han descartado por tener el buffer
+	 * lleno y todavía no se han notificado.
+	 *
+	 * @return número de mensajes descartados
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	// guarda un mensaje en el buffer, si está lleno el mensaje se descarta
+	void append(LogLevel level, String logger, String message, Object arg1, Object arg2, Object arg3) {
+		// se reserva la siguiente posición libre del buffer
+		long sequence;
+		do {
+			sequence = claimed.get();
+			if (sequence - consumed >= CAPACITY) {
+				dropped.increment();
+				return;
+			}
+		} while (!claimed.compareAndSet(sequence, sequence + 1));
+
+		Slot slot = ring[(int) (sequence & MASK)];
+		slot.timestamp = System.currentTimeMillis();
+		slot.level = level;
+		slot.logger = logger;
+		slot.thread = Thread.currentThread().getName();
+		slot.message = message;
+		slot.arg1 = arg1;
+		slot.arg2 = arg2;
+		slot.arg3 = arg3;
+		// se publica el mensaje para el hilo de escritura y se le despierta si
+		// estaba esperando porque el buffer estaba vacío
+		slot.sequence = sequence;
+		if (idle) {
+			LockSupport.unpark(drainer);
+		}
+	}
+
+	// bucle del hilo de escritura
+	private void drain() {
+		long next = consumed;
+		boolean pendingFlush = false;
+		while (true) {
+			Slot slot = ring[(int) (next & MASK)];
+			if (slot.sequence == next) {
+				write(slot);
+				// se liberan las referencias a los argumentos para no retenerlos en memoria
+				slot.message = null;
+				slot.arg1 = null;
+				slot.arg2 = null;
+				slot.arg3 = null;
+				consumed = ++next;
+				pendingFlush = true;
+				continue;
+			}
+
+			// no hay más mensajes publicados, se escribe el aviso de mensajes descartados
+			// y se vacía el buffer de escritura antes de esperar
+			long droppedCount = dropped.sumThenReset();
+			if (droppedCount > 0) {
+				writeDropped(droppedCount);
+				pendingFlush = true;
+			}
+			if (pendingFlush) {
+				flush();
+				pendingFlush = false;
+			}
+
+			// al terminar el programa se sale cuando se han escrito todos los mensajes reservados
+			if (stopping && claimed.get() == next) {
+				return;
+			}
+
+			// se indica que se va a esperar antes de comprobar por última vez si hay un
+			// mensaje publicado: el hilo que lo publique después verá la indicación y
+			// despertará al hilo de escritura
+			idle = true;
+			if (ring[(int) (next & MASK)].sequence != next && !stopping) {
+				LockSupport.park(this);
+			}
+			idle = false;
+		}
+	}
+
+	// da formato a un mensaje y lo escribe como una línea de campos clave=valor
+	private void write(Slot slot) {
+		line.setLength(0);
+		line.append("ts=");
+		DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(slot.timestamp), line);
+		line.append(" level=").append(slot.level.name());
+		line.append(" logger=").append(slot.logger);
+		line.append(" thread=");
+		appendQuoted(slot.thread, 0, slot.thread.length());
+		line.append(" msg=");
+
+		// se sustituye cada {} de la plantilla por el siguiente argumento
+		String message = slot.message;
+		StringBuilder text = new StringBuilder(message.length() + 64);
+		Object[] args = { slot.arg1, slot.arg2, slot.arg3 };
+		int argIndex = 0;
+		int start = 0;
+		int placeholder;
+		while ((placeholder = message.indexOf("{}", start)) >= 0 && argIndex < args.length) {
+			text.append(message, start, placeholder).append(args[argIndex++]);
+			start = placeholder + 2;
+		}
+		text.append(message, start, message.length());
+		appendQuoted(text, 0, text.length());
+
+		line.append(System.lineSeparator());
+		try {
+			out.append(line);
+		} catch (IOException e) {
+			// no hay otro sitio en el que notificar el error, se descarta el mensaje
+		}
+	}
+
+	// escribe el aviso con el número de mensajes descartados
+	private void writeDropped(long count) {
+		line.setLength(0);
+		line.append("ts=");
+		DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(System.currentTimeMillis()), line);
+		line.append(" level=WARN logger=AsyncLogWriter msg=\"Buffer del registro lleno, mensajes descartados: ")
+				.append(count).append('"').append(System.lineSeparator());
+		try {
+			out.append(line);
+		} catch (IOException e) {
+			// no hay otro sitio en el que notificar el error
+		}
+	}
+
+	// añade un valor entre comillas escapando las comillas, las barras y los saltos de línea
+	private void appendQuoted(CharSequence value, int start, int end) {
+		line.append('"');
+		for (int i = start; i < end; i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"', '\\' -> line.append('\\').append(c);
+				case '\n' -> line.append("\\n");
+				case '\r' -> line.append("\\r");
+				case '\t' -> line.append("\\t");
+				default -> line.append(c);
+			}
+		}
+		line.append('"');
+	}
+
+	// vacía el buffer de escritura
+	private void flush() {
+		try {
+			out.flush();
+		} catch (IOException e) {
+			// no hay otro sitio en el que notificar el error
+		}
+	}
+
+	// espera a que se escriban los mensajes pendientes al terminar el programa
+	private void shutdown() {
+		stopping = true;
+		LockSupport.unpark(drainer);
+		try {
+			drainer.join(TimeUnit.SECONDS.toMillis(2));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// abre el destino de los mensajes: el fichero indicado o la salida estándar
+	private static OutputStream openOutput() {
+		String file = System.getProperty(FILE_PROPERTY);
+		if (file != null && !file.isBlank()) {
+			try {
+				return new FileOutputStream(file, true);
+			} catch (IOException e) {
+				System.err.println("No se ha podido abrir el fichero de registro " + file + ". " + e.getMessage());
+			}
+		}
+		return System.out;
+	}
+
+}
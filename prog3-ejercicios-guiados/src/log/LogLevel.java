@@ -0,0 +1,8 @@
+package log;
+
+/**
+ * Niveles de los mensajes del registro, de menor a mayor importancia.
+ */
+public enum LogLevel {
+	DEBUG, INFO, WARN, ERROR
+}
@@ -0,0 +1,113 @@
+package log;
+
+/**
+ * Registro de mensajes de un componente del programa. Los mensajes no se
+ * escriben en el hilo que los registra: se guardan en el buffer circular de
+ * AsyncLogWriter y un hilo en segundo plano les da formato y los escribe.
+ *
+ * Los mensajes son plantillas en las que cada {} se sustituye por el siguiente
+ * argumento. El texto final solo se construye en el hilo de escritura, de
+ * manera que registrar un mensaje no concatena ni da formato a ningún texto, y
+ * los mensajes de los niveles desactivados no tienen ningún coste más allá de
+ * comprobar el nivel. Se ofrecen métodos con cero, uno, dos y tres argumentos
+ * para no crear un array en cada llamada.
+ */
+public class Logger {
+
+	private String name; // nombre del componente que se muestra en cada mensaje
+	private AsyncLogWriter writer; // escritor compartido por todos los registros
+
+	// los registros se obtienen con getLogger
+	Logger(String name, AsyncLogWriter writer) {
+		this.name = name;
+		this.writer = writer;
+	}
+
+	/**
+	 * Obtiene el registro de mensajes de una clase.
+	 *
+	 * @param type clase que registra los mensajes
+	 * @return registro de mensajes
+	 */
+	public static Logger getLogger(Class<?> type) {
+		return new Logger(type.getSimpleName(), AsyncLogWriter.getInstance());
+	}
+
+	/**
+	 * Indica si se registran los mensajes del nivel indicado.
+	 *
+	 * @param level nivel de los mensajes
+	 * @return true si el nivel está activado
+	 */
+	public boolean isEnabled(LogLevel level) {
+		return writer.isEnabled(level);
+	}
+
+	public void debug(String message) {
+		log(LogLevel.DEBUG, message, null, null, null);
+	}
+
+	public void debug(String message, Object arg) {
+		log(LogLevel.DEBUG, message, arg, null, null);
+	}
+
+	public void debug(String message, Object arg1, Object arg2) {
+		log(LogLevel.DEBUG, message, arg1, arg2, null);
+	}
+
+	public void info(String message) {
+		log(LogLevel.INFO, message, null, null, null);
+	}
+
+	public void info(String message, Object arg) {
+		log(LogLevel.INFO, message, arg, null, null);
+	}
+
+	public void info(String message, Object arg1, Object arg2) {
+		log(LogLevel.INFO, message, arg1, arg2, null);
+	}
+
+	public void warn(String message) {
+		log(LogLevel.WARN, message, null, null, null);
+	}
+
+	public void warn(String message, Object arg) {
+		log(LogLevel.WARN, message, arg, null, null);
+	}
+
+	public void warn(String message, Object arg1, Object arg2) {
+		log(LogLevel.WARN, message, arg1, arg2, null);
+	}
+
+	public void error(String message) {
+		log(LogLevel.ERROR, message, null, null, null);
+	}
+
+	public void error(String message, Object arg) {
+		log(LogLevel.ERROR, message, arg, null, null);
+	}
+
+	public void error(String message, Object arg1, Object arg2) {
+		log(LogLevel.ERROR, message, arg1, arg2, null);
+	}
+
+	public void error(String message, Object arg1, Object arg2, Object arg3) {
+		log(LogLevel.ERROR, message, arg1, arg2, arg3);
+	}
+
+	/**
+	 * Registra un mensaje con hasta tres argumentos.
+	 *
+	 * @param level   nivel del mensaje
+	 * @param message plantilla del mensaje, cada {} se sustituye por un argumento
+	 * @param arg1    primer argumento o null
+	 * @param arg2    segundo argumento o null
+	 * @param arg3    tercer argumento o null
+	 */
+	public void log(LogLevel level, String message, Object arg1, Object arg2, Object arg3) {
+		// los niveles desactivados se descartan antes de tocar el buffer
+		if (writer.isEnabled(level)) {
+			writer.append(level, name, message, arg1, arg2, arg3);
+		}
+	}
+}
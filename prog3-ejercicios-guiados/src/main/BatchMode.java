@@ -0,0 +1,235 @@
+package main;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import domain.DatasetGenerator;
+import domain.DatasetSnapshot;
+import domain.DatasetStore;
+import net.DescriptionCache;
+import net.DescriptionCacheMXBean;
+import net.WebScraper;
+import net.WebScraperException;
+import service.QueryService;
+
+/**
+ * Modo de ejecución por lotes, sin interfaz gráfica, para preparar la cache de
+ * descripciones y exportar las disciplinas desde un servidor o una tarea
+ * programada.
+ *
+ * El modo genera un conjunto de datos con DatasetGenerator, obtiene a través
+ * de la cache las descripciones de todas las disciplinas de sus medallas con
+ * el número de descargas simultáneas indicado y, opcionalmente, las exporta a
+ * un fichero con el mismo formato que la exportación de la ventana principal.
+ * No se utiliza ninguna clase de AWT ni de Swing, por lo que arranca antes y
+ * funciona en máquinas sin pantalla.
+ *
+ * <pre>
+ * java main.Main --batch [--athletes N] [--seed S] [--concurrency N] [--max-wait ms] [--export fichero]
+ * </pre>
+ *
+ * El progreso se muestra en la salida estándar y el resultado se indica con el
+ * código de salida del programa. Si se activa el servicio de consultas con la
+ * propiedad service.port, al terminar la exportación el programa sigue atendiendo consultas
+ * sobre los datos generados hasta que se detiene.
+ */
+public class BatchMode {
+
+	/**
+	 * Argumento que activa el modo por lotes.
+	 */
+	public static final String BATCH_ARG = "--batch";
+
+	/**
+	 * Código de salida si se han obtenido todas las descripciones.
+	 */
+	public static final int EXIT_OK = 0;
+
+	/**
+	 * Código de salida si no se ha podido obtener alguna descripción.
+	 */
+	public static final int EXIT_INCOMPLETE = 1;
+
+	/**
+	 * Código de salida si los argumentos no son correctos.
+	 */
+	public static final int EXIT_USAGE = 2;
+
+	/**
+	 * Código de salida si no se ha podido escribir el fichero de exportación.
+	 */
+	public static final int EXIT_EXPORT_ERROR = 3;
+
+	private static final String USAGE = "Uso: java main.Main " + BATCH_ARG
+			+ " [--athletes N] [--seed S] [--concurrency N] [--max-wait ms] [--export fichero]";
+
+	private int athleteCount = 10_000; // número de atletas del conjunto de datos generado
+	private long seed = 2024; // semilla de la generación de los datos
+	private int concurrency = 4; // número máximo de descripciones obtenidas a la vez
+	private int maxWait = 30_000; // espera máxima si otro hilo está descargando la descripción
+	private String exportFile; // fichero de exportación, null si no se exporta
+
+	/**
+	 * Indica si los argumentos del programa solicitan el modo por lotes.
+	 *
+	 * @param args argumentos del programa
+	 * @return true si el primer argumento es --batch
+	 */
+	public static boolean isRequested(String[] args) {
+		return args.length > 0 && args[0].equals(BATCH_ARG);
+	}
+
+	/**
+	 * Ejecuta el modo por lotes con los argumentos del programa.
+	 *
+	 * @param args argumentos del programa, el primero es --batch
+	 * @return código de salida del programa
+	 */
+	public static int run(String[] args) {
+		// se evita que cualquier uso indirecto de AWT intente conectarse a una pantalla
+		System.setProperty("java.awt.headless", "true");
+
+		BatchMode batch = new BatchMode();
+		try {
+			batch.parseArguments(args);
+		} catch (IllegalArgumentException e) {
+			// NumberFormatException también es una IllegalArgumentException
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return EXIT_USAGE;
+		}
+
+		try {
+			return batch.execute();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			System.err.println("Ejecución interrumpida");
+			return EXIT_INCOMPLETE;
+		}
+	}
+
+	// lee las opciones que siguen a --batch
+	private void parseArguments(String[] args) {
+		for (int i = 1; i < args.length; i++) {
+			String option = args[i];
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Falta el valor de la opción " + option);
+			}
+			String value = args[++i];
+			switch (option) {
+				case "--athletes" -> athleteCount = Integer.parseInt(value);
+				case "--seed" -> seed = Long.parseLong(value);
+				case "--concurrency" -> concurrency = Integer.parseInt(value);
+				case "--max-wait" -> maxWait = Integer.parseInt(value);
+				case "--export" -> exportFile = value;
+				default -> throw new IllegalArgumentException("Opción desconocida: " + option);
+			}
+		}
+		if (athleteCount < 0 || concurrency <= 0 || maxWait < 0) {
+			throw new IllegalArgumentException("Los valores numéricos deben ser positivos");
+		}
+	}
+
+	// genera los datos, obtiene las descripciones y las exporta
+	private int execute() throws InterruptedException {
+		long start = System.nanoTime();
+		DatasetSnapshot data = new DatasetGenerator(seed).generate(athleteCount);
+
+		// se obtiene la URL de cada disciplina conservando el primer nombre con el que
+		// aparece, que es el que se escribe en la exportación
+		Map<URL, String> disciplines = new HashMap<>();
+		data.getAllMedals().forEach(medal -> {
+			try {
+				disciplines.putIfAbsent(WebScraper.getURL(medal.getDiscipline()), medal.getDiscipline());
+			} catch (WebScraperException e) {
+				System.err.println("Disciplina incorrecta " + medal.getDiscipline() + ". " + e.getMessage());
+			}
+		});
+		System.out.format("Datos: %,d atletas, %d disciplinas (%d ms)%n", athleteCount, disciplines.size(),
+				(System.nanoTime() - start) / 1_000_000);
+
+		// se solicitan todas las descripciones a la cache limitando el número de
+		// solicitudes en curso, la cache se encarga de leerlas de disco o descargarlas
+		DescriptionCache cache = DescriptionCache.getInstance();
+		Semaphore permits = new Semaphore(concurrency);
+		CountDownLatch done = new CountDownLatch(disciplines.size());
+		AtomicInteger completed = new AtomicInteger();
+		Map<String, List<String>> descriptions = new ConcurrentHashMap<>();
+		int total = disciplines.size();
+
+		for (Map.Entry<URL, String> entry : disciplines.entrySet()) {
+			String name = entry.getValue();
+			permits.acquire();
+			cache.getDescriptionAsync(entry.getKey(), description -> {
+				descriptions.put(name, description);
+				System.out.format("[%d/%d] %s: %d párrafos%n", completed.incrementAndGet(), total, name, description.size());
+				permits.release();
+				done.countDown();
+			}, error -> {
+				System.out.format("[%d/%d] %s: error. %s%n", completed.incrementAndGet(), total, name, error.getMessage());
+				permits.release();
+				done.countDown();
+			}, maxWait);
+		}
+		done.await();
+
+		DescriptionCacheMXBean metrics = cache.getMetrics();
+		int failed = total - descriptions.size();
+		System.out.format("Descripciones: %d correctas, %d con error, %d leídas de la cache, %d descargadas (%d ms)%n",
+				descriptions.size(), failed, metrics.getHits(), metrics.getDownloads(),
+				(System.nanoTime() - start) / 1_000_000);
+
+		if (exportFile != null) {
+			try {
+				export(disciplines.values(), descriptions);
+				System.out.println("Disciplinas exportadas en " + exportFile);
+			} catch (IOException e) {
+				System.err.println("Error al exportar las disciplinas en " + exportFile + ". " + e.getMessage());
+				return EXIT_EXPORT_ERROR;
+			}
+		}
+
+		// si se ha indicado con -Dservice.port=<puerto> se ofrecen los datos y la
+		// cache ya preparada por HTTP hasta que se termine el programa
+		QueryService service = QueryService.startFromProperties(new DatasetStore(data));
+		if (service != null) {
+			service.awaitTermination();
+		}
+
+		return failed == 0 ? EXIT_OK : EXIT_INCOMPLETE;
+	}
+
+	// escribe las disciplinas ordenadas por nombre con sus descripciones, con el
+	// mismo formato que la exportación de la ventana principal
+	private void export(Iterable<String> names, Map<String, List<String>> descriptions) throws IOException {
+		Map<String, List<String>> sorted = new TreeMap<>();
+		for (String name : names) {
+			sorted.put(name, descriptions.get(name));
+		}
+
+		try (Writer writer = new BufferedWriter(new FileWriter(exportFile))) {
+			for (Map.Entry<String, List<String>> entry : sorted.entrySet()) {
+				writer.write(entry.getKey() + "\n");
+				if (entry.getValue() != null) {
+					for (String paragraph : entry.getValue()) {
+						writer.write(paragraph + "\n");
+					}
+				} else {
+					writer.write("No se ha podido obtener la información\n");
+				}
+				writer.write("\n");
+			}
+		}
+	}
+}
@@ -1,6 +1,9 @@
 package main;
 
 import gui.main.MainWindow;
+import gui.main.ScaleTest;
+import gui.util.EdtWatchdog;
+import service.QueryService;
 
 /**
  * Programa principal de la aplicación.
@@ -8,8 +11,28 @@ import gui.main.MainWindow;
 public class Main {
 
 	public static void main(String[] args) {
+		// con --batch se ejecuta el modo por lotes sin interfaz gráfica, antes de
+		// utilizar cualquier clase de AWT o Swing
+		if (BatchMode.isRequested(args)) {
+			System.exit(BatchMode.run(args));
+		}
+
+		// si se ha activado con -Dedt.watchdog=<ms> se vigila que el hilo de Swing
+		// no quede bloqueado más del tiempo indicado
+		EdtWatchdog.startFromProperties();
+
+		// si se ha indicado con -Dscale.test=<atletas> se ejecuta la prueba de escala,
+		// que crea la ventana principal con un conjunto de datos generado
+		if (ScaleTest.startFromProperties()) {
+			return;
+		}
+
 		// el programa únicamenente instancia la ventana principal.
-		new MainWindow();
+		MainWindow window = new MainWindow();
+
+		// si se ha indicado con -Dservice.port=<puerto> se ofrecen los datos de la
+		// ventana y la cache de descripciones a otras herramientas por HTTP
+		QueryService.startFromProperties(window.getDataset());
 	}
 
 }
@@ -4,20 +4,38 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import log.Logger;
+
 /**
  * Cache en ficheros de disco para las descripciones de disciplinas obtenidas de
  * internet.
@@ -28,13 +46,31 @@ import java.util.stream.Collectors;
 public class DescriptionCache {
 
 	// estado de la descripción
-	private enum Status {
+	enum Status {
 		MISSING, PROCESSING, CACHED, ERROR
 	}
 
+	/**
+	 * Versión devuelta para las disciplinas cuya descripción no está en la cache.
+	 */
+	public static final long NO_VERSION = 0;
+
 	// directorio de la cache con los ficheros de disciplinas
 	private static final String CACHE_DIR = "cache";
 
+	// nombre con el que se registran las métricas de la cache en JMX
+	private static final String METRICS_NAME = "prog3:type=DescriptionCache";
+
+	// número máximo de disciplinas pendientes de descarga con prioridad alta
+	private static final int MAX_PREFETCH = 32;
+
+	// tiempo en milisegundos tras un error de descarga durante el que las
+	// solicitudes de la disciplina reciben el error sin volver a descargarla
+	private static final long ERROR_RETRY_DELAY = 30_000;
+
+	// registro de mensajes de la cache
+	private static final Logger log = Logger.getLogger(DescriptionCache.class);
+
 	// instancia única de la cache
 	private static DescriptionCache instance = null;
 
@@ -44,8 +80,46 @@ public class DescriptionCache {
 	// por otro lado, el valor es un enum encapsulado en un AtomicReference
 	// para poder modificarlo de forma atómica y evitar problemas de concurrencia
 	// cuando se modifica el valor del estado de una descripción
+	// las URLs se obtienen del registro de disciplinas, que devuelve siempre la misma
+	// instancia para la misma disciplina, por lo que las búsquedas en el mapa se resuelven
+	// comparando referencias sin que URL.equals tenga que resolver el nombre del servidor
 	private Map<URL, AtomicReference<Status>> cacheMap = new ConcurrentHashMap<>();
 
+	// mapa con la ruta al fichero de cache de cada disciplina
+	private Map<URL, File> cacheFiles = new ConcurrentHashMap<>();
+
+	// versión de la descripción guardada de cada disciplina, cambia cada vez que se
+	// guarda una nueva descripción, lo que permite a quien haya construido algo a
+	// partir de la descripción saber si sigue siendo válido
+	private Map<URL, Long> versions = new ConcurrentHashMap<>();
+	private AtomicLong lastVersion = new AtomicLong(NO_VERSION); // última versión asignada
+
+	// instante (System.nanoTime) del último error de descarga de cada disciplina
+	// en estado ERROR, permite esperar un tiempo antes de volver a descargarla
+	private Map<URL, Long> errorTimes = new ConcurrentHashMap<>();
+
+	// hilos en los que se leen y descargan las descripciones solicitadas con
+	// getDescriptionAsync, son de tipo daemon para que no impidan que termine el programa
+	private ExecutorService ioExecutor = Executors.newCachedThreadPool(r -> {
+		Thread thread = new Thread(r, "Lectura de descripciones");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	// métricas de la cache, se registran en JMX al crear la cache
+	private DescriptionCacheMetrics metrics = new DescriptionCacheMetrics(this);
+
+	// cola de disciplinas a descargar con prioridad alta, el hilo de descarga
+	// las atiende antes que el resto de disciplinas pendientes
+	private BlockingDeque<URL> prefetchQueue = new LinkedBlockingDeque<>();
+
+	// cerrojo con el que el hilo de descarga espera entre descargas y con el que
+	// se le avisa de las nuevas solicitudes con prioridad alta
+	private Object prefetchLock = new Object();
+	// indica que el usuario ha solicitado alguna disciplina desde la última espera
+	// del hilo de descarga, se accede únicamente con el cerrojo prefetchLock
+	private boolean userPrefetch = false;
+
 	// referencia al hilo que se encarga de descargar las disciplinas en segundo
 	// plano
 	private Thread downloadThread = null;
@@ -55,6 +129,14 @@ public class DescriptionCache {
 	 * 
 	 */
 	private DescriptionCache() {
+		// se registran las métricas para poder consultarlas con JConsole, si no es
+		// posible la cache funciona igualmente
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(METRICS_NAME));
+		} catch (JMException e) {
+			log.warn("No se han podido registrar las métricas de la cache. {}", e.getMessage());
+		}
+
 		// se crea el directorio de cache si no existe
 		File cacheDir = new File(CACHE_DIR);
 		if (!cacheDir.exists()) {
@@ -65,12 +147,15 @@ public class DescriptionCache {
 			File[] files = cacheDir.listFiles();
 			for (File file : files) {
 				// nombre del fichero sin la extensión
-				// se añade al mapa con el estado CACHED		
+				// se añade al mapa con el estado CACHED, el registro de disciplinas
+				// se encarga de obtener la URL canónica a partir del nombre en formato slug
 				String discipline = file.getName().replace(".bin", "");
 				try {
-					cacheMap.put(WebScraper.getURL(discipline), new AtomicReference<>(Status.CACHED));
+					URL url = WebScraper.getURL(discipline);
+					cacheMap.put(url, new AtomicReference<>(Status.CACHED));
+					updateVersion(url);
 				} catch (WebScraperException e) {
-					e.printStackTrace();
+					log.error("No se ha podido obtener la URL de la disciplina {}. {}", discipline, e.getMessage());
 				}
 			}
 		}
@@ -88,6 +173,44 @@ public class DescriptionCache {
 		return instance;
 	}
 	
+	/**
+	 * Obtiene las métricas de la cache y del hilo de descarga, las mismas que se
+	 * publican por JMX.
+	 *
+	 * @return métricas de la cache
+	 */
+	public DescriptionCacheMXBean getMetrics() {
+		return metrics;
+	}
+
+	// número de disciplinas con el estado indicado
+	int countEntries(Status status) {
+		int count = 0;
+		for (AtomicReference<Status> entry : cacheMap.values()) {
+			if (entry.get() == status) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	// tamaño en bytes de los ficheros de la cache
+	long getBytesOnDisk() {
+		File[] files = new File(CACHE_DIR).listFiles();
+		long bytes = 0;
+		if (files != null) {
+			for (File file : files) {
+				bytes += file.length();
+			}
+		}
+		return bytes;
+	}
+
+	// número de disciplinas pendientes en la cola de descargas prioritarias
+	int getPrefetchQueueDepth() {
+		return prefetchQueue.size();
+	}
+
 	/**
 	 * Elimina todos los ficheros de cache de disciplinas.
 	 */
@@ -100,6 +223,20 @@ public class DescriptionCache {
 			}
 		}
 		cacheMap.clear();
+		versions.clear();
+		errorTimes.clear();
+		prefetchQueue.clear();
+	}
+
+	/**
+	 * Obtiene la versión de la descripción guardada de una disciplina. La versión
+	 * cambia cada vez que se guarda una nueva descripción de la disciplina.
+	 *
+	 * @param discipline url de la disciplina
+	 * @return versión de la descripción o NO_VERSION si no está en la cache
+	 */
+	public long getVersion(URL discipline) {
+		return versions.getOrDefault(discipline, NO_VERSION);
 	}
 
 	/**
@@ -135,12 +272,66 @@ public class DescriptionCache {
 		}
 	}
 
+	/**
+	 * Solicita que se descarguen con prioridad alta las descripciones de las
+	 * disciplinas indicadas, por ejemplo las de las medallas del atleta
+	 * seleccionado, para que estén disponibles antes de que el usuario las
+	 * consulte. El hilo de descarga atiende estas disciplinas antes que el resto
+	 * de disciplinas pendientes.
+	 *
+	 * Si la solicitud es una acción del usuario, como seleccionar un atleta, el
+	 * hilo de descarga deja de esperar y descarga las disciplinas de inmediato.
+	 * Las solicitudes especulativas, como las del paso del ratón sobre la lista,
+	 * acortan la espera entre descargas pero respetan su tiempo mínimo, para que
+	 * mover el ratón no haga peticiones seguidas al servidor.
+	 *
+	 * Las disciplinas de la última solicitud son las primeras en descargarse. Si
+	 * se acumulan más de MAX_PREFETCH disciplinas solicitadas se descartan las más
+	 * antiguas, que siguen pendientes de descargar sin prioridad.
+	 *
+	 * @param disciplines   urls de las disciplinas a descargar con prioridad alta
+	 * @param userRequested true si la solicitud es una acción del usuario
+	 */
+	public void prefetch(Collection<URL> disciplines, boolean userRequested) {
+		// se recorren las disciplinas en orden inverso insertándolas al principio de
+		// la cola, de manera que quedan en el orden indicado por delante de las demás
+		List<URL> missing = new ArrayList<>(disciplines);
+		Collections.reverse(missing);
+		boolean queued = false;
+		for (URL discipline : missing) {
+			// únicamente se solicitan las disciplinas que no están descargadas
+			AtomicReference<Status> status = cacheMap.computeIfAbsent(discipline, k -> new AtomicReference<>(Status.MISSING));
+			if (status.get() == Status.MISSING) {
+				prefetchQueue.removeFirstOccurrence(discipline);
+				prefetchQueue.offerFirst(discipline);
+				queued = true;
+			}
+		}
+
+		// se descartan las solicitudes más antiguas si la cola ha crecido demasiado
+		while (prefetchQueue.size() > MAX_PREFETCH) {
+			prefetchQueue.pollLast();
+		}
+
+		// se avisa al hilo de descarga para que revise el tiempo que le queda de espera
+		if (queued) {
+			synchronized (prefetchLock) {
+				userPrefetch |= userRequested;
+				prefetchLock.notifyAll();
+			}
+		}
+	}
+
 	/**
 	 * Obtiene la descripción de una disciplina. Si la descripción no está en la
 	 * cache se descarga de internet, si está en la cache se lee del fichero. Este
 	 * método es asíncrono y devuelve la descripción a través de un consumer, que
 	 * será notificado cuando la descripción esté disponible.
 	 * 
+	 * Los consumers se ejecutan en el hilo de la cache que ha obtenido la
+	 * descripción. Si deben actualizar la interfaz de Swing se debe utilizar el
+	 * método que recibe el Executor en el que se notifican.
+	 * 
 	 * @param discipline url de la disciplina cuya descripción se quiere obtener
 	 * @param onDescription consumer que recibe la descripción de la disciplina si ha terminado
 	 *                 la descarga correctamente.
@@ -151,96 +342,231 @@ public class DescriptionCache {
 	 */
 	public void getDescriptionAsync(URL discipline, Consumer<List<String>> onDescription,
 			Consumer<DescriptionCacheException> onError, int maxWait) {
+		getDescriptionAsync(discipline, onDescription, onError, maxWait, Runnable::run);
+	}
+
+	/**
+	 * Obtiene la descripción de una disciplina. Si la descripción no está en la
+	 * cache se descarga de internet, si está en la cache se lee del fichero. Este
+	 * método es asíncrono y devuelve la descripción a través de un consumer, que
+	 * será notificado cuando la descripción esté disponible.
+	 * 
+	 * El método nunca bloquea el hilo que lo llama: la lectura del fichero, la
+	 * descarga y la espera a que termine la descarga de otro hilo se realizan
+	 * siempre en los hilos de la cache. Los consumers se ejecutan en el Executor
+	 * indicado, por ejemplo SwingUtilities::invokeLater para actualizar
+	 * componentes de Swing desde el hilo de Swing. Se notifica siempre uno y solo
+	 * uno de los dos consumers.
+	 * 
+	 * @param discipline url de la disciplina cuya descripción se quiere obtener
+	 * @param onDescription consumer que recibe la descripción de la disciplina si ha terminado
+	 *                 la descarga correctamente.
+	 * @param onError    consumer que recibe un mensaje de error si no se puede obtener la
+	 *                  descripción
+	 * @param maxWait   tiempo máximo en milisegundos que se espera a que la descripción esté disponible
+	 * 					antes de considerar que no se ha podido obtener
+	 * @param callbackExecutor executor en el que se ejecutan los consumers
+	 */
+	public void getDescriptionAsync(URL discipline, Consumer<List<String>> onDescription,
+			Consumer<DescriptionCacheException> onError, int maxWait, Executor callbackExecutor) {
+		getVersionedDescriptionAsync(discipline, description -> onDescription.accept(description.paragraphs()),
+				onError, maxWait, callbackExecutor);
+	}
+
+	/**
+	 * Obtiene la descripción de una disciplina junto con la versión de la
+	 * descripción guardada de la que procede, de la misma manera que
+	 * getDescriptionAsync. La versión se obtiene a la vez que los párrafos, por lo
+	 * que permite asociar a la descripción datos construidos a partir de ella.
+	 * 
+	 * @param discipline url de la disciplina cuya descripción se quiere obtener
+	 * @param onDescription consumer que recibe la descripción de la disciplina y su versión si
+	 *                 ha terminado la descarga correctamente.
+	 * @param onError    consumer que recibe un mensaje de error si no se puede obtener la
+	 *                  descripción
+	 * @param maxWait   tiempo máximo en milisegundos que se espera a que la descripción esté disponible
+	 * 					antes de considerar que no se ha podido obtener
+	 * @param callbackExecutor executor en el que se ejecutan los consumers
+	 */
+	public void getVersionedDescriptionAsync(URL discipline, Consumer<VersionedDescription> onDescription,
+			Consumer<DescriptionCacheException> onError, int maxWait, Executor callbackExecutor) {
 		// se obtiene el estado de la disciplina y si no existe se añade al mapa
 		AtomicReference<Status> status = cacheMap.computeIfAbsent(discipline, k -> new AtomicReference<>(Status.MISSING));
-		
-		// se comprueba si la disciplina está en la cache
-		if (status.get() == Status.CACHED) {
+
+		// todo el trabajo se realiza en los hilos de la cache y el resultado se
+		// entrega a los consumers en el executor indicado por quien hace la llamada
+		ioExecutor.execute(() -> {
 			try {
-				System.out.println("Descripción cacheada. Leyendo de disco la descripción de la disciplina " + discipline);
-				// si está en la cache se lee de disco
-				List<String> description = deserializeDescription(discipline);
+				VersionedDescription description = lookupDescription(discipline, status, maxWait);
 				// se notifica al consumer onDescription que la descripción está disponible
-				onDescription.accept(description);
-			} catch (IOException | ClassNotFoundException | URISyntaxException e) {
+				callbackExecutor.execute(() -> onDescription.accept(description));
+			} catch (DescriptionCacheException e) {
 				// se notifica el error al consumer onError
-				onError.accept(new DescriptionCacheException("Error al obtener la descripción de la disciplina " + discipline, e));
+				callbackExecutor.execute(() -> onError.accept(e));
+			}
+		});
+	}
+
+	/**
+	 * Obtiene la descripción de una disciplina bloqueando el hilo que llama
+	 * mientras se lee del fichero, se descarga o se espera a que la descargue
+	 * otro hilo. Está pensado para hilos virtuales, en los que las esperas no
+	 * ocupan un hilo del sistema; desde el hilo de Swing se debe utilizar
+	 * getDescriptionAsync.
+	 *
+	 * @param discipline url de la disciplina cuya descripción se quiere obtener
+	 * @param maxWait    tiempo máximo en milisegundos que se espera a que la
+	 *                   descripción esté disponible antes de considerar que no se
+	 *                   ha podido obtener
+	 * @return párrafos de la descripción de la disciplina
+	 * @throws DescriptionCacheException si no se puede obtener la descripción
+	 */
+	public List<String> getDescription(URL discipline, int maxWait) throws DescriptionCacheException {
+		return getVersionedDescription(discipline, maxWait).paragraphs();
+	}
+
+	/**
+	 * Obtiene la descripción de una disciplina junto con la versión de la
+	 * descripción guardada de la que procede, de la misma manera que
+	 * getDescription.
+	 *
+	 * @param discipline url de la disciplina cuya descripción se quiere obtener
+	 * @param maxWait    tiempo máximo en milisegundos que se espera a que la
+	 *                   descripción esté disponible antes de considerar que no se
+	 *                   ha podido obtener
+	 * @return párrafos de la descripción de la disciplina y su versión
+	 * @throws DescriptionCacheException si no se puede obtener la descripción
+	 */
+	public VersionedDescription getVersionedDescription(URL discipline, int maxWait) throws DescriptionCacheException {
+		AtomicReference<Status> status = cacheMap.computeIfAbsent(discipline, k -> new AtomicReference<>(Status.MISSING));
+		return lookupDescription(discipline, status, maxWait);
+	}
+
+	// obtiene la descripción de una disciplina en el hilo actual registrando la
+	// consulta en las métricas y en un evento de JFR
+	private VersionedDescription lookupDescription(URL discipline, AtomicReference<Status> status, int maxWait)
+			throws DescriptionCacheException {
+		// se registra un evento de JFR indicando si la descripción estaba en la cache
+		DescriptionLookupEvent event = new DescriptionLookupEvent();
+		event.begin();
+		boolean hit = status.get() == Status.CACHED;
+		try {
+			VersionedDescription description = loadDescription(discipline, status, maxWait);
+			metrics.recordLookup(hit, true);
+			return description;
+		} catch (DescriptionCacheException e) {
+			metrics.recordLookup(hit, false);
+			throw e;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.url = discipline.toString();
+				event.hit = hit;
+				event.result = status.get().name();
+				event.commit();
 			}
-		} else if (status.compareAndSet(Status.MISSING, Status.PROCESSING)) {
-			// en el if anterior se utiliza compareAndSet para evitar problemas de
-			// concurrencia y que vayos hilos se pongan a descargar la descripción a la vez. 
-			// Solo uno de los hilos podrá cambiar el estado a PROCESSING y empezar a descargar la
-			// descripción, el resto de hilos verán el estado en PROCESSING y esperarán a que el
-			// hilo que está descargando la descripción termine y actualice el estado a CACHED
-			System.out.println("Descargando la descripción de la disciplina " + discipline);
-			new Thread(() -> {
+		}
+	}
+
+	// obtiene la descripción de una disciplina bloqueando el hilo actual, se lee de
+	// disco si está en la cache, se descarga si está pendiente o si el último error
+	// ocurrió hace más de ERROR_RETRY_DELAY milisegundos, y se espera como máximo
+	// maxWait milisegundos si la está descargando otro hilo
+	private VersionedDescription loadDescription(URL discipline, AtomicReference<Status> status, int maxWait)
+			throws DescriptionCacheException {
+		final int SLEEP_TIME = 100;
+
+		int totalTime = 0;
+		while (true) {
+			Status current = status.get();
+			if (current == Status.CACHED) {
+				try {
+					log.debug("Descripción cacheada. Leyendo de disco la descripción de la disciplina {}", discipline);
+					// si está en la cache se lee de disco. La versión se obtiene antes de leer
+					// el fichero, de manera que si se vuelve a descargar mientras tanto los
+					// párrafos leídos nunca quedan asociados a una versión anterior a la suya
+					long version = getVersion(discipline);
+					return new VersionedDescription(version, deserializeDescription(discipline));
+				} catch (IOException | ClassNotFoundException | URISyntaxException e) {
+					throw new DescriptionCacheException("Error al obtener la descripción de la disciplina " + discipline, e);
+				}
+			} else if (current == Status.PROCESSING) {
+				// si el estado es PROCESSING significa que otro hilo está descargando la
+				// descripción, por lo que se va a esperar a que termine comprobando periódicamente
+				// el estado de la disciplina. Si no está disponible en maxWait milisegundos
+				// se considera que no se ha podido obtener
+				if (totalTime >= maxWait) {
+					throw new DescriptionCacheException("Error al obtener la descripción de la disciplina " + discipline
+							+ ". Tiempo de espera agotado");
+				}
+				try {
+					Thread.sleep(SLEEP_TIME); // dormimos el hilo para esperar
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new DescriptionCacheException("Espera interrumpida para la disciplina " + discipline, e);
+				}
+				totalTime += SLEEP_TIME;
+			} else if (current == Status.ERROR && !canRetry(discipline)) {
+				// la última descarga ha fallado hace poco, incluida la que estaba esperando
+				// este hilo, y se devuelve el error en lugar de volver a descargarla para no
+				// repetir la descarga una vez por cada solicitud pendiente
+				throw new DescriptionCacheException("Error al descargar la descripción de la disciplina " + discipline
+						+ ". Se volverá a intentar pasados " + ERROR_RETRY_DELAY / 1000 + " segundos");
+			} else if (changeStatus(discipline, status, current, Status.PROCESSING)) {
+				// la descripción está pendiente o el error es antiguo. Se utiliza
+				// compareAndSet para evitar que varios hilos se pongan a descargar la descripción
+				// a la vez. Solo uno de los hilos podrá cambiar el estado a PROCESSING y empezar
+				// a descargar la descripción, el resto de hilos verán el estado en PROCESSING y
+				// esperarán a que el hilo que está descargando la descripción termine
+				log.info("Descargando la descripción de la disciplina {}", discipline);
 				try {
 					// obtenemos la descripción de la disciplina de internet
-					List<String> description = downloadDescription(discipline);
+					VersionedDescription description = downloadDescription(discipline);
 					// se actualiza el estado de la disciplina a CACHED
-					status.set(Status.CACHED);
-					// se notifica al consumer onDescription que la descripción está disponible
-					onDescription.accept(description);
+					changeStatus(discipline, status, Status.CACHED);
+					return description;
 				} catch (WebScraperException | IOException | URISyntaxException e) {
 					// se actualiza el estado de la disciplina a ERROR
-					status.set(Status.ERROR);
-					// se notifica el error al consumer onError
-					onError.accept(new DescriptionCacheException("Error al obtener la descripción de la disciplina " + discipline, e));
+					changeStatus(discipline, status, Status.ERROR);
+					throw new DescriptionCacheException("Error al obtener la descripción de la disciplina " + discipline, e);
 				} catch (InterruptedException e) {
-					// se ha interrumpido la descarga
-					// no se hace nada ya que el hilo no tiene ningún bucle
-					// que deba ser interrumpido
-				}
-			}).start();
-		} else if (status.get() == Status.PROCESSING) {
-			// si el estado es PROCESSING significa que el hilo de descarga en segundo plano
-			// está descargando la descripción, por lo que se va a esperar a que termine
-			// comprobando periódicamente el estado de la disciplina y se notificará al
-			// consumer cuando la descripción esté disponible. Se espera un máximo de 5 segundos
-			// a que la descripción esté disponible, si no está disponible en ese tiempo se notifica
-			// al consumer con un mensaje de error.
-			System.out.println("Esperando a que termine la descarga de la descripción de la disciplina " + discipline);
-			new Thread(() -> {
-				final int SLEEP_TIME = 100;
-
-				int totalTime = 0;
-				while (status.get() == Status.PROCESSING && totalTime < maxWait) {
-					try {
-						Thread.sleep(SLEEP_TIME); // dormimos el hilo para esperar
-					} catch (InterruptedException e) {
-						// no vamos a hacer nada ya que el hilo no va a ser interrumpido
-					}
+					// se ha interrumpido la descarga, la disciplina vuelve a quedar pendiente
+					changeStatus(discipline, status, Status.MISSING);
+					Thread.currentThread().interrupt();
+					throw new DescriptionCacheException("Descarga interrumpida de la disciplina " + discipline, e);
 				}
-
-				// si el tiempo ha llegado a MAX_WAIT o se ha producido un error durante la
-				// descarga se notifica al consumer con un mensaje de error en la descripción
-				if (totalTime >= maxWait || status.get() == Status.ERROR) {
-					// se notifica el error al consumer onError
-					onError.accept(new DescriptionCacheException("Error al obtener la descripción de la disciplina " + discipline));
-				}
-				
-				// se ha descargado la descripción correctamente, se lee de disco y se notifica al consumer 
-				try {
-					List<String> description = deserializeDescription(discipline);
-					// se notifica al consumer onDescription que la descripción está disponible
-					onDescription.accept(description);
-				} catch (ClassNotFoundException | IOException | URISyntaxException e) {
-					// se notifica el error al consumer onError
-					onError.accept(new DescriptionCacheException("Error al obtener la descripción de la disciplina " + discipline, e));
-				}
-			}).start();
+			}
+			// si otro hilo ha cambiado el estado entre la consulta y el compareAndSet
+			// se vuelve a comprobar el nuevo estado
 		}
 	}
 
-	// método que lleva a cabo la descarga de la descripción y la serialización
-	protected List<String> downloadDescription(URL discipline) throws WebScraperException, IOException, URISyntaxException, InterruptedException {
-		// obtener la descripción de la disciplina de internet
-		List<String> description = WebScraper.getDescription(discipline);
-		// serializar la descripción en un fichero
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(getCacheFile(discipline)))) {
-			oos.writeObject(description);
+	// método que lleva a cabo la descarga de la descripción y la serialización,
+	// devuelve la descripción con la versión que se le ha asignado
+	protected VersionedDescription downloadDescription(URL discipline) throws WebScraperException, IOException, URISyntaxException, InterruptedException {
+		long start = System.nanoTime();
+		List<String> description;
+		try {
+			// obtener la descripción de la disciplina de internet
+			description = WebScraper.getDescription(discipline);
+			// serializar la descripción en un fichero
+			try (FileOutputStream output = new FileOutputStream(getCacheFile(discipline))) {
+				writeDescription(description, output);
+			}
+		} catch (WebScraperException | IOException | URISyntaxException e) {
+			metrics.recordDownloadError();
+			throw e;
 		}
-		return description;
+		metrics.recordDownload(System.nanoTime() - start);
+		// la descripción guardada ha cambiado, se le asigna una nueva versión
+		return new VersionedDescription(updateVersion(discipline), description);
+	}
+
+	// asigna una nueva versión a la descripción guardada de una disciplina y la devuelve
+	private long updateVersion(URL discipline) {
+		long version = lastVersion.incrementAndGet();
+		versions.put(discipline, version);
+		return version;
 	}
 
 	/**
@@ -254,75 +580,154 @@ public class DescriptionCache {
 		
 		// se crea un nuevo hilo para la descarga
 		downloadThread = new Thread(() -> {
+			// disciplinas pendientes de descargar sin prioridad, se vuelven a
+			// obtener del mapa de estado cuando se han recorrido todas
+			Iterator<URL> pendingDisciplines = Collections.emptyIterator();
+
 			// en este caso vamos a utilizar la pregunta isInterrupted que no cambia el estado del flag
 			// tras la consulta, ya que vamos a comprobarlo varias veces en el bucle
 			while (!Thread.currentThread().isInterrupted()) {
-				// obtener todas las disciplinas sin descargar a una lista
-				// vamos a usar un stream pero se puede hacer con un bucle
-				List<URL> pendingDisciplines = cacheMap.entrySet().stream()
-						.filter(entry -> entry.getValue().get() == Status.MISSING).map(entry -> entry.getKey())
-						.collect(Collectors.toList());
-				
-				// comprobamos si hay disciplinas cuya descripción no se ha descargado todavía
-				if (pendingDisciplines.size() > 0) {	
-					System.out.println("Disciplinas pendientes de descargar: " + pendingDisciplines.size());
-					// iteramos sobre la disciplinas pendientes mientras haya disciplinas
-					// y el hilo no haya sido interrumpido
-					Iterator<URL> it = pendingDisciplines.iterator();
-					while (it.hasNext() && !Thread.currentThread().isInterrupted()) {
-						URL discipline = it.next(); // obtenemos la url de la disciplina
-	
-						// si la disciplina esta todavía en estado MISSING actualizamos el estado
-						// a PROCESSING en una operación atómica/individisible y procedemos a descargar
-						if (cacheMap.get(discipline).compareAndSet(Status.MISSING, Status.PROCESSING)) {
-							try {
-								downloadDescription(discipline); // descargamos la descripción
-								// cambiamos el estado de la disciplina a CACHED
-								cacheMap.get(discipline).set(Status.CACHED);
-							} catch (WebScraperException | IOException | URISyntaxException e) {
-								// se hay un error se actualiza el estado de la disciplina a ERROR
-								cacheMap.get(discipline).set(Status.ERROR);
-								// se muestra un mensaje por consola ya que no hay un consumer al que notificar
-								System.out.println("Error al descargar la disciplina " + discipline + ". " + e.getMessage());
-							} catch (InterruptedException e) {
-								// se ha interrumpido la descarga con una llamada a Thread.interrupt
-								// vamos a reestablecer el estado interrumpido del thread para las
-								// siguientes comprobaciones
-								Thread.currentThread().interrupt();
-							}
-						}
-	
-						if (!Thread.currentThread().isInterrupted()) {
-							// vamos a dormir un tiempo aleatorio entre 1 y 10 segundos el hilo de descarga
-							// para no saturar el servidor haciendo muchas peticiones seguidas
-							// esto solamente se hace si el hilo no debe detenerse
-							randomSleep(1000, 10000);
+				// primero se descargan las disciplinas solicitadas con prioridad alta
+				// y, si no hay ninguna, las disciplinas pendientes sin prioridad
+				URL discipline = prefetchQueue.pollFirst();
+				if (discipline == null) {
+					if (!pendingDisciplines.hasNext()) {
+						// obtener todas las disciplinas sin descargar a una lista
+						// vamos a usar un stream pero se puede hacer con un bucle
+						List<URL> pending = getPendingDisciplines();
+						if (!pending.isEmpty()) {
+							log.info("Disciplinas pendientes de descargar: {}", pending.size());
 						}
+						pendingDisciplines = pending.iterator();
 					}
+					discipline = pendingDisciplines.hasNext() ? pendingDisciplines.next() : null;
+				}
+
+				if (discipline != null && !downloadPending(discipline)) {
+					// la disciplina ya no estaba pendiente, se pasa a la siguiente sin esperar
+					continue;
 				}
-				// vamos a esperar un tiempo entre 1 y 5 segundos antes de volver a comprobar si hay
-				// descripciones pendientes de descargar
+
+				// vamos a esperar un tiempo aleatorio entre 1 y 10 segundos tras cada descarga
+				// para no saturar el servidor haciendo muchas peticiones seguidas, o entre 1 y 5
+				// segundos antes de volver a comprobar si hay descripciones pendientes
+				// la espera termina antes si se solicita con prioridad alta alguna disciplina,
+				// aunque nunca antes de 1 segundo si la solicitud no la ha hecho el usuario
+				// esto solamente se hace si el hilo no debe detenerse
 				if (!Thread.currentThread().isInterrupted()) {
-					randomSleep(1000, 5000);
+					if (discipline != null) {
+						waitForPrefetch(1000, 10000);
+					} else {
+						waitForPrefetch(1000, 5000);
+					}
 				}
 			}
 			
-			System.out.println("Hilo de descarga terminado");
+			log.info("Hilo de descarga terminado");
 		});
 		downloadThread.start();
 	}
 	
-	// método para esperar un tiempo aleatorio durmiendo el hilo
-	private void randomSleep(int min, int max) {
-		long waitTime = (long) (Math.random() * (max - min) + min);
-		System.out.format("Durmiendo el hilo de descarga durante %d ms...%n", waitTime);
+	// cambia el estado de la descripción de una disciplina si su estado actual es el
+	// esperado, devuelve false si otro hilo lo ha cambiado antes
+	private boolean changeStatus(URL discipline, AtomicReference<Status> status, Status expected, Status next) {
+		if (!status.compareAndSet(expected, next)) {
+			return false;
+		}
+		recordStatusChange(discipline, expected, next);
+		return true;
+	}
+
+	// cambia el estado de la descripción de una disciplina
+	private void changeStatus(URL discipline, AtomicReference<Status> status, Status next) {
+		// el instante del error se guarda antes de publicar el estado para que
+		// los hilos que ven el estado ERROR vean también cuándo se produjo
+		if (next == Status.ERROR) {
+			errorTimes.put(discipline, System.nanoTime());
+		} else if (next == Status.CACHED) {
+			errorTimes.remove(discipline);
+		}
+		recordStatusChange(discipline, status.getAndSet(next), next);
+	}
+
+	// indica si ha pasado suficiente tiempo desde el último error de descarga
+	// de una disciplina para volver a intentarlo
+	private boolean canRetry(URL discipline) {
+		Long errorTime = errorTimes.get(discipline);
+		return errorTime == null
+				|| System.nanoTime() - errorTime >= TimeUnit.MILLISECONDS.toNanos(ERROR_RETRY_DELAY);
+	}
+
+	// registra el cambio de estado con un evento de JFR si hay una grabación activa
+	private void recordStatusChange(URL discipline, Status previous, Status next) {
+		DescriptionStateEvent event = new DescriptionStateEvent();
+		if (event.shouldCommit()) {
+			event.url = discipline.toString();
+			event.previous = previous.name();
+			event.next = next.name();
+			event.commit();
+		}
+	}
+
+	// descarga la descripción de una disciplina si todavía está pendiente
+	// devuelve false si la disciplina ya no estaba pendiente de descarga
+	private boolean downloadPending(URL discipline) {
+		// si la disciplina esta todavía en estado MISSING actualizamos el estado
+		// a PROCESSING en una operación atómica/individisible y procedemos a descargar
+		AtomicReference<Status> status = cacheMap.get(discipline);
+		if (status == null || !changeStatus(discipline, status, Status.MISSING, Status.PROCESSING)) {
+			return false;
+		}
+
 		try {
-			Thread.sleep(waitTime);
+			downloadDescription(discipline); // descargamos la descripción
+			// cambiamos el estado de la disciplina a CACHED
+			changeStatus(discipline, status, Status.CACHED);
+		} catch (WebScraperException | IOException | URISyntaxException e) {
+			// se hay un error se actualiza el estado de la disciplina a ERROR
+			changeStatus(discipline, status, Status.ERROR);
+			// se muestra un mensaje por consola ya que no hay un consumer al que notificar
+			log.warn("Error al descargar la disciplina {}. {}", discipline, e.getMessage());
 		} catch (InterruptedException e) {
-			// vamos a reestablecer el estado interrumpido del thread para las
-			// siguientes comprobaciones
+			// se ha interrumpido la descarga con una llamada a Thread.interrupt, la disciplina
+			// vuelve a quedar pendiente y se reestablece el estado interrumpido del thread
+			// para las siguientes comprobaciones
+			changeStatus(discipline, status, Status.MISSING);
 			Thread.currentThread().interrupt();
 		}
+		return true;
+	}
+
+	// método para esperar un tiempo aleatorio en el hilo de descarga, la espera
+	// termina en cuanto el usuario solicita alguna disciplina con prioridad alta,
+	// o al pasar el tiempo mínimo si hay otras disciplinas con prioridad alta
+	private void waitForPrefetch(int min, int max) {
+		long waitTime = (long) (Math.random() * (max - min) + min);
+		log.debug("Durmiendo el hilo de descarga durante {} ms...", waitTime);
+		long start = System.nanoTime();
+		synchronized (prefetchLock) {
+			try {
+				while (true) {
+					// las solicitudes del usuario se atienden sin esperar más
+					boolean requested = userPrefetch;
+					userPrefetch = false;
+					if (requested && !prefetchQueue.isEmpty()) {
+						return;
+					}
+					// el resto de solicitudes reducen la espera a su tiempo mínimo
+					long limit = prefetchQueue.isEmpty() ? waitTime : min;
+					long remaining = limit - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+					if (remaining <= 0) {
+						return;
+					}
+					prefetchLock.wait(remaining);
+				}
+			} catch (InterruptedException e) {
+				// vamos a reestablecer el estado interrumpido del thread para las
+				// siguientes comprobaciones
+				Thread.currentThread().interrupt();
+			}
+		}
 	}
 
 	/**
@@ -338,7 +743,7 @@ public class DescriptionCache {
 				downloadThread.join();
 			} catch (InterruptedException e) {
 				// si hay un error se muestra por consola
-				System.err.println("Error al detener el hilo de descarga");
+				log.error("Error al detener el hilo de descarga");
 			}
 
 			// indicamos que el hilo de descarga ha terminado
@@ -348,23 +753,37 @@ public class DescriptionCache {
 
 	// metodo que construye la ruta al fichero de cache de una disciplina
 	// a partir de la URL de la disciplina y la ruta al directorio de cache
+	// la ruta se calcula una única vez por disciplina y se guarda en un mapa
 	private File getCacheFile(URL discipline) throws URISyntaxException {
-		// se utiliza Paths para construir la ruta del fichero
-		String[] parts = discipline.toString().split("/");
-		String lastPart = parts[parts.length - 1];
-		return Paths.get(CACHE_DIR, lastPart.concat(".bin")).toFile();
+		return cacheFiles.computeIfAbsent(discipline, url -> {
+			// se utiliza Paths para construir la ruta del fichero
+			String[] parts = url.getPath().split("/");
+			String lastPart = parts[parts.length - 1];
+			return Paths.get(CACHE_DIR, lastPart.concat(".bin")).toFile();
+		});
 	}
 
 	// método para leer la descripción de una disciplina de un fichero
 	// utilizando la serialización nativa de Java
-	@SuppressWarnings("unchecked")
 	private List<String> deserializeDescription(URL discipline) throws IOException, ClassNotFoundException, URISyntaxException {
-		// se deserializa la descripción del fichero usando un ObjectInputStream
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(getCacheFile(discipline)))) {
-			return (List<String>) ois.readObject();
+		try (FileInputStream input = new FileInputStream(getCacheFile(discipline))) {
+			return readDescription(input);
 		}
 	}
 
+	// serializa una descripción en el stream indicado
+	static void writeDescription(List<String> description, OutputStream output) throws IOException {
+		ObjectOutputStream oos = new ObjectOutputStream(output);
+		oos.writeObject(description);
+		oos.flush();
+	}
+
+	// deserializa una descripción del stream indicado usando un ObjectInputStream
+	@SuppressWarnings("unchecked")
+	static List<String> readDescription(InputStream input) throws IOException, ClassNotFoundException {
+		return (List<String>) new ObjectInputStream(input).readObject();
+	}
+
 	// programa principal de prueba del hilo de descarga
 	public static void main(String[] args) {
 		// obtenemos la instancia de la cache que es única al ser singleton
@@ -0,0 +1,102 @@
+package net;
+
+/**
+ * Interfaz de gestión (JMX) con las métricas de la cache de descripciones y
+ * del hilo de descarga. La cache la registra con el nombre
+ * prog3:type=DescriptionCache, por lo que se puede consultar con JConsole o
+ * cualquier otro cliente JMX mientras el programa está en ejecución.
+ *
+ * Las latencias se expresan en milisegundos.
+ */
+public interface DescriptionCacheMXBean {
+
+	/**
+	 * @return número de solicitudes de descripciones que estaban en la cache
+	 */
+	long getHits();
+
+	/**
+	 * @return número de solicitudes de descripciones que no estaban en la cache
+	 */
+	long getMisses();
+
+	/**
+	 * @return proporción de solicitudes que estaban en la cache, entre 0 y 1
+	 */
+	double getHitRatio();
+
+	/**
+	 * @return número de solicitudes que han terminado con error o tiempo agotado
+	 */
+	long getLookupErrors();
+
+	/**
+	 * @return número de disciplinas pendientes de descargar
+	 */
+	int getMissingEntries();
+
+	/**
+	 * @return número de disciplinas que se están descargando
+	 */
+	int getProcessingEntries();
+
+	/**
+	 * @return número de disciplinas con la descripción guardada
+	 */
+	int getCachedEntries();
+
+	/**
+	 * @return número de disciplinas cuya descarga ha fallado
+	 */
+	int getErrorEntries();
+
+	/**
+	 * @return tamaño en bytes de los ficheros de la cache
+	 */
+	long getBytesOnDisk();
+
+	/**
+	 * @return número de disciplinas solicitadas con prioridad alta pendientes
+	 */
+	int getPrefetchQueueDepth();
+
+	/**
+	 * @return número de descargas realizadas correctamente
+	 */
+	long getDownloads();
+
+	/**
+	 * @return número de descargas fallidas
+	 */
+	long getDownloadErrors();
+
+	/**
+	 * @return latencia media de las descargas
+	 */
+	double getDownloadLatencyMean();
+
+	/**
+	 * @return mediana de la latencia de las descargas
+	 */
+	double getDownloadLatencyP50();
+
+	/**
+	 * @return percentil 90 de la latencia de las descargas
+	 */
+	double getDownloadLatencyP90();
+
+	/**
+	 * @return percentil 99 de la latencia de las descargas
+	 */
+	double getDownloadLatencyP99();
+
+	/**
+	 * @return mayor latencia de las descargas
+	 */
+	double getDownloadLatencyMax();
+
+	/**
+	 * Pone a cero los contadores y el histograma de latencias.
+	 */
+	void resetStatistics();
+}
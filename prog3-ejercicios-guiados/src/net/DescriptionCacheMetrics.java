@@ -0,0 +1,146 @@
+package net;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import net.DescriptionCache.Status;
+
+/**
+ * Métricas de la cache de descripciones expuestas por JMX. Los contadores son
+ * LongAdder, de manera que los hilos de la cache los incrementan sin bloqueos
+ * ni contención, y las latencias de las descargas se guardan en un histograma.
+ * El número de disciplinas en cada estado, el tamaño en disco y la cola de
+ * descargas prioritarias se consultan a la cache en el momento de leerlos.
+ */
+public class DescriptionCacheMetrics implements DescriptionCacheMXBean {
+
+	private DescriptionCache cache; // cache de la que se obtiene el estado actual
+
+	private LongAdder hits = new LongAdder();
+	private LongAdder misses = new LongAdder();
+	private LongAdder lookupErrors = new LongAdder();
+	private LongAdder downloadErrors = new LongAdder();
+	private LatencyHistogram downloadLatency = new LatencyHistogram();
+
+	// solo la cache crea sus métricas
+	DescriptionCacheMetrics(DescriptionCache cache) {
+		this.cache = cache;
+	}
+
+	// registra una solicitud de una descripción
+	void recordLookup(boolean hit, boolean success) {
+		if (hit) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		if (!success) {
+			lookupErrors.increment();
+		}
+	}
+
+	// registra una descarga correcta con su latencia
+	void recordDownload(long nanos) {
+		downloadLatency.record(nanos);
+	}
+
+	// registra una descarga fallida
+	void recordDownloadError() {
+		downloadErrors.increment();
+	}
+
+	@Override
+	public long getHits() {
+		return hits.sum();
+	}
+
+	@Override
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	@Override
+	public double getHitRatio() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	@Override
+	public long getLookupErrors() {
+		return lookupErrors.sum();
+	}
+
+	@Override
+	public int getMissingEntries() {
+		return cache.countEntries(Status.MISSING);
+	}
+
+	@Override
+	public int getProcessingEntries() {
+		return cache.countEntries(Status.PROCESSING);
+	}
+
+	@Override
+	public int getCachedEntries() {
+		return cache.countEntries(Status.CACHED);
+	}
+
+	@Override
+	public int getErrorEntries() {
+		return cache.countEntries(Status.ERROR);
+	}
+
+	@Override
+	public long getBytesOnDisk() {
+		return cache.getBytesOnDisk();
+	}
+
+	@Override
+	public int getPrefetchQueueDepth() {
+		return cache.getPrefetchQueueDepth();
+	}
+
+	@Override
+	public long getDownloads() {
+		return downloadLatency.getCount();
+	}
+
+	@Override
+	public long getDownloadErrors() {
+		return downloadErrors.sum();
+	}
+
+	@Override
+	public double getDownloadLatencyMean() {
+		return downloadLatency.getMeanMillis();
+	}
+
+	@Override
+	public double getDownloadLatencyP50() {
+		return downloadLatency.getPercentileMillis(50);
+	}
+
+	@Override
+	public double getDownloadLatencyP90() {
+		return downloadLatency.getPercentileMillis(90);
+	}
+
+	@Override
+	public double getDownloadLatencyP99() {
+		return downloadLatency.getPercentileMillis(99);
+	}
+
+	@Override
+	public double getDownloadLatencyMax() {
+		return downloadLatency.getMaxMillis();
+	}
+
+	@Override
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		lookupErrors.reset();
+		downloadErrors.reset();
+		downloadLatency.reset();
+	}
+}
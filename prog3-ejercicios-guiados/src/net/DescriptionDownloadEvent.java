@@ -0,0 +1,38 @@
+package net;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de Java Flight Recorder que registra cada descarga de la descripción
+ * de una disciplina: la URL, el código de estado HTTP, el tamaño de la
+ * respuesta, el número de párrafos obtenidos y el tiempo dedicado a analizar
+ * el HTML. La duración del evento es la de toda la descarga.
+ */
+@Name("prog3.DescriptionDownload")
+@Label("Descarga de descripción")
+@Category({ "Prog3", "Descripciones" })
+@Description("Descarga y análisis de la página web con la descripción de una disciplina")
+class DescriptionDownloadEvent extends jdk.jfr.Event {
+
+	@Label("URL")
+	String url;
+
+	@Label("Estado HTTP")
+	int status;
+
+	@Label("Tamaño de la respuesta")
+	@DataAmount(DataAmount.BYTES)
+	long bytes;
+
+	@Label("Párrafos")
+	int paragraphs;
+
+	@Label("Tiempo de análisis")
+	@Timespan(Timespan.NANOSECONDS)
+	long parseTime;
+}
@@ -0,0 +1,31 @@
+package net;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Java Flight Recorder que registra cada solicitud de la descripción
+ * de una disciplina a la cache, indicando si la descripción estaba guardada
+ * (acierto), si se ha tenido que descargar o esperar a la descarga de otro
+ * hilo (fallo) y si se ha podido obtener. La duración del evento es el tiempo
+ * hasta obtener la descripción o el error.
+ */
+@Name("prog3.DescriptionLookup")
+@Label("Consulta de descripción")
+@Category({ "Prog3", "Descripciones" })
+@Description("Solicitud de la descripción de una disciplina a la cache de descripciones")
+class DescriptionLookupEvent extends jdk.jfr.Event {
+
+	@Label("URL")
+	String url;
+
+	@Label("Acierto")
+	@Description("La descripción estaba guardada en la cache al solicitarla")
+	boolean hit;
+
+	@Label("Resultado")
+	@Description("Último estado de la descripción: CACHED si se ha obtenido, ERROR, PROCESSING si se ha agotado la espera o MISSING si se ha interrumpido")
+	String result;
+}
@@ -0,0 +1,28 @@
+package net;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento instantáneo de Java Flight Recorder que registra cada cambio de estado
+ * de la descripción de una disciplina en la cache de descripciones.
+ */
+@Name("prog3.DescriptionState")
+@Label("Cambio de estado de descripción")
+@Category({ "Prog3", "Descripciones" })
+@Description("Cambio de estado de la descripción de una disciplina en la cache")
+@StackTrace(false)
+class DescriptionStateEvent extends jdk.jfr.Event {
+
+	@Label("URL")
+	String url;
+
+	@Label("Estado anterior")
+	String previous;
+
+	@Label("Estado nuevo")
+	String next;
+}
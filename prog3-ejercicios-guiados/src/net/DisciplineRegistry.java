@@ -0,0 +1,122 @@
+package net;
+
+import java.net.URL;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de disciplinas que convierte los nombres de las disciplinas a una
+ * forma canónica antes de obtener la URL de su página web. De esta manera
+ * variantes del mismo nombre como "Cycling road", "Cycling Road ", "cycling-road"
+ * o "Cýcling road" se corresponden con la misma URL.
+ *
+ * El registro cachea las URLs ya construidas y devuelve siempre la misma
+ * instancia de URL para la misma disciplina, por lo que la cache de
+ * descripciones nunca descarga ni almacena dos veces la misma página.
+ *
+ * La clase implementa el patrón singleton.
+ */
+public class DisciplineRegistry {
+
+	// tabla de alias que relaciona nombres alternativos (ya canonicalizados)
+	// con el nombre canónico de la disciplina utilizado en la página web
+	private static final Map<String, String> ALIASES = Map.ofEntries(
+		Map.entry("road cycling", "cycling road"),
+		Map.entry("track cycling", "cycling track"),
+		Map.entry("mountain biking", "mountain bike"),
+		Map.entry("bmx racing", "cycling bmx racing"),
+		Map.entry("bmx freestyle", "cycling bmx freestyle"),
+		Map.entry("track and field", "athletics"),
+		Map.entry("soccer", "football"),
+		Map.entry("field hockey", "hockey"),
+		Map.entry("ping pong", "table tennis"),
+		Map.entry("beach volley", "beach volleyball"),
+		Map.entry("open water swimming", "marathon swimming"),
+		Map.entry("synchronized swimming", "artistic swimming"),
+		Map.entry("tae kwon do", "taekwondo")
+	);
+
+	// expresiones regulares precompiladas para no compilarlas en cada llamada
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARATORS = Pattern.compile("[\\s\\p{Z}_-]+");
+
+	// instancia única del registro
+	// se crea al cargar la clase para que sea segura con varios hilos
+	private static final DisciplineRegistry instance = new DisciplineRegistry();
+
+	// mapa que relaciona el nombre de la disciplina tal y como se recibe con
+	// su URL, así las llamadas repetidas con el mismo texto no vuelven a
+	// normalizar el nombre ni a construir la URL
+	private Map<String, URL> urlsByName = new ConcurrentHashMap<>();
+
+	// mapa que relaciona el nombre canónico de una disciplina con su URL
+	// todas las variantes de un nombre comparten la misma instancia de URL
+	private Map<String, URL> urlsByCanonicalName = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor privado para evitar instanciaciones directas.
+	 */
+	private DisciplineRegistry() {
+	}
+
+	/**
+	 * Devuelve la instancia única del registro.
+	 *
+	 * @return instancia del registro
+	 */
+	public static DisciplineRegistry getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Obtiene la URL de la página de la disciplina a partir de su nombre. El
+	 * nombre se canonicaliza antes de construir la URL, por lo que todas las
+	 * variantes de un mismo nombre devuelven la misma instancia de URL.
+	 *
+	 * @param discipline nombre de la disciplina
+	 * @return URL de la página de la disciplina
+	 * @throws WebScraperException si existe algún problema al crear la URL
+	 */
+	public URL getURL(String discipline) throws WebScraperException {
+		// camino rápido: el nombre ya se ha utilizado anteriormente
+		URL url = urlsByName.get(discipline);
+		if (url != null) {
+			return url;
+		}
+
+		String canonicalName = canonicalize(discipline);
+		url = urlsByCanonicalName.get(canonicalName);
+		if (url == null) {
+			// se construye la URL una única vez por nombre canónico, si otro hilo
+			// se ha adelantado se utiliza la instancia que ha guardado ese hilo
+			URL newURL = WebScraper.createURL(canonicalName);
+			url = urlsByCanonicalName.putIfAbsent(canonicalName, newURL);
+			if (url == null) {
+				url = newURL;
+			}
+		}
+
+		urlsByName.putIfAbsent(discipline, url);
+		return url;
+	}
+
+	/**
+	 * Obtiene la forma canónica del nombre de una disciplina: se normaliza el
+	 * texto Unicode, se eliminan los acentos, se pasa a minúsculas, se unifican
+	 * los separadores en un único espacio y se aplica la tabla de alias.
+	 *
+	 * @param discipline nombre de la disciplina
+	 * @return nombre canónico de la disciplina
+	 */
+	public static String canonicalize(String discipline) {
+		// la normalización NFKD separa las letras de sus acentos, que después se eliminan
+		String normalized = Normalizer.normalize(discipline, Normalizer.Form.NFKD);
+		normalized = DIACRITICS.matcher(normalized).replaceAll("");
+		normalized = normalized.toLowerCase(Locale.ROOT);
+		normalized = SEPARATORS.matcher(normalized).replaceAll(" ").strip();
+		return ALIASES.getOrDefault(normalized, normalized);
+	}
+}
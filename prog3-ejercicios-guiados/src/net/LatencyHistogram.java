@@ -0,0 +1,141 @@
+package net;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con precisión relativa constante, al estilo de
+ * HdrHistogram, que se puede actualizar desde varios hilos sin bloqueos.
+ *
+ * Las latencias se guardan en microsegundos en grupos: los valores menores que
+ * SUB_BUCKETS se guardan exactos y, a partir de ahí, cada potencia de dos se
+ * divide en SUB_BUCKETS partes iguales, de manera que el error de cualquier
+ * valor es menor que 1/SUB_BUCKETS (un 3 %) tanto para latencias de
+ * microsegundos como de minutos. Registrar una latencia es un único incremento
+ * atómico en un array, y los percentiles se calculan recorriendo el array.
+ */
+public class LatencyHistogram {
+
+	// bits y número de partes en que se divide cada potencia de dos
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	// latencia máxima que se distingue, las mayores se cuentan en el último grupo
+	private static final long MAX_MICROS = TimeUnit.HOURS.toMicros(1);
+
+	// número de grupos necesarios para representar hasta MAX_MICROS
+	private static final int BUCKETS = bucketIndex(MAX_MICROS) + 1;
+
+	private AtomicLongArray counts = new AtomicLongArray(BUCKETS); // número de valores de cada grupo
+	private LongAdder totalCount = new LongAdder(); // número total de valores registrados
+	private LongAdder totalMicros = new LongAdder(); // suma de los valores registrados
+	private LongAccumulator maxMicros = new LongAccumulator(Math::max, 0); // mayor valor registrado
+
+	/**
+	 * Registra una latencia.
+	 *
+	 * @param nanos latencia en nanosegundos
+	 */
+	public void record(long nanos) {
+		long micros = Math.min(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)), MAX_MICROS);
+		counts.incrementAndGet(bucketIndex(micros));
+		totalCount.increment();
+		totalMicros.add(micros);
+		maxMicros.accumulate(micros);
+	}
+
+	/**
+	 * Obtiene el número de latencias registradas.
+	 *
+	 * @return número de latencias
+	 */
+	public long getCount() {
+		return totalCount.sum();
+	}
+
+	/**
+	 * Obtiene la latencia media en milisegundos.
+	 *
+	 * @return latencia media o 0 si no hay latencias registradas
+	 */
+	public double getMeanMillis() {
+		long count = totalCount.sum();
+		return count == 0 ? 0 : totalMicros.sum() / 1000.0 / count;
+	}
+
+	/**
+	 * Obtiene la mayor latencia registrada en milisegundos.
+	 *
+	 * @return mayor latencia
+	 */
+	public double getMaxMillis() {
+		return maxMicros.get() / 1000.0;
+	}
+
+	/**
+	 * Obtiene el percentil indicado de las latencias registradas en milisegundos.
+	 * Si se registran latencias a la vez el resultado es aproximado.
+	 *
+	 * @param percentile percentil entre 0 y 100
+	 * @return latencia del percentil o 0 si no hay latencias registradas
+	 */
+	public double getPercentileMillis(double percentile) {
+		// se copian los contadores para que el total sea coherente con los grupos
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+
+		// se busca el grupo en el que se alcanza el número de valores del percentil
+		long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+		long accumulated = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			accumulated += snapshot[i];
+			if (accumulated >= target) {
+				// no se devuelve un valor mayor que el máximo registrado
+				return Math.min(bucketValue(i), maxMicros.get()) / 1000.0;
+			}
+		}
+		return getMaxMillis();
+	}
+
+	/**
+	 * Elimina todas las latencias registradas.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		totalCount.reset();
+		totalMicros.reset();
+		maxMicros.reset();
+	}
+
+	// obtiene el grupo de un valor: los valores pequeños tienen un grupo propio y el
+	// resto se agrupan por su potencia de dos y por los siguientes SUB_BUCKET_BITS bits
+	private static int bucketIndex(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+		int subBucket = (int) (micros >>> shift) - SUB_BUCKETS;
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	// obtiene el valor representativo (el centro) de los valores de un grupo
+	private static long bucketValue(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lowest + ((1L << shift) >> 1);
+	}
+}
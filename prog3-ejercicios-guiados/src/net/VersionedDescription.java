@@ -0,0 +1,18 @@
+package net;
+
+import java.util.List;
+
+/**
+ * Descripción de una disciplina obtenida de la cache junto con la versión de
+ * la descripción guardada de la que procede.
+ *
+ * La versión se obtiene a la vez que los párrafos, de manera que si la
+ * descripción se vuelve a descargar después no se asocia la versión nueva a
+ * los párrafos antiguos.
+ *
+ * @param version    versión de la descripción o DescriptionCache.NO_VERSION
+ *                   si no se conoce
+ * @param paragraphs párrafos de la descripción
+ */
+public record VersionedDescription(long version, List<String> paragraphs) {
+}
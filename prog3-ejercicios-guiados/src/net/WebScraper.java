@@ -1,6 +1,8 @@
 package net;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -18,6 +20,8 @@ import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
+import log.Logger;
+
 /**
  * Proporciona métodos de utilidad para descargar la descripción de una
  * disciplina de los Juegos Olimpicos la página web
@@ -25,26 +29,53 @@ import org.jsoup.select.Elements;
  */
 public class WebScraper {
 
-	// URL base de la página web de los Juegos Olimpicos
-	private static String WEB_URL = "https://olympics.com/en/paris-2024/sports";
+	// registro de mensajes de las descargas
+	private static final Logger log = Logger.getLogger(WebScraper.class);
+
+	/**
+	 * Propiedad del sistema con la que se puede cambiar la URL base de las
+	 * páginas de las disciplinas, por ejemplo para utilizar un servidor local en
+	 * las pruebas: -Dolympics.url=http://localhost:8080/sports
+	 */
+	public static final String BASE_URL_PROPERTY = "olympics.url";
+
+	// URL base de la página web de los Juegos Olimpicos, se lee una única vez ya que
+	// el registro de disciplinas guarda las URLs construidas a partir de ella
+	private static final String WEB_URL = stripTrailingSlash(
+			System.getProperty(BASE_URL_PROPERTY, "https://olympics.com/en/paris-2024/sports"));
+
+	// cliente HTTP compartido por todas las descargas, es seguro utilizarlo desde
+	// varios hilos y reutiliza las conexiones con el servidor
+	private static final HttpClient client = HttpClient.newBuilder().version(Version.HTTP_1_1).build();
 
 	/**
 	 * Obtiene la URL completa de la página de la disciplina a partir del nombre.
-	 * El nombre debe estar en formato slug.
+	 * El nombre se canonicaliza utilizando el registro de disciplinas, por lo que
+	 * las distintas variantes de un mismo nombre obtienen la misma URL.
 	 * 
-	 * @param page nombre de la disciplina en formato slug
-	 * @return devuelve la lista de párrafos que contienen la descripción de la
-	 *         disciplina.
+	 * @param discipline nombre de la disciplina
+	 * @return devuelve la URL de la página de la disciplina
 	 * @throws WebScraperException si existe algún problema al crear la URL 
 	 */
 	public static URL getURL(String discipline) throws WebScraperException {
+		return DisciplineRegistry.getInstance().getURL(discipline);
+	}
+
+	// construye la URL de la página de una disciplina a partir de su nombre canónico
+	// este método solamente debe ser llamado por el registro de disciplinas
+	static URL createURL(String canonicalName) throws WebScraperException {
 		try {
-			return new URI(String.format("%s/%s", WEB_URL, slugify(discipline))).toURL();
+			return new URI(String.format("%s/%s", WEB_URL, slugify(canonicalName))).toURL();
 		} catch (MalformedURLException | URISyntaxException e) {
 			throw new WebScraperException(e);
 		}
 	}
 
+	// elimina la barra final de la URL base si la tiene
+	private static String stripTrailingSlash(String url) {
+		return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+	}
+
 	// obtiene la versión slug del string pasado
 	private static String slugify(String s) {
 		return String.join("-", s.toLowerCase().split(" "));
@@ -62,37 +93,79 @@ public class WebScraper {
 	 * 			con una llamada el método Thread.interrupt
 	 */
 	public static List<String> getDescription(URL discipline) throws WebScraperException, InterruptedException {
-		// creamos el cliente HTTP para hacer la petición a la web
-		HttpClient client = HttpClient.newBuilder().version(Version.HTTP_1_1).build();
+		// se registra un evento de JFR con los datos de la descarga
+		DescriptionDownloadEvent event = new DescriptionDownloadEvent();
+		event.begin();
 
-		System.out.println("Descargando la descripción desde " + discipline);
+		log.info("Descargando la descripción desde {}", discipline);
 		try {
 			HttpRequest request = HttpRequest.newBuilder(discipline.toURI()).build();
 
 			// el método send se bloquea hasta que se recibe la respuesta, sin embargo,
 			// puede ser interrumpido con Thread.interrupt, lo que produce el lanzamiento
 			// de la excepción InterruptedException
-			HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
-			String html = response.body().toString();
+			// la respuesta se recibe como bytes para conocer su tamaño, Jsoup obtiene
+			// la codificación del propio HTML (UTF-8 si no se indica)
+			HttpResponse<byte[]> response = client.send(request, BodyHandlers.ofByteArray());
+			byte[] html = response.body();
 
-			// extraemos del HTML la etiqueta <div class="main"> y dentro de esta
-			// las etiquetas <p> que contienen los párrafos con la descripción del deporte
-			List<String> paragraphList = new ArrayList<>();
+			// si el servidor no devuelve la página no se analiza la respuesta, que
+			// sería una página de error sin la descripción
+			if (response.statusCode() != 200) {
+				event.url = discipline.toString();
+				event.status = response.statusCode();
+				event.bytes = html.length;
+				event.commit();
+				throw new WebScraperException("Respuesta HTTP " + response.statusCode() + " al descargar " + discipline);
+			}
+			long parseStart = System.nanoTime();
 
-			Document document = Jsoup.parse(html);
-			Elements paragraphs = document.select("div.main p");
-			for (Element p : paragraphs) {
-				paragraphList.add(p.text());
+			List<String> paragraphList = parseDescription(new ByteArrayInputStream(html), discipline.toString());
+
+			event.end();
+			if (event.shouldCommit()) {
+				event.url = discipline.toString();
+				event.status = response.statusCode();
+				event.bytes = html.length;
+				event.paragraphs = paragraphList.size();
+				event.parseTime = System.nanoTime() - parseStart;
+				event.commit();
 			}
 
 			return paragraphList;
 		} catch (URISyntaxException e) {
 			throw new WebScraperException("URL incorrecta: " + discipline, e);
 		} catch (IOException e) {
+			// las descargas fallidas también se registran, sin estado HTTP ni tamaño
+			event.url = discipline.toString();
+			event.commit();
 			throw new WebScraperException("Error al hacer la petición HTTP", e);
 		}
 	}
 
+	/**
+	 * Extrae los párrafos de la descripción de una disciplina del HTML de su
+	 * página web.
+	 *
+	 * @param html    contenido de la página, Jsoup obtiene la codificación del
+	 *                propio HTML (UTF-8 si no se indica)
+	 * @param baseUri URL de la página, utilizada para resolver los enlaces
+	 * @return lista de párrafos de la descripción
+	 * @throws IOException si no se puede leer el contenido de la página
+	 */
+	public static List<String> parseDescription(InputStream html, String baseUri) throws IOException {
+		// extraemos del HTML la etiqueta <div class="main"> y dentro de esta
+		// las etiquetas <p> que contienen los párrafos con la descripción del deporte
+		List<String> paragraphList = new ArrayList<>();
+
+		Document document = Jsoup.parse(html, null, baseUri);
+		Elements paragraphs = document.select("div.main p");
+		for (Element p : paragraphs) {
+			paragraphList.add(p.text());
+		}
+		return paragraphList;
+	}
+
 	// programa principal para pruebas
 	public static void main(String[] args) throws WebScraperException, InterruptedException {
 		System.out.println(getDescription(WebScraper.getURL("Judo")));
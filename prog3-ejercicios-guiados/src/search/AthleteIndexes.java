@@ -0,0 +1,224 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import domain.Athlete;
+import domain.Athlete.Genre;
+import domain.DatasetSnapshot;
+
+/**
+ * Índices sobre los atletas de una versión de los datos que permiten obtener
+ * directamente los atletas de un país, de un género, nacidos en un rango de
+ * años o con un número de medallas en un rango.
+ *
+ * Los índices guardan la posición de cada atleta en la lista de atletas de la
+ * versión, de manera que los resultados se devuelven siempre en el orden de
+ * esa lista. Como las versiones de los datos son inmutables, los índices se
+ * construyen una única vez por versión.
+ */
+public class AthleteIndexes {
+
+	private DatasetSnapshot snapshot; // versión de los datos indexada
+	private List<Athlete> athletes; // atletas de la versión indexada
+
+	// posiciones de los atletas de cada país (nombre normalizado) y de cada género
+	private Map<String, IntList> countryIndex = new HashMap<>();
+	private Map<Genre, IntList> genreIndex = new HashMap<>();
+
+	// años de nacimiento ordenados de menor a mayor y posición del atleta correspondiente
+	private int[] birthYears;
+	private int[] birthYearPositions;
+
+	// número de medallas ordenado de menor a mayor y posición del atleta correspondiente
+	private int[] medalCounts;
+	private int[] medalCountPositions;
+
+	// constructor privado, los índices se crean con el método of
+	private AthleteIndexes(DatasetSnapshot snapshot) {
+		this.snapshot = snapshot;
+		this.athletes = snapshot.getAthletes();
+
+		long[] birthKeys = new long[athletes.size()];
+		long[] medalKeys = new long[athletes.size()];
+		for (int i = 0; i < athletes.size(); i++) {
+			Athlete athlete = athletes.get(i);
+			countryIndex.computeIfAbsent(TextNormalizer.normalize(athlete.getCountry()), k -> new IntList()).add(i);
+			genreIndex.computeIfAbsent(athlete.getGenre(), k -> new IntList()).add(i);
+
+			// se codifica el valor y la posición en un long para ordenar ambos a la vez
+			birthKeys[i] = ((long) athlete.getBirthdate().getYear() << 32) | i;
+			medalKeys[i] = ((long) snapshot.getMedals(athlete.getCode()).size() << 32) | i;
+		}
+
+		Arrays.sort(birthKeys);
+		Arrays.sort(medalKeys);
+		birthYears = new int[athletes.size()];
+		birthYearPositions = new int[athletes.size()];
+		medalCounts = new int[athletes.size()];
+		medalCountPositions = new int[athletes.size()];
+		for (int i = 0; i < athletes.size(); i++) {
+			birthYears[i] = (int) (birthKeys[i] >> 32);
+			birthYearPositions[i] = (int) birthKeys[i];
+			medalCounts[i] = (int) (medalKeys[i] >> 32);
+			medalCountPositions[i] = (int) medalKeys[i];
+		}
+	}
+
+	/**
+	 * Construye los índices de una versión de los datos.
+	 *
+	 * @param snapshot versión de los datos
+	 * @return índices de la versión
+	 */
+	public static AthleteIndexes of(DatasetSnapshot snapshot) {
+		return new AthleteIndexes(snapshot);
+	}
+
+	/**
+	 * Obtiene la versión de los datos indexada.
+	 *
+	 * @return versión de los datos
+	 */
+	public DatasetSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Obtiene el número de atletas de un país.
+	 *
+	 * @param normalizedCountry nombre del país normalizado
+	 * @return número de atletas
+	 */
+	public int countCountry(String normalizedCountry) {
+		IntList positions = countryIndex.get(normalizedCountry);
+		return positions == null ? 0 : positions.size();
+	}
+
+	/**
+	 * Obtiene los atletas de un país.
+	 *
+	 * @param normalizedCountry nombre del país normalizado
+	 * @return atletas del país
+	 */
+	public List<Athlete> getByCountry(String normalizedCountry) {
+		return toAthletes(countryIndex.get(normalizedCountry));
+	}
+
+	/**
+	 * Obtiene el número de atletas de un género.
+	 *
+	 * @param genre género
+	 * @return número de atletas
+	 */
+	public int countGenre(Genre genre) {
+		IntList positions = genreIndex.get(genre);
+		return positions == null ? 0 : positions.size();
+	}
+
+	/**
+	 * Obtiene los atletas de un género.
+	 *
+	 * @param genre género
+	 * @return atletas del género
+	 */
+	public List<Athlete> getByGenre(Genre genre) {
+		return toAthletes(genreIndex.get(genre));
+	}
+
+	/**
+	 * Obtiene el número de atletas nacidos entre los años indicados (ambos incluidos).
+	 *
+	 * @param fromYear año inicial
+	 * @param toYear   año final
+	 * @return número de atletas
+	 */
+	public int countBirthYears(int fromYear, int toYear) {
+		return Math.max(0, upperBound(birthYears, toYear) - lowerBound(birthYears, fromYear));
+	}
+
+	/**
+	 * Obtiene los atletas nacidos entre los años indicados (ambos incluidos).
+	 *
+	 * @param fromYear año inicial
+	 * @param toYear   año final
+	 * @return atletas nacidos en el rango
+	 */
+	public List<Athlete> getByBirthYears(int fromYear, int toYear) {
+		return toAthletes(birthYearPositions, lowerBound(birthYears, fromYear), upperBound(birthYears, toYear));
+	}
+
+	/**
+	 * Obtiene el número de atletas con un número de medallas entre los valores
+	 * indicados (ambos incluidos).
+	 *
+	 * @param min número mínimo de medallas
+	 * @param max número máximo de medallas
+	 * @return número de atletas
+	 */
+	public int countMedals(int min, int max) {
+		return Math.max(0, upperBound(medalCounts, max) - lowerBound(medalCounts, min));
+	}
+
+	/**
+	 * Obtiene los atletas con un número de medallas entre los valores indicados
+	 * (ambos incluidos).
+	 *
+	 * @param min número mínimo de medallas
+	 * @param max número máximo de medallas
+	 * @return atletas con ese número de medallas
+	 */
+	public List<Athlete> getByMedals(int min, int max) {
+		return toAthletes(medalCountPositions, lowerBound(medalCounts, min), upperBound(medalCounts, max));
+	}
+
+	// obtiene los atletas de las posiciones indicadas, que ya están ordenadas
+	private List<Athlete> toAthletes(IntList positions) {
+		if (positions == null) {
+			return List.of();
+		}
+		List<Athlete> result = new ArrayList<>(positions.size());
+		for (int i = 0; i < positions.size(); i++) {
+			result.add(athletes.get(positions.get(i)));
+		}
+		return result;
+	}
+
+	// obtiene los atletas de un tramo de un array de posiciones ordenado por valor
+	// las posiciones se ordenan para devolver los atletas en el orden de los datos
+	private List<Athlete> toAthletes(int[] positions, int from, int to) {
+		if (from >= to) {
+			return List.of();
+		}
+		int[] range = Arrays.copyOfRange(positions, from, to);
+		Arrays.sort(range);
+		List<Athlete> result = new ArrayList<>(range.length);
+		for (int position : range) {
+			result.add(athletes.get(position));
+		}
+		return result;
+	}
+
+	// primera posición del array ordenado con un valor mayor o igual que el indicado
+	private static int lowerBound(int[] values, int value) {
+		int low = 0;
+		int high = values.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (values[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	// primera posición del array ordenado con un valor mayor que el indicado
+	private static int upperBound(int[] values, int value) {
+		return value == Integer.MAX_VALUE ? values.length : lowerBound(values, value + 1);
+	}
+}
@@ -0,0 +1,432 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import domain.Athlete;
+import domain.Athlete.Genre;
+import domain.DatasetSnapshot;
+
+/**
+ * Consulta estructurada sobre los atletas compilada a un plan de ejecución.
+ *
+ * Una consulta está formada por condiciones separadas por espacios que deben
+ * cumplirse todas, por ejemplo:
+ *
+ * <pre>
+ * country:"Country 1" genre:female born:1990..1995 medals&gt;=2
+ * </pre>
+ *
+ * Los campos admitidos (en inglés o en castellano) son:
+ * <ul>
+ * <li>country / pais: país del atleta</li>
+ * <li>genre / genero: género del atleta (male, female, hombre, mujer)</li>
+ * <li>born / nacimiento: año de nacimiento (1990, 1990..1995, &gt;=1990...)</li>
+ * <li>medals / medallas: número de medallas (2, 1..3, &gt;=2...)</li>
+ * <li>name / nombre: texto contenido en el nombre</li>
+ * </ul>
+ * Un término sin campo se busca en el nombre. Los valores con espacios se
+ * escriben entre comillas.
+ *
+ * Al ejecutar la consulta se calcula con los índices cuántos atletas cumple
+ * cada condición, se obtienen los candidatos de la condición más selectiva y
+ * el resto de condiciones se comprueban sobre esos candidatos con un
+ * predicado.
+ */
+public class AthleteQuery implements QueryPlan<Athlete> {
+
+	/**
+	 * Condición de la consulta, que se puede comprobar sobre un atleta concreto.
+	 */
+	private static abstract class Clause {
+
+		// predicado que comprueba la condición sobre un atleta
+		abstract Predicate<Athlete> predicate(AthleteIndexes indexes, QueryContext<Athlete> context);
+	}
+
+	/**
+	 * Condición que además puede calcular con los índices de atletas cuántos
+	 * atletas la cumplen y obtenerlos directamente.
+	 */
+	private static abstract class IndexedClause extends Clause {
+
+		// número de atletas que cumplen la condición según los índices
+		abstract int estimate(AthleteIndexes indexes);
+
+		// atletas que cumplen la condición, en el orden de los datos
+		abstract List<Athlete> candidates(AthleteIndexes indexes);
+	}
+
+	// condición sobre el país del atleta
+	private static class CountryClause extends IndexedClause {
+		private String country; // nombre del país normalizado
+
+		private CountryClause(String country) {
+			this.country = TextNormalizer.normalize(country);
+		}
+
+		@Override
+		int estimate(AthleteIndexes indexes) {
+			return indexes.countCountry(country);
+		}
+
+		@Override
+		List<Athlete> candidates(AthleteIndexes indexes) {
+			return indexes.getByCountry(country);
+		}
+
+		@Override
+		Predicate<Athlete> predicate(AthleteIndexes indexes, QueryContext<Athlete> context) {
+			return a -> TextNormalizer.normalize(a.getCountry()).equals(country);
+		}
+	}
+
+	// condición sobre el género del atleta
+	private static class GenreClause extends IndexedClause {
+		private Genre genre;
+
+		private GenreClause(Genre genre) {
+			this.genre = genre;
+		}
+
+		@Override
+		int estimate(AthleteIndexes indexes) {
+			return indexes.countGenre(genre);
+		}
+
+		@Override
+		List<Athlete> candidates(AthleteIndexes indexes) {
+			return indexes.getByGenre(genre);
+		}
+
+		@Override
+		Predicate<Athlete> predicate(AthleteIndexes indexes, QueryContext<Athlete> context) {
+			return a -> a.getGenre() == genre;
+		}
+	}
+
+	// condición sobre el año de nacimiento del atleta
+	private static class BornClause extends IndexedClause {
+		private int from; // primer año del rango
+		private int to; // último año del rango
+
+		private BornClause(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		int estimate(AthleteIndexes indexes) {
+			return indexes.countBirthYears(from, to);
+		}
+
+		@Override
+		List<Athlete> candidates(AthleteIndexes indexes) {
+			return indexes.getByBirthYears(from, to);
+		}
+
+		@Override
+		Predicate<Athlete> predicate(AthleteIndexes indexes, QueryContext<Athlete> context) {
+			return a -> a.getBirthdate().getYear() >= from && a.getBirthdate().getYear() <= to;
+		}
+	}
+
+	// condición sobre el número de medallas del atleta
+	private static class MedalsClause extends IndexedClause {
+		private int min; // número mínimo de medallas
+		private int max; // número máximo de medallas
+
+		private MedalsClause(int min, int max) {
+			this.min = min;
+			this.max = max;
+		}
+
+		@Override
+		int estimate(AthleteIndexes indexes) {
+			return indexes.countMedals(min, max);
+		}
+
+		@Override
+		List<Athlete> candidates(AthleteIndexes indexes) {
+			return indexes.getByMedals(min, max);
+		}
+
+		@Override
+		Predicate<Athlete> predicate(AthleteIndexes indexes, QueryContext<Athlete> context) {
+			return a -> {
+				int count = indexes.getSnapshot().getMedals(a.getCode()).size();
+				return count >= min && count <= max;
+			};
+		}
+	}
+
+	// condición sobre el texto contenido en el nombre del atleta
+	// el índice de nombres pertenece al modelo, así que esta condición no
+	// utiliza los índices de atletas sino el contexto de la consulta
+	private static class NameClause extends Clause {
+		private String text; // texto normalizado a buscar
+
+		private NameClause(String text) {
+			this.text = TextNormalizer.normalize(text);
+		}
+
+		@Override
+		Predicate<Athlete> predicate(AthleteIndexes indexes, QueryContext<Athlete> context) {
+			return a -> context.getNormalizedText(a).contains(text);
+		}
+	}
+
+	private List<Clause> clauses; // condiciones de la consulta
+	private Supplier<DatasetSnapshot> dataVersion; // versión de los datos sobre la que se consulta
+	private Supplier<AthleteIndexes> indexes; // índices de la versión actual de los datos
+
+	private AthleteQuery(List<Clause> clauses, Supplier<DatasetSnapshot> dataVersion, Supplier<AthleteIndexes> indexes) {
+		this.clauses = clauses;
+		this.dataVersion = dataVersion;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * Compila el texto de una consulta.
+	 *
+	 * Los índices solo se utilizan si se han calculado sobre los mismos atletas
+	 * que contiene el contexto de la consulta; en otro caso las condiciones se
+	 * comprueban con predicados sobre todos los atletas.
+	 *
+	 * @param text        texto de la consulta
+	 * @param dataVersion proveedor de la versión de los datos que contiene el
+	 *                    contexto en el que se ejecuta la consulta
+	 * @param indexes     proveedor de los índices de la versión actual de los datos
+	 * @return consulta compilada
+	 * @throws QuerySyntaxException si el texto no es una consulta válida
+	 */
+	public static AthleteQuery compile(String text, Supplier<DatasetSnapshot> dataVersion,
+			Supplier<AthleteIndexes> indexes) throws QuerySyntaxException {
+		List<Clause> clauses = new ArrayList<>();
+		for (String[] term : tokenize(text)) {
+			clauses.add(parseClause(term[0], term[1], term[2]));
+		}
+		if (clauses.isEmpty()) {
+			throw new QuerySyntaxException("La consulta está vacía");
+		}
+		return new AthleteQuery(clauses, dataVersion, indexes);
+	}
+
+	@Override
+	public List<Athlete> execute(QueryContext<Athlete> context) {
+		AthleteIndexes athleteIndexes = indexes.get();
+		List<Athlete> data = context.getData();
+
+		// los índices solo se pueden utilizar si se han calculado sobre los mismos
+		// atletas que contiene el contexto; las versiones que solo modifican
+		// medallas comparten la lista de atletas de la versión anterior
+		boolean useIndexes = athleteIndexes.getSnapshot().getAthletes() == dataVersion.get().getAthletes();
+
+		// se obtienen los candidatos de la condición más selectiva; las búsquedas
+		// en el nombre se ejecutan con el índice del modelo para conocer su tamaño
+		Map<Clause, List<Athlete>> nameResults = new IdentityHashMap<>();
+		Clause driver = null;
+		int driverEstimate = 0;
+		for (Clause clause : clauses) {
+			int estimate;
+			if (clause instanceof NameClause name) {
+				if (name.text.length() < TrigramIndex.MIN_QUERY_LENGTH) {
+					continue; // sin índice, se comprueba con el predicado
+				}
+				List<Athlete> found = context.searchText(name.text);
+				nameResults.put(clause, found);
+				estimate = found.size();
+			} else if (useIndexes && clause instanceof IndexedClause indexed) {
+				estimate = indexed.estimate(athleteIndexes);
+			} else {
+				continue;
+			}
+
+			if (driver == null || estimate < driverEstimate) {
+				driver = clause;
+				driverEstimate = estimate;
+			}
+			if (estimate == 0) {
+				return List.of(); // ninguna condición vacía puede cumplirse
+			}
+		}
+
+		List<Athlete> candidates;
+		if (driver == null) {
+			candidates = data;
+		} else if (nameResults.containsKey(driver)) {
+			candidates = nameResults.get(driver);
+		} else {
+			candidates = ((IndexedClause) driver).candidates(athleteIndexes);
+		}
+
+		// el resto de condiciones se combinan en un único predicado
+		Predicate<Athlete> predicate = a -> true;
+		for (Clause clause : clauses) {
+			if (clause != driver) {
+				predicate = predicate.and(clause.predicate(athleteIndexes, context));
+			}
+		}
+
+		List<Athlete> result = new ArrayList<>();
+		for (Athlete athlete : candidates) {
+			if (predicate.test(athlete)) {
+				result.add(athlete);
+			}
+		}
+		return result;
+	}
+
+	// crea la condición correspondiente a un campo, operador y valor
+	private static Clause parseClause(String field, String operator, String value) throws QuerySyntaxException {
+		if (field == null) {
+			return new NameClause(value);
+		}
+
+		switch (TextNormalizer.normalize(field)) {
+		case "country":
+		case "pais":
+			checkEquality(field, operator);
+			return new CountryClause(value);
+		case "genre":
+		case "genero":
+			checkEquality(field, operator);
+			return new GenreClause(parseGenre(value));
+		case "born":
+		case "nacimiento":
+			int[] years = parseRange(field, operator, value);
+			return new BornClause(years[0], years[1]);
+		case "medals":
+		case "medallas":
+			int[] counts = parseRange(field, operator, value);
+			return new MedalsClause(counts[0], counts[1]);
+		case "name":
+		case "nombre":
+			checkEquality(field, operator);
+			return new NameClause(value);
+		default:
+			throw new QuerySyntaxException("Campo desconocido: " + field);
+		}
+	}
+
+	// comprueba que el campo se utiliza con el operador de igualdad
+	private static void checkEquality(String field, String operator) throws QuerySyntaxException {
+		if (!operator.equals(":") && !operator.equals("=")) {
+			throw new QuerySyntaxException("El campo " + field + " no admite el operador " + operator);
+		}
+	}
+
+	// obtiene el género a partir de su nombre en inglés o en castellano
+	private static Genre parseGenre(String value) throws QuerySyntaxException {
+		switch (TextNormalizer.normalize(value)) {
+		case "male":
+		case "m":
+		case "hombre":
+		case "masculino":
+			return Genre.MALE;
+		case "female":
+		case "f":
+		case "mujer":
+		case "femenino":
+			return Genre.FEMALE;
+		default:
+			throw new QuerySyntaxException("Género desconocido: " + value);
+		}
+	}
+
+	// obtiene el rango [mínimo, máximo] de una condición numérica
+	private static int[] parseRange(String field, String operator, String value) throws QuerySyntaxException {
+		try {
+			switch (operator) {
+			case ">=":
+				return new int[] { Integer.parseInt(value), Integer.MAX_VALUE };
+			case ">":
+				return new int[] { Integer.parseInt(value) + 1, Integer.MAX_VALUE };
+			case "<=":
+				return new int[] { Integer.MIN_VALUE, Integer.parseInt(value) };
+			case "<":
+				return new int[] { Integer.MIN_VALUE, Integer.parseInt(value) - 1 };
+			default:
+				// igualdad con un valor (1990) o con un rango (1990..1995, 1990.., ..1995)
+				int separator = value.indexOf("..");
+				if (separator < 0) {
+					int number = Integer.parseInt(value);
+					return new int[] { number, number };
+				}
+				String from = value.substring(0, separator);
+				String to = value.substring(separator + 2);
+				return new int[] { from.isEmpty() ? Integer.MIN_VALUE : Integer.parseInt(from),
+						to.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(to) };
+			}
+		} catch (NumberFormatException e) {
+			throw new QuerySyntaxException("Valor no válido para el campo " + field + ": " + value, e);
+		}
+	}
+
+	// divide el texto en términos [campo, operador, valor]; el campo y el
+	// operador son null en los términos sin campo
+	private static List<String[]> tokenize(String text) throws QuerySyntaxException {
+		List<String[]> terms = new ArrayList<>();
+		int i = 0;
+		while (i < text.length()) {
+			if (Character.isWhitespace(text.charAt(i))) {
+				i++;
+				continue;
+			}
+
+			// nombre del campo: letras seguidas de un operador
+			int start = i;
+			while (i < text.length() && Character.isLetter(text.charAt(i))) {
+				i++;
+			}
+			String field = null;
+			String operator = null;
+			String op = operatorAt(text, i);
+			if (i > start && op != null) {
+				field = text.substring(start, i);
+				operator = op;
+				i += op.length();
+			} else {
+				i = start;
+			}
+
+			// valor: texto entre comillas o hasta el siguiente espacio
+			String value;
+			if (i < text.length() && text.charAt(i) == '"') {
+				int end = text.indexOf('"', i + 1);
+				if (end < 0) {
+					throw new QuerySyntaxException("Faltan las comillas de cierre");
+				}
+				value = text.substring(i + 1, end);
+				i = end + 1;
+			} else {
+				int end = i;
+				while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+					end++;
+				}
+				value = text.substring(i, end);
+				i = end;
+			}
+
+			if (value.isEmpty()) {
+				throw new QuerySyntaxException("Falta el valor del campo " + field);
+			}
+			terms.add(new String[] { field, operator, value });
+		}
+		return terms;
+	}
+
+	// obtiene el operador que empieza en la posición indicada o null si no hay ninguno
+	private static String operatorAt(String text, int i) {
+		for (String op : new String[] { ">=", "<=", ":", "=", ">", "<" }) {
+			if (text.startsWith(op, i)) {
+				return op;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,162 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Índice para búsquedas aproximadas tolerantes a errores de escritura.
+ *
+ * Los textos normalizados de los elementos se dividen en palabras que se
+ * guardan en un LevenshteinTrie. Una búsqueda se divide también en palabras y
+ * un elemento la cumple si para cada palabra buscada tiene alguna palabra a
+ * una distancia de edición pequeña (que depende de la longitud de la palabra
+ * buscada). La última palabra de la búsqueda se considera a medio escribir y
+ * se compara con los prefijos de las palabras, de manera que "apel" encuentra
+ * "apellido" mientras el usuario escribe. Los resultados se ordenan por la
+ * suma de las distancias, de más a menos parecidos, y los empates se deshacen
+ * por el orden en el que se añadieron los elementos.
+ */
+public class FuzzyIndex<E> {
+
+	// separa el texto en palabras formadas por letras y dígitos
+	private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	// longitud mínima de la última palabra de la búsqueda para compararla con
+	// los prefijos de las palabras, las más cortas son prefijo de demasiadas
+	private static final int MIN_PREFIX_LENGTH = 3;
+
+	private LevenshteinTrie<E> words = new LevenshteinTrie<>(); // palabras de los textos y elementos que las contienen
+	private Map<E, String> texts = new HashMap<>(); // texto normalizado de cada elemento
+	private Map<E, Long> sequence = new HashMap<>(); // orden en el que se añadió cada elemento
+	private long nextSequence = 0;
+
+	// elemento encontrado con su clave de ordenación: la distancia total en los
+	// bits altos y el orden de inserción en los 48 bits bajos
+	private record Ranked<E>(E element, long key) {
+	}
+
+	/**
+	 * Añade un elemento al índice.
+	 *
+	 * @param element        elemento a añadir
+	 * @param normalizedText texto normalizado del elemento
+	 */
+	public void add(E element, String normalizedText) {
+		texts.put(element, normalizedText);
+		sequence.put(element, nextSequence++);
+		for (String word : splitWords(normalizedText)) {
+			words.add(word, element);
+		}
+	}
+
+	/**
+	 * Elimina un elemento del índice.
+	 *
+	 * @param element elemento a eliminar
+	 */
+	public void remove(E element) {
+		String normalizedText = texts.remove(element);
+		if (normalizedText != null) {
+			sequence.remove(element);
+			for (String word : splitWords(normalizedText)) {
+				words.remove(word, element);
+			}
+		}
+	}
+
+	/**
+	 * Busca los elementos cuyas palabras se parecen a las palabras de la búsqueda
+	 * y los devuelve ordenados de más a menos parecidos.
+	 *
+	 * @param query búsqueda normalizada
+	 * @return elementos encontrados ordenados por parecido
+	 */
+	public List<E> search(String query) {
+		List<String> queryWords = splitWords(query);
+		if (queryWords.isEmpty()) {
+			return List.of();
+		}
+
+		// la última palabra está a medio escribir salvo que la búsqueda termine en un separador
+		boolean typing = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+		// distancia total de cada elemento, se guarda en un array de un elemento
+		// para poder actualizarla sin volver a insertarla en el mapa
+		Map<E, int[]> totalDistances = null;
+		for (int i = 0; i < queryWords.size(); i++) {
+			String queryWord = queryWords.get(i);
+			boolean prefix = typing && i == queryWords.size() - 1 && queryWord.length() >= MIN_PREFIX_LENGTH;
+
+			// mejor distancia de cada elemento a esta palabra de la búsqueda
+			Map<E, int[]> wordDistances = new HashMap<>();
+			for (LevenshteinTrie.Match<E> match : words.search(queryWord, maxDistance(queryWord), prefix)) {
+				for (E element : match.getValues()) {
+					int[] distance = wordDistances.get(element);
+					if (distance == null) {
+						wordDistances.put(element, new int[] { match.getDistance() });
+					} else if (match.getDistance() < distance[0]) {
+						distance[0] = match.getDistance();
+					}
+				}
+			}
+
+			// solamente se mantienen los elementos que cumplen todas las palabras
+			if (totalDistances == null) {
+				totalDistances = wordDistances;
+			} else {
+				totalDistances.keySet().retainAll(wordDistances.keySet());
+				for (Map.Entry<E, int[]> entry : totalDistances.entrySet()) {
+					entry.getValue()[0] += wordDistances.get(entry.getKey())[0];
+				}
+			}
+
+			if (totalDistances.isEmpty()) {
+				return List.of();
+			}
+		}
+
+		// se ordenan los resultados por distancia total y por orden de inserción con
+		// una clave calculada una sola vez por elemento, en lugar de consultar los
+		// mapas en cada comparación, ya que las búsquedas por prefijo pueden
+		// encontrar una parte importante de los elementos
+		List<Ranked<E>> ranked = new ArrayList<>(totalDistances.size());
+		for (Map.Entry<E, int[]> entry : totalDistances.entrySet()) {
+			long key = (long) entry.getValue()[0] << 48 | sequence.get(entry.getKey());
+			ranked.add(new Ranked<>(entry.getKey(), key));
+		}
+		ranked.sort(Comparator.comparingLong(Ranked::key));
+
+		List<E> result = new ArrayList<>(ranked.size());
+		for (Ranked<E> r : ranked) {
+			result.add(r.element());
+		}
+		return result;
+	}
+
+	// distancia de edición máxima permitida para una palabra de la búsqueda
+	// las palabras cortas deben coincidir exactamente para no obtener demasiados resultados
+	private static int maxDistance(String word) {
+		if (word.length() <= 2) {
+			return 0;
+		} else if (word.length() <= 5) {
+			return 1;
+		} else {
+			return 2;
+		}
+	}
+
+	// divide un texto normalizado en palabras
+	private static List<String> splitWords(String text) {
+		List<String> result = new ArrayList<>();
+		for (String word : WORD_SEPARATOR.split(text)) {
+			if (!word.isEmpty()) {
+				result.add(word);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,102 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * Lista de enteros que crece según se añaden elementos. Se utiliza en lugar de
+ * un List&lt;Integer&gt; para evitar crear un objeto por cada entero en las
+ * estructuras de búsqueda, que pueden contener millones de valores.
+ */
+public class IntList {
+
+	private int[] values; // array con los valores de la lista
+	private int size; // número de valores ocupados en el array
+
+	public IntList() {
+		this(8);
+	}
+
+	/**
+	 * Constructor que recibe la capacidad inicial de la lista.
+	 *
+	 * @param capacity capacidad inicial
+	 */
+	public IntList(int capacity) {
+		values = new int[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Añade un valor al final de la lista.
+	 *
+	 * @param value valor a añadir
+	 */
+	public void add(int value) {
+		if (size == values.length) {
+			// se duplica la capacidad cuando el array está lleno
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size++] = value;
+	}
+
+	/**
+	 * Inserta un valor en la posición indicada desplazando los siguientes.
+	 *
+	 * @param index posición en la que se inserta el valor
+	 * @param value valor a insertar
+	 */
+	public void insert(int index, int value) {
+		if (index > size) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		System.arraycopy(values, index, values, index + 1, size - index);
+		values[index] = value;
+		size++;
+	}
+
+	/**
+	 * Obtiene el valor de la posición indicada.
+	 *
+	 * @param index posición del valor
+	 * @return valor de la posición
+	 */
+	public int get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return values[index];
+	}
+
+	/**
+	 * Obtiene el número de valores de la lista.
+	 *
+	 * @return número de valores
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Busca un valor con búsqueda binaria a partir de la posición indicada. La
+	 * lista debe estar ordenada de menor a mayor.
+	 *
+	 * @param fromIndex posición a partir de la que se busca
+	 * @param value     valor a buscar
+	 * @return posición del valor, o (-(punto de inserción) - 1) si no se encuentra,
+	 *         con el mismo criterio que Arrays.binarySearch
+	 */
+	public int binarySearch(int fromIndex, int value) {
+		return Arrays.binarySearch(values, fromIndex, size, value);
+	}
+
+	/**
+	 * Obtiene un array con una copia de los valores de la lista.
+	 *
+	 * @return array con los valores
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+}
@@ -0,0 +1,182 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Árbol de prefijos (trie) de palabras para buscar las palabras, o los
+ * prefijos de palabras, que están a una distancia de edición (Levenshtein)
+ * máxima de una consulta sin compararla con todas las palabras del árbol.
+ *
+ * La búsqueda recorre el árbol como un autómata de Levenshtein: en cada nivel
+ * se calcula una fila de la matriz de programación dinámica a partir de la
+ * fila del nivel anterior, por lo que las palabras con un prefijo común
+ * comparten su cálculo, y se descartan las ramas en las que ningún valor de la
+ * fila está dentro de la distancia máxima. Las filas se reservan una vez por
+ * búsqueda y se reutilizan en todos los nodos del mismo nivel.
+ *
+ * La búsqueda por prefijo permite encontrar palabras a medio escribir: la
+ * distancia de una palabra es la menor distancia entre la consulta y
+ * cualquiera de sus prefijos, de manera que "apel" está a distancia 0 de
+ * "apellido" y "aple" a distancia 1.
+ *
+ * Cada palabra lleva asociado un conjunto de valores (por ejemplo, los
+ * elementos cuyo texto contiene la palabra).
+ */
+public class LevenshteinTrie<V> {
+
+	/**
+	 * Palabra encontrada en una búsqueda con su distancia a la consulta y los
+	 * valores asociados a la palabra.
+	 */
+	public static class Match<V> {
+
+		private int distance; // distancia de edición a la consulta
+		private Set<V> values; // valores asociados a la palabra
+
+		private Match(int distance, Set<V> values) {
+			this.distance = distance;
+			this.values = values;
+		}
+
+		public int getDistance() {
+			return distance;
+		}
+
+		public Set<V> getValues() {
+			return values;
+		}
+	}
+
+	// nodo del árbol, los hijos se guardan en arrays paralelos que ocupan menos
+	// que un mapa, ya que cada nodo tiene pocos hijos
+	private static class Node<V> {
+		private char[] keys = new char[0]; // carácter de cada hijo
+		private Node<?>[] children = new Node<?>[0]; // hijos del nodo
+		private Set<V> values; // valores de la palabra que termina en el nodo, null si no termina ninguna
+
+		@SuppressWarnings("unchecked")
+		private Node<V> getChild(int index) {
+			return (Node<V>) children[index];
+		}
+
+		// obtiene el hijo correspondiente a un carácter o null si no existe
+		private Node<V> findChild(char key) {
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] == key) {
+					return getChild(i);
+				}
+			}
+			return null;
+		}
+
+		// añade un hijo para un carácter que todavía no tiene
+		private Node<V> addChild(char key) {
+			Node<V> child = new Node<>();
+			keys = Arrays.copyOf(keys, keys.length + 1);
+			children = Arrays.copyOf(children, children.length + 1);
+			keys[keys.length - 1] = key;
+			children[children.length - 1] = child;
+			return child;
+		}
+	}
+
+	private Node<V> root = new Node<>(); // raíz del árbol, corresponde a la palabra vacía
+	private int maxLength = 0; // longitud de la palabra más larga, profundidad del árbol
+
+	/**
+	 * Asocia un valor a una palabra, añadiendo la palabra al árbol si no existía.
+	 *
+	 * @param word  palabra
+	 * @param value valor asociado a la palabra
+	 */
+	public void add(String word, V value) {
+		Node<V> node = root;
+		for (int i = 0; i < word.length(); i++) {
+			Node<V> child = node.findChild(word.charAt(i));
+			node = child != null ? child : node.addChild(word.charAt(i));
+		}
+		if (node.values == null) {
+			node.values = new LinkedHashSet<>();
+		}
+		node.values.add(value);
+		maxLength = Math.max(maxLength, word.length());
+	}
+
+	/**
+	 * Elimina la asociación de un valor con una palabra. Los nodos de la palabra
+	 * se mantienen en el árbol aunque se quede sin valores.
+	 *
+	 * @param word  palabra
+	 * @param value valor a eliminar
+	 */
+	public void remove(String word, V value) {
+		Node<V> node = root;
+		for (int i = 0; i < word.length() && node != null; i++) {
+			node = node.findChild(word.charAt(i));
+		}
+		if (node != null && node.values != null) {
+			node.values.remove(value);
+		}
+	}
+
+	/**
+	 * Busca las palabras con valores asociados que están como máximo a la
+	 * distancia indicada de la consulta.
+	 *
+	 * @param query       palabra a buscar
+	 * @param maxDistance distancia de edición máxima
+	 * @param prefix      si es true la distancia de cada palabra es la menor
+	 *                    distancia entre la consulta y sus prefijos
+	 * @return palabras encontradas
+	 */
+	public List<Match<V>> search(String query, int maxDistance, boolean prefix) {
+		// una fila de la matriz por cada nivel del árbol, la fila del nivel 0 es
+		// la distancia de cada prefijo de la consulta a la palabra vacía
+		int[][] rows = new int[maxLength + 1][query.length() + 1];
+		for (int j = 0; j <= query.length(); j++) {
+			rows[0][j] = j;
+		}
+
+		List<Match<V>> matches = new ArrayList<>();
+		search(root, 0, rows, query, maxDistance, prefix, query.length(), matches);
+		return matches;
+	}
+
+	// visita un nodo cuya fila de la matriz es rows[depth] y continúa por sus
+	// hijos; bestPrefix es la menor distancia entre la consulta y los prefijos
+	// de la palabra que corresponde al nodo
+	private void search(Node<V> node, int depth, int[][] rows, String query, int maxDistance, boolean prefix,
+			int bestPrefix, List<Match<V>> matches) {
+		int[] row = rows[depth];
+		int distance = prefix ? bestPrefix : row[query.length()];
+		if (node.values != null && !node.values.isEmpty() && distance <= maxDistance) {
+			matches.add(new Match<>(distance, node.values));
+		}
+
+		for (int c = 0; c < node.keys.length; c++) {
+			// la fila de cada hijo se calcula sobre la misma fila del siguiente nivel,
+			// que ya no necesita el hijo anterior al haber terminado su recorrido
+			int[] next = rows[depth + 1];
+			char key = node.keys[c];
+			next[0] = depth + 1;
+			int min = next[0];
+			for (int j = 1; j <= query.length(); j++) {
+				int cost = query.charAt(j - 1) == key ? 0 : 1;
+				next[j] = Math.min(Math.min(next[j - 1] + 1, row[j] + 1), row[j - 1] + cost);
+				min = Math.min(min, next[j]);
+			}
+
+			// si ningún valor de la fila está dentro de la distancia máxima tampoco lo
+			// estará ninguna palabra de la rama, salvo en las búsquedas por prefijo si
+			// ya lo está alguno de los prefijos recorridos
+			int best = Math.min(bestPrefix, next[query.length()]);
+			if (min <= maxDistance || (prefix && best <= maxDistance)) {
+				search(node.getChild(c), depth + 1, rows, query, maxDistance, prefix, best, matches);
+			}
+		}
+	}
+}
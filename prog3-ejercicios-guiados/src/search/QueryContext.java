@@ -0,0 +1,35 @@
+package search;
+
+import java.util.List;
+
+/**
+ * Datos y operaciones de búsqueda que un modelo de datos pone a disposición de
+ * un plan de consulta para que pueda utilizar los índices del modelo.
+ */
+public interface QueryContext<E> {
+
+	/**
+	 * Obtiene la lista inmutable de todos los elementos del modelo.
+	 *
+	 * @return lista de elementos
+	 */
+	List<E> getData();
+
+	/**
+	 * Busca los elementos cuyo texto normalizado contiene el texto indicado,
+	 * utilizando los índices del modelo si es posible. Los elementos se
+	 * devuelven en el orden de los datos.
+	 *
+	 * @param normalizedQuery texto normalizado a buscar
+	 * @return elementos encontrados
+	 */
+	List<E> searchText(String normalizedQuery);
+
+	/**
+	 * Obtiene el texto normalizado de un elemento.
+	 *
+	 * @param element elemento
+	 * @return texto normalizado del elemento
+	 */
+	String getNormalizedText(E element);
+}
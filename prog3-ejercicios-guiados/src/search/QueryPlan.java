@@ -0,0 +1,20 @@
+package search;
+
+import java.util.List;
+
+/**
+ * Plan de ejecución de una consulta compilada. El plan decide qué índices
+ * utilizar para obtener los elementos que cumplen la consulta sin tener que
+ * recorrer todos los datos.
+ */
+public interface QueryPlan<E> {
+
+	/**
+	 * Ejecuta la consulta y devuelve los elementos que la cumplen en el orden
+	 * de los datos.
+	 *
+	 * @param context datos e índices del modelo sobre el que se ejecuta la consulta
+	 * @return elementos que cumplen la consulta
+	 */
+	List<E> execute(QueryContext<E> context);
+}
@@ -0,0 +1,21 @@
+package search;
+
+/**
+ * Excepción que se lanza cuando el texto de una consulta no tiene un formato
+ * válido.
+ */
+public class QuerySyntaxException extends Exception {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	public QuerySyntaxException(String message) {
+		super(message);
+	}
+
+	public QuerySyntaxException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
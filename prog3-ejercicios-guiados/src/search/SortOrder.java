@@ -0,0 +1,346 @@
+package search;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Criterio de ordenación de los elementos de una lista.
+ *
+ * Hay dos tipos de criterios: por texto, que respeta las reglas del idioma
+ * indicado (acentos, ñ...) mediante las CollationKey de un Collator, y por un
+ * valor numérico (por ejemplo, la fecha de nacimiento como número de días),
+ * que se compara directamente como long. Al ordenar por texto se calcula la
+ * CollationKey de cada elemento una única vez por ordenación, de manera que
+ * comparar dos elementos no requiere volver a procesar sus textos.
+ *
+ * Para ordenar muchas veces subconjuntos de unos mismos datos (por ejemplo,
+ * los resultados de cada búsqueda) se puede crear un criterio por posición a
+ * partir de los datos ya ordenados: la posición de cada elemento se guarda una
+ * única vez y ordenar o insertar un elemento solo compara números enteros.
+ *
+ * Las ordenaciones son estables: los elementos con la misma clave mantienen su
+ * orden relativo. Las listas grandes se ordenan en paralelo.
+ */
+public abstract class SortOrder<E> implements Comparator<E> {
+
+	// número de elementos a partir del cual se ordena en paralelo
+	private static final int PARALLEL_SORT_THRESHOLD = 20_000;
+
+	/**
+	 * Crea un criterio de ordenación por texto según las reglas del idioma indicado.
+	 *
+	 * @param textExtractor función que obtiene el texto de un elemento
+	 * @param locale        idioma cuyas reglas de ordenación se utilizan
+	 * @return criterio de ordenación
+	 */
+	public static <E> SortOrder<E> byText(Function<E, String> textExtractor, Locale locale) {
+		return new CollationSortOrder<>(textExtractor, locale);
+	}
+
+	/**
+	 * Crea un criterio de ordenación por un valor numérico de menor a mayor.
+	 *
+	 * @param keyExtractor función que obtiene el valor de un elemento
+	 * @return criterio de ordenación
+	 */
+	public static <E> SortOrder<E> byLong(ToLongFunction<E> keyExtractor) {
+		return new LongSortOrder<>(keyExtractor);
+	}
+
+	/**
+	 * Crea un criterio de ordenación por la posición de los elementos en una
+	 * lista ya ordenada. Solamente puede ordenar elementos de esa lista, que se
+	 * identifican por referencia y no con equals.
+	 *
+	 * @param sorted lista ordenada con la posición de cada elemento
+	 * @return criterio de ordenación
+	 */
+	public static <E> SortOrder<E> byPosition(List<? extends E> sorted) {
+		return new PositionSortOrder<>(sorted);
+	}
+
+	/**
+	 * Obtiene una lista inmutable con los elementos indicados ordenados.
+	 *
+	 * @param elements elementos a ordenar
+	 * @return elementos ordenados
+	 */
+	public List<E> sort(Collection<? extends E> elements) {
+		@SuppressWarnings("unchecked")
+		E[] array = (E[]) elements.toArray();
+		List<E> sorted = new ArrayList<>(array.length);
+		for (int index : sortedIndexes(Arrays.asList(array))) {
+			sorted.add(array[index]);
+		}
+		return Collections.unmodifiableList(sorted);
+	}
+
+	/**
+	 * Ordena el resultado de una búsqueda por texto manteniendo la posición de la
+	 * coincidencia de cada elemento.
+	 *
+	 * @param matches resultado de la búsqueda
+	 * @return resultado con los elementos ordenados
+	 */
+	public TextMatches<E> sort(TextMatches<E> matches) {
+		// se ordenan las posiciones de los elementos para poder reordenar
+		// también las posiciones de las coincidencias
+		List<E> elements = matches.getElements();
+		int[] order = sortedIndexes(elements);
+		List<E> sorted = new ArrayList<>(order.length);
+		int[] offsets = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			sorted.add(elements.get(order[i]));
+			offsets[i] = matches.getOffset(order[i]);
+		}
+		return new TextMatches<>(Collections.unmodifiableList(sorted), offsets);
+	}
+
+	// devuelve las posiciones de los elementos de la lista en el orden del criterio
+	// comparando los elementos; los criterios que pueden ordenar claves calculadas
+	// una sola vez por elemento redefinen este método
+	int[] sortedIndexes(List<? extends E> elements) {
+		Integer[] order = new Integer[elements.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Comparator<Integer> byElement = (a, b) -> compare(elements.get(a), elements.get(b));
+		if (order.length >= PARALLEL_SORT_THRESHOLD) {
+			Arrays.parallelSort(order, byElement);
+		} else {
+			Arrays.sort(order, byElement);
+		}
+
+		int[] result = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			result[i] = order[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Obtiene la posición en la que debe insertarse un elemento en una lista
+	 * ordenada, después de los elementos con la misma clave, mediante búsqueda
+	 * binaria.
+	 *
+	 * @param sorted  lista ordenada con este criterio
+	 * @param element elemento a insertar
+	 * @return posición de inserción
+	 */
+	public int insertionPoint(List<? extends E> sorted, E element) {
+		return insertionPoint(sorted, 0, element);
+	}
+
+	// búsqueda binaria de la posición de inserción a partir de la posición indicada
+	private int insertionPoint(List<? extends E> sorted, int fromIndex, E element) {
+		int low = fromIndex;
+		int high = sorted.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (compare(sorted.get(middle), element) <= 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Mezcla dos listas ordenadas en una nueva lista inmutable ordenada. Ante
+	 * claves iguales los elementos de la primera lista quedan delante.
+	 *
+	 * La posición de cada elemento añadido se busca con búsqueda binaria y los
+	 * tramos de la primera lista entre ellas se copian sin compararlos, por lo
+	 * que añadir pocos elementos a una lista grande es barato.
+	 *
+	 * @param sorted    lista ordenada
+	 * @param additions lista ordenada de elementos a añadir
+	 * @return lista ordenada con los elementos de ambas
+	 */
+	public List<E> merge(List<? extends E> sorted, List<? extends E> additions) {
+		List<E> result = new ArrayList<>(sorted.size() + additions.size());
+		int from = 0;
+		for (E addition : additions) {
+			// las posiciones de inserción son crecientes ya que los elementos están ordenados
+			int position = insertionPoint(sorted, from, addition);
+			result.addAll(sorted.subList(from, position));
+			result.add(addition);
+			from = position;
+		}
+		result.addAll(sorted.subList(from, sorted.size()));
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Mezcla dos resultados de búsquedas por texto ordenados manteniendo la
+	 * posición de la coincidencia de cada elemento.
+	 *
+	 * @param sorted    resultado ordenado
+	 * @param additions resultado ordenado con los elementos a añadir
+	 * @return resultado ordenado con los elementos de ambos
+	 */
+	public TextMatches<E> merge(TextMatches<E> sorted, TextMatches<E> additions) {
+		List<E> result = new ArrayList<>(sorted.size() + additions.size());
+		IntList offsets = new IntList(sorted.size() + additions.size());
+		int from = 0;
+		for (int j = 0; j < additions.size(); j++) {
+			int position = insertionPoint(sorted.getElements(), from, additions.getElements().get(j));
+			result.addAll(sorted.getElements().subList(from, position));
+			for (int i = from; i < position; i++) {
+				offsets.add(sorted.getOffset(i));
+			}
+			result.add(additions.getElements().get(j));
+			offsets.add(additions.getOffset(j));
+			from = position;
+		}
+		result.addAll(sorted.getElements().subList(from, sorted.size()));
+		for (int i = from; i < sorted.size(); i++) {
+			offsets.add(sorted.getOffset(i));
+		}
+		return new TextMatches<>(Collections.unmodifiableList(result), offsets.toArray());
+	}
+
+	// ordenación por texto con las claves de un Collator, que al ordenar una lista
+	// se calculan una vez por elemento y se ordenan junto con la posición del elemento
+	private static class CollationSortOrder<E> extends SortOrder<E> {
+
+		// clave de ordenación de un elemento junto con su posición en la lista a ordenar
+		private record KeyedIndex(CollationKey key, int index) {
+		}
+
+		private static final Comparator<KeyedIndex> BY_KEY = Comparator.comparing(KeyedIndex::key);
+
+		private Function<E, String> textExtractor;
+
+		// un Collator no puede utilizarse desde varios hilos a la vez, así que
+		// cada hilo utiliza su propia copia para calcular claves en paralelo
+		private ThreadLocal<Collator> collators;
+
+		private CollationSortOrder(Function<E, String> textExtractor, Locale locale) {
+			this.textExtractor = textExtractor;
+			Collator collator = Collator.getInstance(locale);
+			collators = ThreadLocal.withInitial(() -> (Collator) collator.clone());
+		}
+
+		// calcula la clave de cada elemento y devuelve las posiciones de los
+		// elementos en el orden de sus claves; las ordenaciones de Arrays son
+		// estables, por lo que las claves iguales mantienen su orden relativo
+		@Override
+		int[] sortedIndexes(List<? extends E> elements) {
+			KeyedIndex[] keys = new KeyedIndex[elements.size()];
+			// calcular las claves es la parte costosa, así que se
+			// calculan en paralelo si hay muchos elementos
+			IntStream indexes = IntStream.range(0, keys.length);
+			if (keys.length >= PARALLEL_SORT_THRESHOLD) {
+				indexes = indexes.parallel();
+			}
+			indexes.forEach(i -> keys[i] = new KeyedIndex(getKey(elements.get(i)), i));
+
+			if (keys.length >= PARALLEL_SORT_THRESHOLD) {
+				Arrays.parallelSort(keys, BY_KEY);
+			} else {
+				Arrays.sort(keys, BY_KEY);
+			}
+
+			int[] order = new int[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				order[i] = keys[i].index();
+			}
+			return order;
+		}
+
+		private CollationKey getKey(E element) {
+			return collators.get().getCollationKey(textExtractor.apply(element));
+		}
+
+		// las comparaciones sueltas, como las de las búsquedas binarias al mezclar
+		// listas ordenadas, comparan los textos sin crear sus claves
+		@Override
+		public int compare(E a, E b) {
+			return collators.get().compare(textExtractor.apply(a), textExtractor.apply(b));
+		}
+	}
+
+	// ordenación por la posición de cada elemento en una lista ya ordenada, que se
+	// guarda al crear el criterio; al ordenar se combinan en un long la posición de
+	// cada elemento y su posición en la lista a ordenar, de manera que se ordena un
+	// array de tipo primitivo sin comparadores ni objetos intermedios
+	private static class PositionSortOrder<E> extends SortOrder<E> {
+
+		// posición de cada elemento en la lista ordenada
+		private Map<E, Integer> positions;
+
+		private PositionSortOrder(List<? extends E> sorted) {
+			positions = new IdentityHashMap<>(sorted.size());
+			int position = 0;
+			for (E element : sorted) {
+				positions.put(element, position++);
+			}
+		}
+
+		// devuelve las posiciones de los elementos en el orden de sus posiciones en la
+		// lista ordenada; la posición en la lista a ordenar en los bits bajos mantiene
+		// el orden relativo de los elementos repetidos
+		@Override
+		int[] sortedIndexes(List<? extends E> elements) {
+			long[] keys = new long[elements.size()];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = (long) getPosition(elements.get(i)) << 32 | i;
+			}
+
+			if (keys.length >= PARALLEL_SORT_THRESHOLD) {
+				Arrays.parallelSort(keys);
+			} else {
+				Arrays.sort(keys);
+			}
+
+			int[] order = new int[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				order[i] = (int) keys[i];
+			}
+			return order;
+		}
+
+		private int getPosition(E element) {
+			Integer position = positions.get(element);
+			if (position == null) {
+				throw new IllegalArgumentException("El elemento no está en la lista ordenada: " + element);
+			}
+			return position;
+		}
+
+		@Override
+		public int compare(E a, E b) {
+			return Integer.compare(getPosition(a), getPosition(b));
+		}
+	}
+
+	// ordenación por un valor numérico, que se obtiene directamente del elemento
+	// ya que calcularlo es más barato que buscarlo en un mapa
+	private static class LongSortOrder<E> extends SortOrder<E> {
+
+		private ToLongFunction<E> keyExtractor;
+
+		private LongSortOrder(ToLongFunction<E> keyExtractor) {
+			this.keyExtractor = keyExtractor;
+		}
+
+		@Override
+		public int compare(E a, E b) {
+			return Long.compare(keyExtractor.applyAsLong(a), keyExtractor.applyAsLong(b));
+		}
+	}
+}
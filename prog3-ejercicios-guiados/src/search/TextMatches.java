@@ -0,0 +1,56 @@
+package search;
+
+import java.util.List;
+
+/**
+ * Resultado inmutable de una búsqueda por texto: los elementos que contienen el
+ * texto buscado y la posición en la que empieza la coincidencia en el texto de
+ * cada elemento. La posición puede utilizarse directamente para resaltar la
+ * coincidencia sin tener que volver a buscarla.
+ */
+public class TextMatches<E> {
+
+	private List<E> elements; // elementos encontrados
+	private int[] offsets; // posición de la coincidencia en el texto de cada elemento
+
+	/**
+	 * Constructor que recibe los elementos encontrados y la posición de la
+	 * coincidencia en cada uno. Ninguno de los dos debe modificarse después.
+	 *
+	 * @param elements elementos encontrados
+	 * @param offsets  posición de la coincidencia en el texto de cada elemento
+	 */
+	public TextMatches(List<E> elements, int[] offsets) {
+		this.elements = elements;
+		this.offsets = offsets;
+	}
+
+	/**
+	 * Obtiene la lista inmutable de elementos encontrados.
+	 *
+	 * @return elementos encontrados
+	 */
+	public List<E> getElements() {
+		return elements;
+	}
+
+	/**
+	 * Obtiene la posición en la que empieza la coincidencia en el texto del
+	 * elemento indicado.
+	 *
+	 * @param index posición del elemento en la lista de elementos encontrados
+	 * @return posición de la coincidencia en el texto del elemento
+	 */
+	public int getOffset(int index) {
+		return offsets[index];
+	}
+
+	/**
+	 * Obtiene el número de elementos encontrados.
+	 *
+	 * @return número de elementos encontrados
+	 */
+	public int size() {
+		return elements.size();
+	}
+}
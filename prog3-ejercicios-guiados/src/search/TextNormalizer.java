@@ -0,0 +1,48 @@
+package search;
+
+import java.text.Normalizer;
+
+/**
+ * Clase de utilidad para normalizar textos antes de realizar búsquedas: se
+ * pasan a minúsculas y se eliminan los acentos.
+ *
+ * La normalización se hace carácter a carácter y mantiene la longitud del
+ * texto, de manera que una posición encontrada en el texto normalizado es
+ * también válida en el texto original (por ejemplo, para resaltarla).
+ */
+public class TextNormalizer {
+
+	// tabla con la versión normalizada de los caracteres del rango Latin-1
+	// se calcula una única vez para no utilizar Normalizer con los caracteres más habituales
+	private static final char[] LATIN1 = new char[256];
+
+	static {
+		for (char c = 0; c < LATIN1.length; c++) {
+			LATIN1[c] = foldChar(c);
+		}
+	}
+
+	/**
+	 * Obtiene la versión normalizada del texto recibido, en minúsculas y sin
+	 * acentos. El texto devuelto tiene la misma longitud que el recibido.
+	 *
+	 * @param text texto a normalizar
+	 * @return texto normalizado
+	 */
+	public static String normalize(String text) {
+		char[] chars = text.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			char c = chars[i];
+			chars[i] = c < LATIN1.length ? LATIN1[c] : foldChar(c);
+		}
+		return new String(chars);
+	}
+
+	// obtiene el carácter en minúsculas y sin acento correspondiente al recibido
+	private static char foldChar(char c) {
+		// la descomposición NFD separa la letra base de sus acentos,
+		// nos quedamos únicamente con la letra base
+		String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+		return Character.toLowerCase(decomposed.charAt(0));
+	}
+}
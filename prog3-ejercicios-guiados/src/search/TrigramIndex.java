@@ -0,0 +1,185 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice de trigramas para buscar subcadenas en los textos de un conjunto de
+ * elementos sin tener que recorrerlos todos.
+ *
+ * Cada elemento recibe un identificador según el orden en el que se añade y,
+ * para cada secuencia de tres caracteres (trigrama) de su texto, el índice
+ * guarda la lista ordenada de identificadores de los elementos que la
+ * contienen. Para buscar un texto se intersectan las listas de sus trigramas,
+ * empezando por la más corta, y solamente se comprueban los candidatos
+ * resultantes.
+ *
+ * Los textos deben estar normalizados con TextNormalizer. Las búsquedas
+ * necesitan al menos tres caracteres, para textos más cortos el índice no
+ * puede utilizarse.
+ */
+public class TrigramIndex<E> {
+
+	/**
+	 * Longitud mínima del texto a buscar para poder utilizar el índice.
+	 */
+	public static final int MIN_QUERY_LENGTH = 3;
+
+	// número mínimo de elementos eliminados para reconstruir el índice
+	private static final int MIN_REMOVED_TO_COMPACT = 1024;
+
+	private List<E> elements = new ArrayList<>(); // elemento de cada identificador
+	private List<String> texts = new ArrayList<>(); // texto normalizado de cada identificador
+	private Map<E, Integer> ids = new HashMap<>(); // identificador de cada elemento
+	private BitSet removed = new BitSet(); // identificadores de elementos eliminados
+	private int removedCount = 0; // número de elementos eliminados
+
+	// listas de identificadores de cada trigrama, ordenadas de menor a mayor
+	private Map<Long, IntList> postings = new HashMap<>();
+
+	/**
+	 * Añade un elemento al índice.
+	 *
+	 * @param element        elemento a añadir
+	 * @param normalizedText texto normalizado del elemento
+	 */
+	public void add(E element, String normalizedText) {
+		int id = elements.size();
+		elements.add(element);
+		texts.add(normalizedText);
+		ids.put(element, id);
+
+		for (int i = 0; i + MIN_QUERY_LENGTH <= normalizedText.length(); i++) {
+			IntList posting = postings.computeIfAbsent(trigram(normalizedText, i), k -> new IntList(4));
+			// los identificadores se añaden en orden creciente, así que basta con
+			// comprobar el último para no repetir el elemento si el trigrama aparece varias veces
+			if (posting.size() == 0 || posting.get(posting.size() - 1) != id) {
+				posting.add(id);
+			}
+		}
+	}
+
+	/**
+	 * Elimina un elemento del índice. El elemento se marca como eliminado y el
+	 * índice se reconstruye cuando hay muchos elementos eliminados.
+	 *
+	 * @param element elemento a eliminar
+	 */
+	public void remove(E element) {
+		Integer id = ids.remove(element);
+		if (id == null) {
+			return;
+		}
+
+		removed.set(id);
+		elements.set(id, null);
+		removedCount++;
+
+		if (removedCount >= MIN_REMOVED_TO_COMPACT && removedCount > elements.size() / 2) {
+			compact();
+		}
+	}
+
+	/**
+	 * Busca los elementos cuyo texto contiene el texto indicado. Los elementos se
+	 * devuelven en el orden en el que se añadieron al índice, junto con la
+	 * posición de la primera coincidencia en su texto.
+	 *
+	 * @param query texto normalizado a buscar, de al menos MIN_QUERY_LENGTH caracteres
+	 * @return resultado de la búsqueda
+	 */
+	public TextMatches<E> search(String query) {
+		if (query.length() < MIN_QUERY_LENGTH) {
+			throw new IllegalArgumentException("El texto a buscar debe tener al menos " + MIN_QUERY_LENGTH + " caracteres");
+		}
+
+		// obtenemos las listas de los trigramas distintos del texto buscado
+		// si algún trigrama no aparece en el índice no hay resultados
+		Set<Long> trigrams = new LinkedHashSet<>();
+		for (int i = 0; i + MIN_QUERY_LENGTH <= query.length(); i++) {
+			trigrams.add(trigram(query, i));
+		}
+		List<IntList> queryPostings = new ArrayList<>(trigrams.size());
+		for (Long t : trigrams) {
+			IntList posting = postings.get(t);
+			if (posting == null) {
+				return new TextMatches<>(List.of(), new int[0]);
+			}
+			queryPostings.add(posting);
+		}
+
+		// intersectamos empezando por la lista más corta para reducir cuanto
+		// antes el número de candidatos
+		queryPostings.sort(Comparator.comparingInt(IntList::size));
+		int[] candidates = queryPostings.get(0).toArray();
+		int count = candidates.length;
+		for (int p = 1; p < queryPostings.size() && count > 0; p++) {
+			count = intersect(candidates, count, queryPostings.get(p));
+		}
+
+		// los trigramas pueden aparecer en posiciones no consecutivas, así que se
+		// comprueba cada candidato y se obtiene la posición de la coincidencia
+		List<E> found = new ArrayList<>();
+		IntList offsets = new IntList();
+		for (int i = 0; i < count; i++) {
+			int id = candidates[i];
+			if (!removed.get(id)) {
+				int offset = texts.get(id).indexOf(query);
+				if (offset >= 0) {
+					found.add(elements.get(id));
+					offsets.add(offset);
+				}
+			}
+		}
+		return new TextMatches<>(List.copyOf(found), offsets.toArray());
+	}
+
+	// deja en las primeras posiciones de candidates los valores que también
+	// están en la lista indicada y devuelve el número de valores que quedan
+	// como ambas listas están ordenadas se busca cada candidato con búsqueda
+	// binaria a partir de la posición del candidato anterior
+	private static int intersect(int[] candidates, int count, IntList posting) {
+		int kept = 0;
+		int from = 0;
+		for (int i = 0; i < count && from < posting.size(); i++) {
+			int position = posting.binarySearch(from, candidates[i]);
+			if (position >= 0) {
+				candidates[kept++] = candidates[i];
+				from = position + 1;
+			} else {
+				from = -position - 1;
+			}
+		}
+		return kept;
+	}
+
+	// reconstruye el índice únicamente con los elementos no eliminados
+	private void compact() {
+		List<E> oldElements = elements;
+		List<String> oldTexts = texts;
+
+		elements = new ArrayList<>();
+		texts = new ArrayList<>();
+		ids = new HashMap<>();
+		removed = new BitSet();
+		removedCount = 0;
+		postings = new HashMap<>();
+
+		for (int id = 0; id < oldElements.size(); id++) {
+			if (oldElements.get(id) != null) {
+				add(oldElements.get(id), oldTexts.get(id));
+			}
+		}
+	}
+
+	// codifica los tres caracteres del texto a partir de la posición indicada en un long
+	private static long trigram(String text, int start) {
+		return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+	}
+}
@@ -0,0 +1,153 @@
+package service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escritor de documentos JSON que escribe cada valor directamente en el
+ * destino a medida que se genera, sin construir el documento en memoria, de
+ * manera que se pueden enviar respuestas con millones de elementos.
+ *
+ * El escritor se encarga de las comas entre elementos y de escapar los
+ * textos, pero no comprueba que la estructura del documento sea correcta.
+ */
+public class JsonWriter {
+
+	// profundidad máxima de objetos y arrays anidados
+	private static final int MAX_DEPTH = 32;
+
+	private Writer out; // destino del documento
+
+	// indica para cada nivel de anidamiento si ya se ha escrito algún elemento,
+	// en cuyo caso el siguiente elemento va precedido de una coma
+	private boolean[] hasElements = new boolean[MAX_DEPTH];
+	private int depth; // nivel de anidamiento actual
+	private boolean afterName; // indica que se acaba de escribir el nombre de un campo
+
+	/**
+	 * Constructor que recibe el destino del documento.
+	 *
+	 * @param out destino en el que se escribe el documento
+	 */
+	public JsonWriter(Writer out) {
+		this.out = out;
+	}
+
+	public JsonWriter beginObject() throws IOException {
+		beginValue();
+		out.write('{');
+		push();
+		return this;
+	}
+
+	public JsonWriter endObject() throws IOException {
+		depth--;
+		out.write('}');
+		return this;
+	}
+
+	public JsonWriter beginArray() throws IOException {
+		beginValue();
+		out.write('[');
+		push();
+		return this;
+	}
+
+	public JsonWriter endArray() throws IOException {
+		depth--;
+		out.write(']');
+		return this;
+	}
+
+	/**
+	 * Escribe el nombre de un campo de un objeto, que debe ir seguido de su valor.
+	 *
+	 * @param name nombre del campo
+	 * @return el propio escritor
+	 * @throws IOException si no se puede escribir en el destino
+	 */
+	public JsonWriter name(String name) throws IOException {
+		beginValue();
+		writeString(name);
+		out.write(':');
+		afterName = true;
+		return this;
+	}
+
+	public JsonWriter value(String value) throws IOException {
+		beginValue();
+		if (value == null) {
+			out.write("null");
+		} else {
+			writeString(value);
+		}
+		return this;
+	}
+
+	public JsonWriter value(long value) throws IOException {
+		beginValue();
+		out.write(Long.toString(value));
+		return this;
+	}
+
+	public JsonWriter value(double value) throws IOException {
+		beginValue();
+		// JSON no admite los valores infinitos ni NaN
+		out.write(Double.isFinite(value) ? Double.toString(value) : "null");
+		return this;
+	}
+
+	public JsonWriter value(boolean value) throws IOException {
+		beginValue();
+		out.write(value ? "true" : "false");
+		return this;
+	}
+
+	// abre un nuevo nivel de anidamiento sin elementos
+	private void push() {
+		if (depth == MAX_DEPTH) {
+			throw new IllegalStateException("Demasiados niveles de anidamiento");
+		}
+		hasElements[depth++] = false;
+	}
+
+	// escribe la coma que separa el valor del anterior si es necesario
+	private void beginValue() throws IOException {
+		if (afterName) {
+			// el valor de un campo va a continuación de su nombre
+			afterName = false;
+			return;
+		}
+		if (depth > 0) {
+			if (hasElements[depth - 1]) {
+				out.write(',');
+			}
+			hasElements[depth - 1] = true;
+		}
+	}
+
+	// escribe un texto entre comillas escapando los caracteres especiales
+	private void writeString(String value) throws IOException {
+		out.write('"');
+		int start = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			String escape = switch (c) {
+				case '"' -> "\\\"";
+				case '\\' -> "\\\\";
+				case '\n' -> "\\n";
+				case '\r' -> "\\r";
+				case '\t' -> "\\t";
+				default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+			};
+			// los tramos sin caracteres especiales se escriben de una vez
+			if (escape != null) {
+				out.write(value, start, i - start);
+				out.write(escape);
+				start = i + 1;
+			}
+		}
+		out.write(value, start, value.length() - start);
+		out.write('"');
+	}
+}
@@ -0,0 +1,579 @@
+package service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import domain.Athlete;
+import domain.DatasetSnapshot;
+import domain.DatasetStore;
+import domain.Medal;
+import log.Logger;
+import net.DescriptionCache;
+import net.DescriptionCacheException;
+import net.DisciplineRegistry;
+import net.VersionedDescription;
+import net.WebScraper;
+import net.WebScraperException;
+import search.AthleteIndexes;
+import search.AthleteQuery;
+import search.QueryContext;
+import search.QuerySyntaxException;
+import search.TextNormalizer;
+
+/**
+ * Servicio HTTP opcional que permite a otras herramientas de la máquina
+ * consultar en JSON las descripciones de las disciplinas, los atletas y el
+ * medallero, compartiendo la cache de descripciones de la aplicación en lugar
+ * de descargar cada una las páginas de la web.
+ *
+ * Rutas del servicio (todas con el método GET):
+ * <ul>
+ * <li>/descriptions/{disciplina}: descripción de una disciplina de las medallas
+ * obtenida de la cache de descripciones</li>
+ * <li>/athletes?q=consulta&amp;offset=0&amp;limit=100: atletas que cumplen una
+ * consulta con la sintaxis de AthleteQuery, o todos si no se indica</li>
+ * <li>/athletes/{código}: datos de un atleta con sus medallas</li>
+ * <li>/standings?discipline=disciplina: medallero por países, de todas las
+ * disciplinas o de la indicada</li>
+ * </ul>
+ *
+ * Cada petición se atiende en su propio hilo virtual, que también realiza la
+ * lectura o la descarga de las descripciones y la espera a que las descargue
+ * otro hilo, por lo que las esperas a la cache no limitan el número de
+ * clientes. Solo se consultan las disciplinas que aparecen en los datos, de
+ * manera que los clientes no pueden provocar descargas de páginas arbitrarias.
+ * Las respuestas se escriben en el
+ * cliente a medida que se generan, sin construirlas en memoria, e incluyen una
+ * ETag con la versión de los datos o de la descripción: si el cliente envía la
+ * misma ETag en If-None-Match se responde 304 sin volver a generar la respuesta.
+ *
+ * El servicio se activa con la propiedad del sistema service.port indicando el
+ * puerto (0 para uno libre) y únicamente acepta conexiones de la propia máquina.
+ */
+public class QueryService {
+
+	/**
+	 * Propiedad del sistema con el puerto que activa el servicio.
+	 */
+	public static final String PORT_PROPERTY = "service.port";
+
+	// tiempo máximo en milisegundos que se espera a que otro hilo descargue una descripción
+	private static final int MAX_WAIT = 10_000;
+
+	// registro de mensajes del servicio
+	private static final Logger log = Logger.getLogger(QueryService.class);
+
+	// función que escribe el cuerpo de una respuesta
+	@FunctionalInterface
+	private interface JsonBody {
+		void write(JsonWriter json) throws IOException;
+	}
+
+	// función que atiende las peticiones de una ruta
+	@FunctionalInterface
+	private interface Handler {
+		void handle(HttpExchange exchange) throws IOException;
+	}
+
+	// índices de una versión de los datos que se calculan una única vez y se
+	// comparten entre todas las peticiones mientras no cambian los datos
+	private static class SnapshotIndexes implements QueryContext<Athlete> {
+		DatasetSnapshot snapshot; // versión de los datos indexada
+		AthleteIndexes athleteIndexes; // índices utilizados por las consultas
+		Map<Athlete, String> normalizedNames = new HashMap<>(); // nombre normalizado de cada atleta
+		Map<Integer, Athlete> athletesByCode = new HashMap<>(); // atletas por código
+		Map<String, URL> disciplines = new HashMap<>(); // URL de cada disciplina por su nombre canónico
+
+		SnapshotIndexes(DatasetSnapshot snapshot) {
+			this.snapshot = snapshot;
+			this.athleteIndexes = AthleteIndexes.of(snapshot);
+			for (Athlete athlete : snapshot.getAthletes()) {
+				normalizedNames.put(athlete, TextNormalizer.normalize(athlete.getName()));
+				athletesByCode.put(athlete.getCode(), athlete);
+			}
+			snapshot.getAllMedals().map(Medal::getDiscipline).distinct().forEach(name -> {
+				try {
+					disciplines.putIfAbsent(DisciplineRegistry.canonicalize(name), WebScraper.getURL(name));
+				} catch (WebScraperException e) {
+					log.warn("Disciplina incorrecta {}. {}", name, e.getMessage());
+				}
+			});
+		}
+
+		// obtiene la URL de una disciplina de los datos a partir de cualquier
+		// variante de su nombre, o null si no es ninguna de ellas; no se utiliza el
+		// registro de disciplinas para que los nombres recibidos no se guarden en él
+		URL findDiscipline(String name) {
+			return disciplines.get(DisciplineRegistry.canonicalize(name));
+		}
+
+		@Override
+		public List<Athlete> getData() {
+			return snapshot.getAthletes();
+		}
+
+		@Override
+		public List<Athlete> searchText(String normalizedQuery) {
+			List<Athlete> result = new ArrayList<>();
+			for (Athlete athlete : snapshot.getAthletes()) {
+				if (normalizedNames.get(athlete).contains(normalizedQuery)) {
+					result.add(athlete);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public String getNormalizedText(Athlete athlete) {
+			return normalizedNames.get(athlete);
+		}
+	}
+
+	private DatasetStore dataset; // datos de la aplicación
+	private DescriptionCache cache; // cache de descripciones compartida con la aplicación
+
+	// identificador de esta ejecución del servicio que se incluye en las ETags, ya
+	// que las versiones de los datos y de las descripciones empiezan en cada ejecución
+	private String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+
+	// índices de la última versión de los datos consultada, el cerrojo evita que
+	// varias peticiones simultáneas los calculen a la vez
+	private volatile SnapshotIndexes indexes;
+	private ReentrantLock indexesLock = new ReentrantLock();
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private CountDownLatch stopped = new CountDownLatch(1); // se libera al detener el servicio
+
+	/**
+	 * Constructor que recibe los datos y la cache de descripciones a consultar.
+	 *
+	 * @param dataset almacén con la versión actual de los datos
+	 * @param cache   cache de descripciones de disciplinas
+	 */
+	public QueryService(DatasetStore dataset, DescriptionCache cache) {
+		this.dataset = dataset;
+		this.cache = cache;
+	}
+
+	/**
+	 * Crea e inicia el servicio si se ha indicado el puerto con la propiedad del
+	 * sistema service.port.
+	 *
+	 * @param dataset almacén con la versión actual de los datos
+	 * @return servicio iniciado o null si no se ha activado o no se ha podido iniciar
+	 */
+	public static QueryService startFromProperties(DatasetStore dataset) {
+		String port = System.getProperty(PORT_PROPERTY);
+		if (port == null || port.isBlank()) {
+			return null;
+		}
+
+		try {
+			QueryService service = new QueryService(dataset, DescriptionCache.getInstance());
+			int boundPort = service.start(Integer.parseInt(port.strip()));
+			System.out.format("Servicio de consultas en http://localhost:%d/%n", boundPort);
+			return service;
+		} catch (NumberFormatException e) {
+			System.err.println("Valor incorrecto de la propiedad " + PORT_PROPERTY + ": " + port);
+		} catch (IOException e) {
+			System.err.println("No se ha podido iniciar el servicio de consultas. " + e.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Inicia el servicio en el puerto indicado de la interfaz local.
+	 *
+	 * @param port puerto del servicio o 0 para utilizar uno libre
+	 * @return puerto en el que escucha el servicio
+	 * @throws IOException si no se puede abrir el puerto
+	 */
+	public synchronized int start(int port) throws IOException {
+		if (server != null) {
+			return server.getAddress().getPort();
+		}
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/descriptions/", exchange -> handle(exchange, this::handleDescription));
+		server.createContext("/athletes", exchange -> handle(exchange, this::handleAthletes));
+		server.createContext("/standings", exchange -> handle(exchange, this::handleStandings));
+		server.createContext("/", exchange -> handle(exchange, e -> sendError(e, 404, "Ruta desconocida")));
+		// cada petición se atiende en un hilo virtual, las esperas a la cache o a
+		// clientes lentos no ocupan hilos del sistema
+		executor = Executors.newVirtualThreadPerTaskExecutor();
+		server.setExecutor(executor);
+		server.start();
+		log.info("Servicio de consultas iniciado en el puerto {}", server.getAddress().getPort());
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Detiene el servicio esperando como máximo un segundo a que terminen las
+	 * peticiones en curso.
+	 */
+	public synchronized void stop() {
+		if (server != null) {
+			server.stop(1);
+			executor.shutdownNow();
+			server = null;
+			stopped.countDown();
+			log.info("Servicio de consultas detenido");
+		}
+	}
+
+	/**
+	 * Espera a que se detenga el servicio.
+	 *
+	 * @throws InterruptedException si se interrumpe la espera
+	 */
+	public void awaitTermination() throws InterruptedException {
+		stopped.await();
+	}
+
+	// atiende una petición comprobando el método y cerrándola siempre al terminar
+	private void handle(HttpExchange exchange, Handler handler) {
+		try (exchange) {
+			if (!exchange.getRequestMethod().equals("GET")) {
+				exchange.getResponseHeaders().set("Allow", "GET");
+				sendError(exchange, 405, "Método no permitido");
+				return;
+			}
+			handler.handle(exchange);
+		} catch (IOException e) {
+			// normalmente el cliente ha cerrado la conexión antes de recibir la respuesta
+			log.debug("Error al responder a {}. {}", exchange.getRequestURI(), e.getMessage());
+		} catch (RuntimeException e) {
+			log.error("Error al atender la petición {}. {}", exchange.getRequestURI(), e);
+		}
+	}
+
+	// GET /descriptions/{disciplina}
+	private void handleDescription(HttpExchange exchange) throws IOException {
+		String name = exchange.getRequestURI().getPath().substring("/descriptions/".length());
+		if (name.isBlank()) {
+			sendError(exchange, 400, "Falta el nombre de la disciplina");
+			return;
+		}
+
+		URL url = getIndexes(dataset.getSnapshot()).findDiscipline(name);
+		if (url == null) {
+			sendError(exchange, 404, "Disciplina desconocida: " + name);
+			return;
+		}
+
+		// si la descripción guardada no ha cambiado no es necesario leerla de disco
+		long version = cache.getVersion(url);
+		if (version != DescriptionCache.NO_VERSION && notModified(exchange, descriptionTag(version))) {
+			return;
+		}
+
+		// la descripción se obtiene de la cache en el hilo virtual de la petición, la
+		// cache la descarga si es necesario y evita que varias peticiones simultáneas
+		// descarguen la misma disciplina
+		VersionedDescription description;
+		try {
+			description = cache.getVersionedDescription(url, MAX_WAIT);
+		} catch (DescriptionCacheException e) {
+			sendError(exchange, 502, e.getMessage());
+			return;
+		}
+
+		// la etiqueta utiliza la versión de los párrafos obtenidos y no la actual,
+		// que puede haber cambiado si la descripción se ha vuelto a descargar
+		List<String> paragraphs = description.paragraphs();
+		sendJson(exchange, 200, descriptionTag(description.version()), json -> {
+			json.beginObject();
+			json.name("discipline").value(name);
+			json.name("url").value(url.toString());
+			json.name("paragraphs").beginArray();
+			for (String paragraph : paragraphs) {
+				json.value(paragraph);
+			}
+			json.endArray();
+			json.endObject();
+		});
+	}
+
+	// GET /athletes y GET /athletes/{código}
+	private void handleAthletes(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		if (path.startsWith("/athletes/") && path.length() > "/athletes/".length()) {
+			handleAthlete(exchange, path.substring("/athletes/".length()));
+			return;
+		}
+
+		Map<String, String> params = parseQuery(exchange);
+		DatasetSnapshot snapshot = dataset.getSnapshot();
+		String etag = snapshotTag(snapshot);
+		if (notModified(exchange, etag)) {
+			return;
+		}
+
+		int offset;
+		int limit;
+		try {
+			offset = Integer.parseInt(params.getOrDefault("offset", "0"));
+			limit = Integer.parseInt(params.getOrDefault("limit", Integer.toString(Integer.MAX_VALUE)));
+		} catch (NumberFormatException e) {
+			sendError(exchange, 400, "Valor numérico incorrecto: " + e.getMessage());
+			return;
+		}
+		if (offset < 0 || limit < 0) {
+			sendError(exchange, 400, "offset y limit no pueden ser negativos");
+			return;
+		}
+
+		// la consulta se ejecuta con los índices de la versión de los datos obtenida
+		SnapshotIndexes current = getIndexes(snapshot);
+		List<Athlete> athletes;
+		String query = params.get("q");
+		if (query == null || query.isBlank()) {
+			athletes = current.snapshot.getAthletes();
+		} else {
+			try {
+				athletes = AthleteQuery.compile(query, () -> current.snapshot, () -> current.athleteIndexes).execute(current);
+			} catch (QuerySyntaxException e) {
+				sendError(exchange, 400, e.getMessage());
+				return;
+			}
+		}
+
+		int from = Math.min(offset, athletes.size());
+		int to = (int) Math.min((long) from + limit, athletes.size());
+		sendJson(exchange, 200, etag, json -> {
+			json.beginObject();
+			json.name("version").value(current.snapshot.getVersion());
+			json.name("total").value(athletes.size());
+			json.name("offset").value(from);
+			json.name("athletes").beginArray();
+			for (Athlete athlete : athletes.subList(from, to)) {
+				writeAthlete(json, athlete);
+				json.name("medals").value(current.snapshot.getMedals(athlete.getCode()).size());
+				json.endObject();
+			}
+			json.endArray();
+			json.endObject();
+		});
+	}
+
+	// GET /athletes/{código}
+	private void handleAthlete(HttpExchange exchange, String code) throws IOException {
+		SnapshotIndexes current = getIndexes(dataset.getSnapshot());
+		Athlete athlete;
+		try {
+			athlete = current.athletesByCode.get(Integer.parseInt(code));
+		} catch (NumberFormatException e) {
+			sendError(exchange, 400, "Código de atleta incorrecto: " + code);
+			return;
+		}
+		if (athlete == null) {
+			sendError(exchange, 404, "Atleta no encontrado: " + code);
+			return;
+		}
+
+		String etag = snapshotTag(current.snapshot);
+		if (notModified(exchange, etag)) {
+			return;
+		}
+
+		sendJson(exchange, 200, etag, json -> {
+			writeAthlete(json, athlete);
+			json.name("medals").beginArray();
+			for (Medal medal : current.snapshot.getMedals(athlete.getCode())) {
+				json.beginObject();
+				json.name("metal").value(medal.getMetal().name());
+				json.name("date").value(medal.getMedalDate().toString());
+				json.name("discipline").value(medal.getDiscipline());
+				json.endObject();
+			}
+			json.endArray();
+			json.endObject();
+		});
+	}
+
+	// GET /standings?discipline=disciplina
+	private void handleStandings(HttpExchange exchange) throws IOException {
+		Map<String, String> params = parseQuery(exchange);
+		DatasetSnapshot snapshot = dataset.getSnapshot();
+		String etag = snapshotTag(snapshot);
+		if (notModified(exchange, etag)) {
+			return;
+		}
+
+		// las disciplinas se comparan por su URL, que es la misma instancia para
+		// todas las variantes del nombre de una disciplina
+		String discipline = params.get("discipline");
+		URL disciplineURL = null;
+		if (discipline != null) {
+			disciplineURL = getIndexes(snapshot).findDiscipline(discipline);
+			if (disciplineURL == null) {
+				sendError(exchange, 404, "Disciplina desconocida: " + discipline);
+				return;
+			}
+		}
+
+		// número de medallas de oro, plata y bronce de cada país
+		URL filter = disciplineURL;
+		Map<String, int[]> medalsByCountry = new HashMap<>();
+		snapshot.getAllMedals().filter(medal -> filter == null || isDiscipline(medal, filter)).forEach(medal -> {
+			int[] counts = medalsByCountry.computeIfAbsent(medal.getAthlete().getCountry(), k -> new int[3]);
+			counts[medal.getMetal().ordinal()]++;
+		});
+
+		// se ordena por oros, platas y bronces como en el medallero oficial
+		List<Map.Entry<String, int[]>> standings = new ArrayList<>(medalsByCountry.entrySet());
+		standings.sort(Comparator.<Map.Entry<String, int[]>>comparingInt(e -> -e.getValue()[0])
+				.thenComparingInt(e -> -e.getValue()[1])
+				.thenComparingInt(e -> -e.getValue()[2])
+				.thenComparing(Map.Entry::getKey));
+
+		sendJson(exchange, 200, etag, json -> {
+			json.beginObject();
+			json.name("version").value(snapshot.getVersion());
+			json.name("discipline").value(discipline);
+			json.name("countries").beginArray();
+			for (Map.Entry<String, int[]> entry : standings) {
+				int[] counts = entry.getValue();
+				json.beginObject();
+				json.name("country").value(entry.getKey());
+				json.name("gold").value(counts[0]);
+				json.name("silver").value(counts[1]);
+				json.name("bronze").value(counts[2]);
+				json.name("total").value(counts[0] + counts[1] + counts[2]);
+				json.endObject();
+			}
+			json.endArray();
+			json.endObject();
+		});
+	}
+
+	// indica si una medalla es de la disciplina con la URL indicada
+	private static boolean isDiscipline(Medal medal, URL discipline) {
+		try {
+			return WebScraper.getURL(medal.getDiscipline()) == discipline;
+		} catch (WebScraperException e) {
+			return false; // la medalla no puede ser de la disciplina indicada
+		}
+	}
+
+	// escribe los datos de un atleta dejando el objeto abierto para añadir las medallas
+	private static void writeAthlete(JsonWriter json, Athlete athlete) throws IOException {
+		json.beginObject();
+		json.name("code").value(athlete.getCode());
+		json.name("name").value(athlete.getName());
+		json.name("genre").value(athlete.getGenre().name());
+		json.name("country").value(athlete.getCountry());
+		json.name("birthdate").value(athlete.getBirthdate().toString());
+		json.name("height").value(athlete.getHeight());
+		json.name("weight").value(athlete.getWeight());
+	}
+
+	// obtiene los índices de una versión de los datos, calculándolos si no son los
+	// de la última versión consultada
+	private SnapshotIndexes getIndexes(DatasetSnapshot snapshot) {
+		SnapshotIndexes current = indexes;
+		if (current != null && current.snapshot == snapshot) {
+			return current;
+		}
+
+		indexesLock.lock();
+		try {
+			// otra petición puede haberlos calculado mientras se esperaba al cerrojo
+			if (indexes == null || indexes.snapshot != snapshot) {
+				indexes = new SnapshotIndexes(snapshot);
+			}
+			return indexes;
+		} finally {
+			indexesLock.unlock();
+		}
+	}
+
+	// ETag de las respuestas calculadas a partir de una versión de los datos
+	private String snapshotTag(DatasetSnapshot snapshot) {
+		return "\"" + instanceTag + "-" + snapshot.getVersion() + "\"";
+	}
+
+	// ETag de la descripción de una disciplina
+	private String descriptionTag(long version) {
+		return "\"" + instanceTag + "-d" + version + "\"";
+	}
+
+	// responde 304 si el cliente ya tiene la respuesta con la ETag indicada
+	private static boolean notModified(HttpExchange exchange, String etag) throws IOException {
+		String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.strip();
+			// la comparación débil ignora el prefijo W/
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals(etag) || tag.equals("*")) {
+				exchange.getResponseHeaders().set("ETag", etag);
+				exchange.sendResponseHeaders(304, -1);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// envía una respuesta JSON escribiéndola en el cliente a medida que se genera
+	private static void sendJson(HttpExchange exchange, int status, String etag, JsonBody body) throws IOException {
+		Headers headers = exchange.getResponseHeaders();
+		headers.set("Content-Type", "application/json; charset=utf-8");
+		if (etag != null) {
+			headers.set("ETag", etag);
+			// el cliente puede guardar la respuesta pero debe validarla con la ETag
+			headers.set("Cache-Control", "no-cache");
+		}
+		// longitud 0: la respuesta se envía por partes sin conocer su tamaño
+		exchange.sendResponseHeaders(status, 0);
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+			body.write(new JsonWriter(writer));
+		}
+	}
+
+	// envía una respuesta de error con un objeto JSON que contiene el mensaje
+	private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+		sendJson(exchange, status, null, json -> json.beginObject().name("error").value(message).endObject());
+	}
+
+	// obtiene los parámetros de la URL de la petición
+	private static Map<String, String> parseQuery(HttpExchange exchange) {
+		Map<String, String> params = new HashMap<>();
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query == null) {
+			return params;
+		}
+		for (String pair : query.split("&")) {
+			int separator = pair.indexOf('=');
+			String name = separator < 0 ? pair : pair.substring(0, separator);
+			String value = separator < 0 ? "" : pair.substring(separator + 1);
+			params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+		}
+		return params;
+	}
+}